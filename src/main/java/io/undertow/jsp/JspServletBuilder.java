@@ -37,5 +37,108 @@ public class JspServletBuilder {
         return servlet;
     }
 
+    /**
+     * Selects the writer used for the output of pages served by the given JSP
+     * servlet. When enabled, output is encoded directly into pooled byte
+     * buffers of the connection instead of going through a character buffer
+     * and the servlet writer. Responses wrapped by filters or includes always
+     * use the character buffer.
+     */
+    public static ServletInfo setPooledBufferWriter(final ServletInfo servlet, final boolean enabled) {
+        servlet.addInitParam("pooledBufferWriter", Boolean.toString(enabled));
+        return servlet;
+    }
+
+    /**
+     * Selects whether pages served by the given JSP servlet are rendered on a
+     * worker thread of an asynchronous request, their output being written
+     * by a non-blocking write listener as the client reads it. Enabling it
+     * also marks the servlet as supporting asynchronous processing, which is
+     * required as well for pages enabled through the asyncOutput setting of
+     * a {@link JspPropertyGroup}.
+     */
+    public static ServletInfo setAsyncOutput(final ServletInfo servlet, final boolean enabled) {
+        servlet.addInitParam("asyncOutput", Boolean.toString(enabled));
+        if (enabled) {
+            servlet.setAsyncSupported(true);
+        }
+        return servlet;
+    }
+
+    /**
+     * Defers the flushes requested by pages served by the given JSP servlet,
+     * through <code>out.flush()</code> or includes with <code>flush="true"</code>,
+     * until <code>size</code> characters or bytes have been written since the
+     * last flush that reached the response, or until the end of the page.
+     * A deferred flush is not made later on its own, so pages needing every
+     * flush, such as streaming pages, have to opt out with the strictFlush
+     * setting of a {@link JspPropertyGroup}.
+     */
+    public static ServletInfo setFlushCoalescing(final ServletInfo servlet, final int size) {
+        servlet.addInitParam("flushCoalescingSize", Integer.toString(size));
+        return servlet;
+    }
+
+    /**
+     * Selects whether pages compiled by the given JSP servlet write out their
+     * output right after the template text closing the document head. Pages
+     * with an error page, or with a forward, an include, scripting elements
+     * or custom tags not allowed by {@link #setFlushEarlyTags} after their
+     * head, are not flushed, nor are any pages of a deployment declaring
+     * error pages. Can be overridden per page with the flushEarly setting of
+     * a {@link JspPropertyGroup}.
+     */
+    public static ServletInfo setFlushEarly(final ServletInfo servlet, final boolean enabled) {
+        servlet.addInitParam("flushEarly", Boolean.toString(enabled));
+        return servlet;
+    }
+
+    /**
+     * Allows the custom tags with the given handler classes after the head of
+     * pages flushed early, see {@link #setFlushEarly}. The tags must never
+     * redirect, forward or send an error.
+     */
+    public static ServletInfo setFlushEarlyTags(final ServletInfo servlet, final Class<?>... tagClasses) {
+        StringBuilder tags = new StringBuilder();
+        for (Class<?> tagClass : tagClasses) {
+            if (tags.length() > 0) {
+                tags.append(',');
+            }
+            tags.append(tagClass.getName());
+        }
+        servlet.addInitParam("flushEarlyTags", tags.toString());
+        return servlet;
+    }
+
+    /**
+     * Compiles all the pages of the deployment on <code>parallelism</code>
+     * threads when the given JSP servlet starts, so that their first
+     * requests do not wait for the compiler. The servlet is loaded on
+     * startup, and the deployment is ready when the pages are compiled, or
+     * after <code>timeout</code> seconds if greater than 0, the remaining
+     * pages being compiled on their first request. Failures are logged with
+     * the summary of the compilation.
+     */
+    public static ServletInfo setWarmUpCompilation(final ServletInfo servlet, final int parallelism, final int timeout) {
+        servlet.addInitParam("warmUpParallelism", Integer.toString(parallelism));
+        servlet.addInitParam("warmUpTimeout", Integer.toString(timeout));
+        if (parallelism > 0 && servlet.getLoadOnStartup() == null) {
+            servlet.setLoadOnStartup(1);
+        }
+        return servlet;
+    }
+
+    /**
+     * Caches the classes of the pages compiled by the given JSP servlet in
+     * <code>directory</code>, keyed by the content of their sources and by
+     * the settings they are compiled with. Deployments and nodes sharing
+     * the directory reuse the classes of unchanged pages instead of
+     * compiling them again, even with an empty scratch directory.
+     */
+    public static ServletInfo setCompilationCache(final ServletInfo servlet, final String directory) {
+        servlet.addInitParam("compilationCache", directory);
+        return servlet;
+    }
+
 
 }
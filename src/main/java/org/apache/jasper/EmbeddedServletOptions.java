@@ -17,10 +17,15 @@
 
 package org.apache.jasper;
 
+import io.undertow.servlet.spec.ServletContextImpl;
+
 import java.io.File;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.jsp.tagext.TagLibraryInfo;
@@ -96,6 +101,41 @@ public final class EmbeddedServletOptions implements Options {
      */
     private boolean genStringAsCharArray = false;
 
+    /**
+     * Are Text strings to be generated as pre-encoded byte arrays?
+     */
+    private boolean genStringAsByteArray = false;
+
+    /**
+     * Is page output to be encoded directly into pooled byte buffers?
+     */
+    private boolean pooledBufferWriter = false;
+
+    /**
+     * Are pages compiled in memory?
+     */
+    private boolean inMemoryCompilation = false;
+
+    /**
+     * Are pages rendered with non-blocking output?
+     */
+    private boolean asyncOutput = false;
+
+    /**
+     * Are pages flushed after their document head?
+     */
+    private boolean flushEarly = false;
+
+    /**
+     * Tag handler classes allowed after the head of pages flushed early.
+     */
+    private Set<String> flushEarlyTags = Collections.emptySet();
+
+    /**
+     * Does the deployment declare error pages?
+     */
+    private boolean errorPages = false;
+
     private boolean errorOnUseBeanInvalidClassAttribute = true;
 
     /**
@@ -180,6 +220,37 @@ public final class EmbeddedServletOptions implements Options {
      */
     private int jspIdleTimeout = -1;
 
+    /**
+     * The largest buffer size pages may be given from the sizes of their
+     * previous responses. If unset or less or equal than 0, buffer sizes
+     * are not adapted.
+     */
+    private int maxAdaptiveBufferSize = -1;
+
+    /**
+     * The output below which flushes requested by pages are deferred. If
+     * unset or less or equal than 0, flushes are never deferred.
+     */
+    private int flushCoalescingSize = -1;
+
+    /**
+     * The number of threads compiling all pages on startup. If unset or less
+     * or equal than 0, pages are compiled on their first request.
+     */
+    private int warmUpParallelism = -1;
+
+    /**
+     * The time in seconds after which the pages not yet compiled on startup
+     * are left to their first request.
+     */
+    private int warmUpTimeout = -1;
+
+    /**
+     * The directory of the compilation cache shared by deployments and
+     * nodes, if any.
+     */
+    private File compilationCache = null;
+
     private boolean optimizeJspScriptlets = Boolean.getBoolean("org.apache.jasper.compiler.Parser.OPTIMIZE_SCRIPTLETS");
 
     public String getProperty(String name ) {
@@ -285,6 +356,62 @@ public final class EmbeddedServletOptions implements Options {
         return this.genStringAsCharArray;
     }
 
+    /**
+     * Are Text strings to be generated as pre-encoded byte arrays?
+     */
+    @Override
+    public boolean genStringAsByteArray() {
+        return this.genStringAsByteArray;
+    }
+
+    /**
+     * Is page output to be encoded directly into pooled byte buffers?
+     */
+    @Override
+    public boolean isPooledBufferWriter() {
+        return this.pooledBufferWriter;
+    }
+
+    /**
+     * Are pages compiled in memory?
+     */
+    @Override
+    public boolean isInMemoryCompilation() {
+        return this.inMemoryCompilation;
+    }
+
+    /**
+     * Are pages rendered with non-blocking output?
+     */
+    @Override
+    public boolean isAsyncOutput() {
+        return this.asyncOutput;
+    }
+
+    /**
+     * Are pages flushed after their document head?
+     */
+    @Override
+    public boolean isFlushEarly() {
+        return this.flushEarly;
+    }
+
+    /**
+     * Which tag handlers may follow the head of pages flushed early?
+     */
+    @Override
+    public Set<String> getFlushEarlyTags() {
+        return this.flushEarlyTags;
+    }
+
+    /**
+     * Does the deployment declare error pages?
+     */
+    @Override
+    public boolean hasErrorPages() {
+        return this.errorPages;
+    }
+
     /**
      * What is my scratch dir?
      */
@@ -408,6 +535,52 @@ public final class EmbeddedServletOptions implements Options {
         return jspIdleTimeout;
     }
 
+    /**
+     * Should page buffers be sized from the previous responses, up to this
+     * size? If set to a value greater than 0 buffers are adapted. Default: -1
+     */
+    @Override
+    public int getMaxAdaptiveBufferSize() {
+        return maxAdaptiveBufferSize;
+    }
+
+    /**
+     * Should flushes requested by pages be deferred until this much output
+     * has been written? If set to a value greater than 0 they are.
+     * Default: -1
+     */
+    @Override
+    public int getFlushCoalescingSize() {
+        return flushCoalescingSize;
+    }
+
+    /**
+     * How many threads compile all pages on startup? If set to a value
+     * greater than 0 they are compiled. Default: -1
+     */
+    @Override
+    public int getWarmUpParallelism() {
+        return warmUpParallelism;
+    }
+
+    /**
+     * After how many seconds are the pages not yet compiled on startup left
+     * to their first request? Default: -1, no limit
+     */
+    @Override
+    public int getWarmUpTimeout() {
+        return warmUpTimeout;
+    }
+
+    /**
+     * Where are the classes compiled by this or other nodes cached?
+     * Default: <code>null</code>, no cache
+     */
+    @Override
+    public File getCompilationCache() {
+        return compilationCache;
+    }
+
     @Override
     public boolean isOptimizeJSPScriptlets() {
         return optimizeJspScriptlets;
@@ -556,6 +729,77 @@ public final class EmbeddedServletOptions implements Options {
             }
         }
 
+        String genByteArray = config.getInitParameter("genStringAsByteArray");
+        if (genByteArray != null) {
+            if (genByteArray.equalsIgnoreCase("true")) {
+                genStringAsByteArray = true;
+            } else if (genByteArray.equalsIgnoreCase("false")) {
+                genStringAsByteArray = false;
+            } else {
+                JasperLogger.ROOT_LOGGER.invalidGenStrAsByteArrayValue(genByteArray);
+            }
+        }
+
+        String pooledWriter = config.getInitParameter("pooledBufferWriter");
+        if (pooledWriter != null) {
+            if (pooledWriter.equalsIgnoreCase("true")) {
+                pooledBufferWriter = true;
+            } else if (pooledWriter.equalsIgnoreCase("false")) {
+                pooledBufferWriter = false;
+            } else {
+                JasperLogger.ROOT_LOGGER.invalidPooledBufferWriterValue(pooledWriter);
+            }
+        }
+
+        String inMemory = config.getInitParameter("inMemoryCompilation");
+        if (inMemory != null) {
+            if (inMemory.equalsIgnoreCase("true")) {
+                inMemoryCompilation = true;
+            } else if (inMemory.equalsIgnoreCase("false")) {
+                inMemoryCompilation = false;
+            } else {
+                JasperLogger.ROOT_LOGGER.invalidInMemoryCompilationValue(inMemory);
+            }
+        }
+
+        String async = config.getInitParameter("asyncOutput");
+        if (async != null) {
+            if (async.equalsIgnoreCase("true")) {
+                asyncOutput = true;
+            } else if (async.equalsIgnoreCase("false")) {
+                asyncOutput = false;
+            } else {
+                JasperLogger.ROOT_LOGGER.invalidAsyncOutputValue(async);
+            }
+        }
+
+        String flushHead = config.getInitParameter("flushEarly");
+        if (flushHead != null) {
+            if (flushHead.equalsIgnoreCase("true")) {
+                flushEarly = true;
+            } else if (flushHead.equalsIgnoreCase("false")) {
+                flushEarly = false;
+            } else {
+                JasperLogger.ROOT_LOGGER.invalidFlushEarlyValue(flushHead);
+            }
+        }
+
+        String flushEarlyTags = config.getInitParameter("flushEarlyTags");
+        if (flushEarlyTags != null) {
+            Set<String> tags = new HashSet<String>();
+            for (String tag : flushEarlyTags.split(",")) {
+                if (!tag.trim().isEmpty()) {
+                    tags.add(tag.trim());
+                }
+            }
+            this.flushEarlyTags = Collections.unmodifiableSet(tags);
+        }
+
+        if (context instanceof ServletContextImpl) {
+            errorPages = !((ServletContextImpl) context).getDeployment()
+                    .getDeploymentInfo().getErrorPages().isEmpty();
+        }
+
         String errBeanClass =
             config.getInitParameter("errorOnUseBeanInvalidClassAttribute");
         if (errBeanClass != null) {
@@ -671,6 +915,52 @@ public final class EmbeddedServletOptions implements Options {
             }
         }
 
+        String maxAdaptiveBufferSize = config.getInitParameter("maxAdaptiveBufferSize");
+        if (maxAdaptiveBufferSize != null) {
+            try {
+                this.maxAdaptiveBufferSize = Integer.parseInt(maxAdaptiveBufferSize);
+            } catch(NumberFormatException ex) {
+                JasperLogger.ROOT_LOGGER.invalidMaxAdaptiveBufferSize(maxAdaptiveBufferSize);
+            }
+        }
+
+        String flushCoalescingSize = config.getInitParameter("flushCoalescingSize");
+        if (flushCoalescingSize != null) {
+            try {
+                this.flushCoalescingSize = Integer.parseInt(flushCoalescingSize);
+            } catch(NumberFormatException ex) {
+                JasperLogger.ROOT_LOGGER.invalidFlushCoalescingSize(flushCoalescingSize);
+            }
+        }
+
+        String warmUpParallelism = config.getInitParameter("warmUpParallelism");
+        if (warmUpParallelism != null) {
+            try {
+                this.warmUpParallelism = Integer.parseInt(warmUpParallelism);
+            } catch(NumberFormatException ex) {
+                JasperLogger.ROOT_LOGGER.invalidWarmUpParallelism(warmUpParallelism);
+            }
+        }
+
+        String warmUpTimeout = config.getInitParameter("warmUpTimeout");
+        if (warmUpTimeout != null) {
+            try {
+                this.warmUpTimeout = Integer.parseInt(warmUpTimeout);
+            } catch(NumberFormatException ex) {
+                JasperLogger.ROOT_LOGGER.invalidWarmUpTimeout(warmUpTimeout);
+            }
+        }
+
+        String compilationCache = config.getInitParameter("compilationCache");
+        if (compilationCache != null) {
+            File cacheDir = new File(compilationCache);
+            if ((cacheDir.isDirectory() || cacheDir.mkdirs()) && cacheDir.canWrite()) {
+                this.compilationCache = cacheDir;
+            } else {
+                JasperLogger.ROOT_LOGGER.invalidCompilationCache(cacheDir.getAbsolutePath());
+            }
+        }
+
         // Setup the jsp config info for this web app.
         jspConfig = new JspConfig(context);
 
@@ -20,6 +20,7 @@ package org.apache.jasper;
 
 import static org.jboss.logging.Logger.Level.DEBUG;
 import static org.jboss.logging.Logger.Level.ERROR;
+import static org.jboss.logging.Logger.Level.INFO;
 import static org.jboss.logging.Logger.Level.WARN;
 
 import java.io.File;
@@ -226,4 +227,72 @@ public interface JasperLogger extends BasicLogger {
     @Message(id = 5042, value = "Unsupported target VM %s requested, using %s")
     void errorUnsupportedTargetVM(String requestedVM, String actualVM);
 
+    @LogMessage(level = WARN)
+    @Message(id = 5043, value = "Invalid %s value for the initParam genStringAsByteArray. Will use the default value of \"false\"")
+    void invalidGenStrAsByteArrayValue(String value);
+
+    @LogMessage(level = WARN)
+    @Message(id = 5044, value = "Invalid %s value for the initParam pooledBufferWriter. Will use the default value of \"false\"")
+    void invalidPooledBufferWriterValue(String value);
+
+    @LogMessage(level = WARN)
+    @Message(id = 5045, value = "Invalid value '%s' for the initParam maxAdaptiveBufferSize. Will use the default value of '-1'")
+    void invalidMaxAdaptiveBufferSize(String value);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 5046, value = "Failed rendering JSP page %s after its output was started")
+    void failedAsyncPage(String uri, @Cause Throwable t);
+
+    @LogMessage(level = WARN)
+    @Message(id = 5047, value = "Invalid %s value for the initParam asyncOutput. Will use the default value of \"false\"")
+    void invalidAsyncOutputValue(String value);
+
+    @LogMessage(level = WARN)
+    @Message(id = 5048, value = "Invalid value '%s' for the initParam flushCoalescingSize. Will use the default value of '-1'")
+    void invalidFlushCoalescingSize(String value);
+
+    @LogMessage(level = WARN)
+    @Message(id = 5050, value = "Invalid %s value for the initParam flushEarly. Will use the default value of \"false\"")
+    void invalidFlushEarlyValue(String value);
+
+    @LogMessage(level = WARN)
+    @Message(id = 5051, value = "Invalid page context pool strategy '%s'. Will use the default strategy \"thread\"")
+    void invalidPoolStrategy(String value);
+
+    @LogMessage(level = WARN)
+    @Message(id = 5052, value = "Invalid %s value for the initParam inMemoryCompilation. Will use the default value of \"false\"")
+    void invalidInMemoryCompilationValue(String value);
+
+    @LogMessage(level = WARN)
+    @Message(id = 5053, value = "Invalid value '%s' for the initParam warmUpParallelism. Will use the default value of '-1'")
+    void invalidWarmUpParallelism(String value);
+
+    @LogMessage(level = WARN)
+    @Message(id = 5054, value = "Invalid value '%s' for the initParam warmUpTimeout. Will use the default value of '-1'")
+    void invalidWarmUpTimeout(String value);
+
+    @LogMessage(level = INFO)
+    @Message(id = 5055, value = "Compiling %s JSP pages of %s on %s threads")
+    void warmUpStarted(int count, String contextPath, int parallelism);
+
+    @LogMessage(level = INFO)
+    @Message(id = 5056, value = "Compiled %s of %s JSP pages of %s")
+    void warmUpProgress(int compiled, int count, String contextPath);
+
+    @LogMessage(level = WARN)
+    @Message(id = 5057, value = "Failed compiling JSP page %s")
+    void warmUpFailed(String uri, @Cause Throwable t);
+
+    @LogMessage(level = INFO)
+    @Message(id = 5058, value = "Compiled %s JSP pages of %s in %s ms, %s failed %s, %s left to their first request")
+    void warmUpCompleted(int compiled, String contextPath, long time, int failed, Object failedPages, int remaining);
+
+    @LogMessage(level = WARN)
+    @Message(id = 5059, value = "Cannot write to the compilation cache directory %s. Pages will always be compiled")
+    void invalidCompilationCache(String dir);
+
+    @LogMessage(level = WARN)
+    @Message(id = 5060, value = "Failed storing the classes of %s in the compilation cache")
+    void failedStoringCompiledClasses(String jspUri, @Cause Throwable t);
+
 }
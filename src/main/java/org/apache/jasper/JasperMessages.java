@@ -20,6 +20,8 @@ package org.apache.jasper;
 
 import java.io.IOException;
 
+import jakarta.el.ELException;
+
 import org.jboss.logging.Messages;
 import org.jboss.logging.annotations.Cause;
 import org.jboss.logging.annotations.Message;
@@ -805,4 +807,13 @@ public interface JasperMessages {
     @Message(id = 4255, value = "Failed to delete generated Java file '%s'")
     String errorCannotDeleteFile(String file);
 
+    @Message(id = 4256, value = "Asynchronous output of the page failed")
+    IOException asyncOutputFailed(@Cause Throwable t);
+
+    @Message(id = 4257, value = "Failed to evaluate the expression %s")
+    ELException failedEvaluation(String expression, @Cause Throwable t);
+
+    @Message(id = 4258, value = "Interrupted while waiting for the batch compiling the page %s")
+    String batchCompilationInterrupted(String jspUri);
+
 }
@@ -80,6 +80,11 @@ public class JspCompilationContext {
 
     private volatile boolean removed = false;
 
+    /*
+     * Set while the page is compiled in a batch, guarded by the wrapper.
+     */
+    private boolean batched;
+
     private URLClassLoader jspLoader;
     private URL baseUrl;
     private Class<?> servletClass;
@@ -202,7 +207,8 @@ public class JspCompilationContext {
             jspLoader = new JasperLoader
             (new URL[] {baseUrl},
                     getClassLoader(),
-                    rctxt.getPermissionCollection(), rctxt.getCodeSource());
+                    rctxt.getPermissionCollection(), rctxt.getCodeSource(),
+                    options.isInMemoryCompilation() ? rctxt.getCompiledClasses() : null);
         }
         return jspLoader;
     }
@@ -641,6 +647,7 @@ public class JspCompilationContext {
     // ==================== Compile and reload ====================
 
     public void compile() throws JasperException, FileNotFoundException {
+        awaitBatch();
         createCompiler();
         if (jspCompiler.isOutDated()) {
             if (isRemoved()) {
@@ -652,25 +659,101 @@ public class JspCompilationContext {
                 jspCompiler.compile();
                 jsw.setReload(true);
                 jsw.setCompilationException(null);
-            } catch (JasperException ex) {
-                // Cache compilation exception
-                jsw.setCompilationException(ex);
-                if (options.getDevelopment() && options.getRecompileOnFail()) {
-                    // Force a recompilation attempt on next access
-                    jsw.setLastModificationTest(-1);
+            } catch (Exception ex) {
+                compilationFailed(ex);
+            }
+        }
+    }
+
+    /**
+     * Generate the .java file of the page if it is out of date, the first
+     * step of its compilation in a batch. Until the compilation is
+     * completed by {@link #completeCompilation()}, the requests compiling
+     * the page wait for it.
+     *
+     * @return <code>true</code> if the .java file must be compiled
+     */
+    public boolean translate() throws JasperException, FileNotFoundException {
+        synchronized (jsw) {
+            awaitBatch();
+            createCompiler();
+            if (!jspCompiler.isOutDated()) {
+                return false;
+            }
+            if (isRemoved()) {
+                throw new FileNotFoundException(jspUri);
+            }
+            try {
+                jspCompiler.removeGeneratedFiles();
+                jspLoader = null;
+                if (!jspCompiler.translate()) {
+                    jsw.setReload(true);
+                    jsw.setCompilationException(null);
+                    return false;
                 }
-                throw ex;
-            } catch (FileNotFoundException fnfe) {
-                // Re-throw to let caller handle this - will result in a 404
-                throw fnfe;
             } catch (Exception ex) {
-                JasperException je = new JasperException(MESSAGES.failedClassCompilation(),
-                            ex);
-                // Cache compilation exception
-                jsw.setCompilationException(je);
-                throw je;
+                compilationFailed(ex);
+            }
+            batched = true;
+            return true;
+        }
+    }
+
+    /**
+     * Generate the .class file of a page translated by {@link #translate()}.
+     */
+    public void completeCompilation() throws JasperException, FileNotFoundException {
+        synchronized (jsw) {
+            try {
+                jspCompiler.completeCompilation();
+                jsw.setReload(true);
+                jsw.setCompilationException(null);
+            } catch (Exception ex) {
+                compilationFailed(ex);
+            } finally {
+                batched = false;
+                jsw.notifyAll();
+            }
+        }
+    }
+
+    /*
+     * Waits for the batch compiling the page, if any. The callers hold the
+     * monitor of the wrapper, which is released while waiting so that the
+     * batch can complete the compilation. Interrupted callers fail, as the
+     * batch still uses the compiler of the page.
+     */
+    private void awaitBatch() throws JasperException {
+        synchronized (jsw) {
+            while (batched) {
+                try {
+                    jsw.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JasperException(MESSAGES.batchCompilationInterrupted(jspUri), e);
+                }
+            }
+        }
+    }
+
+    private void compilationFailed(Exception ex) throws JasperException, FileNotFoundException {
+        if (ex instanceof JasperException) {
+            // Cache compilation exception
+            jsw.setCompilationException((JasperException) ex);
+            if (options.getDevelopment() && options.getRecompileOnFail()) {
+                // Force a recompilation attempt on next access
+                jsw.setLastModificationTest(-1);
             }
+            throw (JasperException) ex;
+        } else if (ex instanceof FileNotFoundException) {
+            // Re-throw to let caller handle this - will result in a 404
+            throw (FileNotFoundException) ex;
         }
+        JasperException je = new JasperException(MESSAGES.failedClassCompilation(),
+                    ex);
+        // Cache compilation exception
+        jsw.setCompilationException(je);
+        throw je;
     }
 
     // ==================== Manipulating the class ====================
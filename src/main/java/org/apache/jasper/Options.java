@@ -18,6 +18,7 @@ package org.apache.jasper;
 
 import java.io.File;
 import java.util.Map;
+import java.util.Set;
 import jakarta.servlet.jsp.tagext.TagLibraryInfo;
 
 import org.apache.jasper.compiler.JspConfig;
@@ -44,6 +45,17 @@ public interface Options {
      */
     public boolean getKeepGenerated();
 
+    /**
+     * Indicates whether pages and tag files are compiled in memory. The
+     * generated source and the class files are then only written to the
+     * scratch directory when the generated code is kept.
+     *
+     * @return <code>true</code> to compile pages in memory,
+     *         <code>false</code> to compile them through the scratch
+     *         directory
+     */
+    public boolean isInMemoryCompilation();
+
     /**
      * Returns true if tag handler pooling is enabled, false otherwise.
      */
@@ -169,6 +181,38 @@ public interface Options {
      */
     public boolean genStringAsCharArray();
 
+    /**
+     * Indicates whether text strings are to be encoded at class
+     * initialization into the response charset of the page, so that they can
+     * be written to the response as bytes.
+     *
+     * @return <code>true</code> if text strings are to be generated as
+     *         pre-encoded byte arrays, <code>false</code> otherwise
+     */
+    public boolean genStringAsByteArray();
+
+    /**
+     * Indicates whether the output of pages is to be encoded directly into
+     * byte buffers borrowed from the connection pool, rather than buffered
+     * as characters and written to the servlet writer. Wrapped responses
+     * always use the character buffer.
+     *
+     * @return <code>true</code> to write page output to pooled byte buffers,
+     *         <code>false</code> otherwise
+     */
+    public boolean isPooledBufferWriter();
+
+    /**
+     * Indicates whether pages are rendered on a worker thread of an
+     * asynchronous request, their output being written by a non-blocking
+     * write listener. The setting of a jsp-property-group takes precedence.
+     * The JSP servlet must support asynchronous processing.
+     *
+     * @return <code>true</code> to render pages with non-blocking output,
+     *         <code>false</code> otherwise
+     */
+    public boolean isAsyncOutput();
+
     /**
      * Modification test interval.
      */
@@ -211,5 +255,81 @@ public interface Options {
      */
     public int getJspIdleTimeout();
 
+    /**
+     * The largest buffer size that pages may be given from the sizes of
+     * their previous responses. Pages that do not set a buffer size then get
+     * a buffer fitting most of their responses, pages that do get at least
+     * the size they set. If unset or less or equal than 0, buffer sizes are
+     * not adapted.
+     */
+    public int getMaxAdaptiveBufferSize();
+
+    /**
+     * The amount of output, in characters or bytes, below which flushes
+     * requested by pages (<code>out.flush()</code>, includes with
+     * <code>flush="true"</code>) are deferred to a later flush or to the end
+     * of the page. If unset or less or equal than 0, every flush reaches the
+     * response. Only the amount of output is considered, a deferred flush is
+     * never made later on its own, so pages needing every flush, such as
+     * streaming pages, require strict flushes with the strictFlush setting
+     * of a jsp-property-group.
+     */
+    public int getFlushCoalescingSize();
+
+    /**
+     * The number of threads compiling all the pages of the web application
+     * when the JSP servlet starts. If unset or less or equal than 0, pages
+     * are compiled on their first request.
+     */
+    public int getWarmUpParallelism();
+
+    /**
+     * The time in seconds after which the pages not yet compiled when the
+     * JSP servlet starts are left to be compiled on their first request.
+     * If unset or less or equal than 0, the servlet waits for all the
+     * pages. Only used with {@link #getWarmUpParallelism()}.
+     */
+    public int getWarmUpTimeout();
+
+    /**
+     * The directory holding the classes of the pages compiled by any
+     * deployment or node sharing it, keyed by the content of their sources
+     * and by the settings they were compiled with. A page found there is
+     * neither parsed nor compiled. If unset, pages are always compiled.
+     */
+    public File getCompilationCache();
+
+    /**
+     * Indicates whether the generated code writes out the output of a page
+     * right after the template text closing its document head, so that
+     * browsers can fetch the resources of the head while the body renders.
+     * The setting of a jsp-property-group takes precedence. Pages with an
+     * error page, a forward, or scripting elements, includes or custom tags
+     * other than those of {@link #getFlushEarlyTags()} after their head are
+     * left alone, and no page is flushed early when the deployment declares
+     * error pages.
+     *
+     * @return <code>true</code> to flush pages after their head,
+     *         <code>false</code> otherwise
+     */
+    public boolean isFlushEarly();
+
+    /**
+     * The class names of the tag handlers that may follow the head of a page
+     * flushed early, as they never redirect, forward or send an error. Any
+     * other custom tag after the head keeps the page from being flushed.
+     *
+     * @return the tag handler class names, empty by default
+     */
+    public Set<String> getFlushEarlyTags();
+
+    /**
+     * Indicates whether the deployment declares error pages, which could no
+     * longer be forwarded to once a page has been flushed early.
+     *
+     * @return <code>true</code> if the deployment has error pages
+     */
+    public boolean hasErrorPages();
+
     boolean isOptimizeJSPScriptlets();
 }
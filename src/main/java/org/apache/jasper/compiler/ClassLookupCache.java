@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.jasper.Constants;
+import org.apache.jasper.JasperLogger;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFormatException;
+
+/**
+ * The types and packages found by the JDT compiler in the class loader of
+ * a web application, shared by the compilations of its pages.
+ *
+ * The classes of the pages and tag files, in the JSP package, change as
+ * they are compiled again, and are always looked up through the class
+ * loader of the page. Anything else comes from the class loader of the
+ * web application, which does not change, so that its classes are only
+ * read and parsed once, and the names that are not there are only looked
+ * up once.
+ */
+final class ClassLookupCache {
+
+    private static final Object MISSING = new Object();
+
+    private final ClassLoader classLoader;
+    private final Map<String, Object> types = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> packages = new ConcurrentHashMap<>();
+
+    ClassLookupCache(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * @param jspLoader The class loader of the page
+     * @param className The binary name of a class
+     * @return the class, or <code>null</code> if there is no such class
+     */
+    ClassFileReader findType(ClassLoader jspLoader, String className) {
+        if (isJspPackage(className)) {
+            return readType(jspLoader, className);
+        }
+        Object type = types.get(className);
+        if (type == null) {
+            type = readType(classLoader, className);
+            if (type == null) {
+                type = MISSING;
+            }
+            types.put(className, type);
+        }
+        return type != MISSING ? (ClassFileReader) type : null;
+    }
+
+    /**
+     * @param jspLoader The class loader of the page
+     * @param name The name of a package, or of a class
+     * @return <code>true</code> if it is a package
+     */
+    boolean isPackage(ClassLoader jspLoader, String name) {
+        if (isJspPackage(name)) {
+            return isPackage0(jspLoader, name);
+        }
+        Boolean result = packages.get(name);
+        if (result == null) {
+            result = Boolean.valueOf(isPackage0(classLoader, name));
+            packages.put(name, result);
+        }
+        return result.booleanValue();
+    }
+
+    private static boolean isJspPackage(String name) {
+        return name.startsWith(Constants.JSP_PACKAGE_NAME)
+                && (name.length() == Constants.JSP_PACKAGE_NAME.length()
+                        || name.charAt(Constants.JSP_PACKAGE_NAME.length()) == '.');
+    }
+
+    private static ClassFileReader readType(ClassLoader loader, String className) {
+        String resourceName = className.replace('.', '/') + ".class";
+        try (InputStream is = loader.getResourceAsStream(resourceName)) {
+            if (is != null) {
+                byte[] buf = new byte[8192];
+                ByteArrayOutputStream baos = new ByteArrayOutputStream(buf.length);
+                int count;
+                while ((count = is.read(buf, 0, buf.length)) > 0) {
+                    baos.write(buf, 0, count);
+                }
+                return new ClassFileReader(baos.toByteArray(),
+                        className.toCharArray(), true);
+            }
+        } catch (IOException exc) {
+            JasperLogger.COMPILER_LOGGER.errorReadingClassFile(className, exc);
+        } catch (ClassFormatException exc) {
+            JasperLogger.COMPILER_LOGGER.errorReadingClassFile(className, exc);
+        }
+        return null;
+    }
+
+    private static boolean isPackage0(ClassLoader loader, String name) {
+        String packageName = name.replace('.', '/');
+        if (loader.getResource(packageName) != null) {
+            return true;
+        }
+        try (InputStream is = loader.getResourceAsStream(packageName + ".class")) {
+            return is == null;
+        } catch (IOException e) {
+            // we are here, since close on is failed. That means it was not null
+            return false;
+        }
+    }
+
+}
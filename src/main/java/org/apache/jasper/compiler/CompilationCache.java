@@ -0,0 +1,550 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.servlet.ServletContext;
+
+import org.apache.jasper.Constants;
+import org.apache.jasper.JasperLogger;
+import org.apache.jasper.JspCompilationContext;
+import org.apache.jasper.Options;
+import org.apache.jasper.Version;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.apache.tomcat.util.scan.Jar;
+import org.apache.tomcat.util.scan.JarFactory;
+
+/**
+ * The classes of the pages and tag files compiled by the deployments and
+ * nodes sharing a directory, see
+ * {@link org.apache.jasper.Options#getCompilationCache()}.
+ *
+ * An entry is keyed by a digest of the source of a page, of the settings
+ * and tag libraries it is compiled with and of the version of Jasper. It
+ * holds the classes of the page, with their SMAP, and those of the tag
+ * files it uses, so that a page found in the cache is neither parsed nor
+ * compiled. The files the page depends on, such as included pages and tag
+ * files, are recorded with a digest of their content, and the entry is
+ * only used if none of them has changed.
+ *
+ * The time stamps of the dependants held by a class restored from the
+ * cache are those of the node that compiled it, so a dependant with
+ * another time stamp is checked against its digest before the page is
+ * compiled again.
+ */
+public final class CompilationCache {
+
+    private static final int MAGIC = 0x4a415350;
+
+    private final JasperLogger log = JasperLogger.COMPILER_LOGGER;
+
+    private final File dir;
+    private final Options options;
+    private final String fingerprint;
+
+    /*
+     * The classes and dependants of the pages and tag files stored in or
+     * restored from the cache, by class name.
+     */
+    private final Map<String, Unit> units = new ConcurrentHashMap<>();
+
+    CompilationCache(File dir, ServletContext context, Options options) {
+        this.dir = dir;
+        this.options = options;
+        this.fingerprint = fingerprint(context, options);
+    }
+
+    /**
+     * @param ctxt The compilation context of a page or tag file
+     * @return the key of the page in the cache, or <code>null</code> if its
+     *         source cannot be read
+     */
+    String getKey(JspCompilationContext ctxt) {
+        String jspUri = ctxt.getJspFile();
+        MessageDigest md = newDigest();
+        update(md, fingerprint, ctxt.getFQCN(), jspUri);
+        JspConfig.JspProperty property =
+                options.getJspConfig().findJspProperty(jspUri);
+        update(md, property.isXml(), property.isELIgnored(),
+                property.getErrorOnELNotFound(), property.isScriptingInvalid(),
+                property.getPageEncoding(),
+                String.valueOf(property.getIncludePrelude()),
+                String.valueOf(property.getIncludeCoda()),
+                property.isDeferedSyntaxAllowedAsLiteral(),
+                property.isTrimDirectiveWhitespaces(),
+                property.getDefaultContentType(), property.getBuffer(),
+                property.isErrorOnUndeclaredNamespace(),
+                property.getAsyncOutput(), property.getStrictFlush(),
+                property.getFlushEarly());
+        try {
+            URL url = ctxt.getResource(jspUri);
+            if (url == null) {
+                return null;
+            }
+            try (InputStream is = url.openStream()) {
+                update(md, is);
+            }
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Cannot read " + jspUri, e);
+            }
+            return null;
+        }
+        return toHex(md.digest());
+    }
+
+    /**
+     * Restores the classes of a page, unless it is not in the cache or one
+     * of its dependants has changed.
+     *
+     * @param ctxt The compilation context of a page or tag file
+     * @param key The key of the page
+     * @return <code>true</code> if the page needs no compilation
+     */
+    boolean restore(JspCompilationContext ctxt, String key) {
+        String className = ctxt.getFQCN();
+        units.remove(className);
+        File file = new File(dir, key);
+        if (!file.isFile()) {
+            return false;
+        }
+        Map<String, String> digests = new HashMap<>();
+        Map<String, byte[]> classes = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                return false;
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                digests.put(in.readUTF(), in.readUTF());
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                String name = in.readUTF();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                classes.put(name, bytes);
+            }
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Cannot read " + file, e);
+            }
+            return false;
+        }
+        for (Entry<String, String> dependant : digests.entrySet()) {
+            if (!dependant.getValue().equals(digest(ctxt, dependant.getKey()))) {
+                return false;
+            }
+        }
+        if (options.isInMemoryCompilation()) {
+            ctxt.getRuntimeContext().getCompiledClasses().putAll(classes);
+        } else {
+            try {
+                for (Entry<String, byte[]> entry : classes.entrySet()) {
+                    write(getClassFile(entry.getKey()), entry.getValue());
+                }
+            } catch (IOException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Cannot restore the classes of " + className, e);
+                }
+                return false;
+            }
+        }
+        units.put(className, new Unit(classes.keySet(), digests, Long.MIN_VALUE));
+        if (log.isDebugEnabled()) {
+            log.debug("Restored " + className + " from " + file);
+        }
+        return true;
+    }
+
+    /**
+     * Stores the classes of a page just compiled, with those of its tag
+     * files. Nothing is stored if the page or a dependant changed during
+     * the compilation, or if the classes of a tag file are not known.
+     *
+     * @param ctxt The compilation context of a page or tag file
+     * @param key The key of the page before it was compiled
+     * @param dependants The dependants of the page and their time stamps
+     * @param tagClassNames The classes of the tag files used by the page
+     */
+    void store(JspCompilationContext ctxt, String key,
+            Map<String, Long> dependants, Set<String> tagClassNames) {
+        String className = ctxt.getFQCN();
+        try {
+            if (!key.equals(getKey(ctxt))) {
+                return;
+            }
+            Map<String, String> digests = new HashMap<>();
+            for (Entry<String, Long> dependant : dependants.entrySet()) {
+                Long lastModified = ctxt.getLastModified(dependant.getKey());
+                if (!lastModified.equals(dependant.getValue())) {
+                    return;
+                }
+                String digest = digest(ctxt, dependant.getKey());
+                if (digest == null) {
+                    return;
+                }
+                digests.put(dependant.getKey(), digest);
+            }
+            Map<String, byte[]> classes = getClasses(ctxt, className);
+            if (classes.isEmpty()) {
+                return;
+            }
+            Set<String> closure = new HashSet<>(classes.keySet());
+            for (String tagClassName : tagClassNames) {
+                Unit unit = units.get(tagClassName);
+                if (unit == null) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Not caching " + className
+                                + ", the classes of " + tagClassName + " are unknown");
+                    }
+                    return;
+                }
+                closure.addAll(unit.classNames);
+            }
+            for (String name : closure) {
+                if (!classes.containsKey(name)) {
+                    byte[] bytes = getBytes(ctxt, name);
+                    if (bytes == null) {
+                        return;
+                    }
+                    classes.put(name, bytes);
+                }
+            }
+            Unit unit = new Unit(closure, digests, Long.MIN_VALUE);
+            for (Entry<String, Long> dependant : dependants.entrySet()) {
+                unit.dependants.get(dependant.getKey()).verified =
+                        dependant.getValue().longValue();
+            }
+            units.put(className, unit);
+
+            File file = new File(dir, key);
+            if (file.exists()) {
+                return;
+            }
+            File tmp = File.createTempFile(key, ".tmp", dir);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp.toPath())))) {
+                out.writeInt(MAGIC);
+                out.writeInt(digests.size());
+                for (Entry<String, String> digest : digests.entrySet()) {
+                    out.writeUTF(digest.getKey());
+                    out.writeUTF(digest.getValue());
+                }
+                out.writeInt(classes.size());
+                for (Entry<String, byte[]> entry : classes.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    out.write(entry.getValue());
+                }
+            } catch (IOException e) {
+                tmp.delete();
+                throw e;
+            }
+            move(tmp, file);
+        } catch (IOException e) {
+            log.failedStoringCompiledClasses(ctxt.getJspFile(), e);
+        }
+    }
+
+    /**
+     * Checks whether a dependant of a page restored from the cache still
+     * has the content the page was compiled with, its time stamp being the
+     * one of the node that compiled the page.
+     *
+     * @param ctxt The compilation context of a page or tag file
+     * @param dependant A dependant of the page
+     * @param lastModified The current time stamp of the dependant
+     * @return <code>true</code> if the dependant has not changed
+     */
+    boolean isUnchanged(JspCompilationContext ctxt, String dependant,
+            long lastModified) {
+        Unit unit = units.get(ctxt.getFQCN());
+        if (unit == null) {
+            return false;
+        }
+        Dependant d = unit.dependants.get(dependant);
+        if (d == null) {
+            return false;
+        }
+        if (d.verified == lastModified) {
+            return true;
+        }
+        if (d.digest.equals(digest(ctxt, dependant))) {
+            d.verified = lastModified;
+            return true;
+        }
+        return false;
+    }
+
+    /*
+     * The class of a page or tag file with its inner classes.
+     */
+    private Map<String, byte[]> getClasses(JspCompilationContext ctxt,
+            String className) throws IOException {
+        if (options.isInMemoryCompilation()) {
+            return ctxt.getRuntimeContext().getCompiledClasses().get(className);
+        }
+        Map<String, byte[]> classes = new HashMap<>();
+        File classFile = getClassFile(className);
+        String packageName = className.substring(0, className.lastIndexOf('.') + 1);
+        String simpleName = classFile.getName().substring(
+                0, classFile.getName().length() - ".class".length());
+        File[] files = classFile.getParentFile().listFiles();
+        if (files != null) {
+            for (File f : files) {
+                String name = f.getName();
+                if (name.endsWith(".class") && (name.equals(classFile.getName())
+                        || name.startsWith(simpleName + '$'))) {
+                    classes.put(packageName + name.substring(
+                            0, name.length() - ".class".length()),
+                            Files.readAllBytes(f.toPath()));
+                }
+            }
+        }
+        return classes;
+    }
+
+    private byte[] getBytes(JspCompilationContext ctxt, String className) throws IOException {
+        if (options.isInMemoryCompilation()) {
+            return ctxt.getRuntimeContext().getCompiledClasses().getBytes(className);
+        }
+        File classFile = getClassFile(className);
+        if (!classFile.isFile()) {
+            return null;
+        }
+        return Files.readAllBytes(classFile.toPath());
+    }
+
+    private File getClassFile(String className) {
+        return new File(options.getScratchDir(),
+                className.replace('.', File.separatorChar) + ".class");
+    }
+
+    /*
+     * Class files are replaced atomically, as a class being restored may
+     * be loaded concurrently by another page.
+     */
+    private static void write(File file, byte[] bytes) throws IOException {
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+            throw new IOException(parent.getPath());
+        }
+        File tmp = File.createTempFile(file.getName(), ".tmp", parent);
+        try (OutputStream out = Files.newOutputStream(tmp.toPath())) {
+            out.write(bytes);
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        move(tmp, file);
+    }
+
+    private static void move(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            source.delete();
+            throw e;
+        }
+    }
+
+    /*
+     * The digest of the content of a dependant, read the way its time
+     * stamp is checked by Compiler.isOutDated().
+     */
+    private String digest(JspCompilationContext ctxt, String path) {
+        MessageDigest md = newDigest();
+        try {
+            if (path.startsWith("jar:jar:")) {
+                int entryStart = path.lastIndexOf("!/");
+                try (Jar jar = JarFactory.newInstance(
+                        new URL(path.substring(4, entryStart)))) {
+                    InputStream is = jar.getInputStream(path.substring(entryStart + 2));
+                    if (is == null) {
+                        return null;
+                    }
+                    try {
+                        update(md, is);
+                    } finally {
+                        is.close();
+                    }
+                }
+            } else {
+                URL url;
+                if (path.startsWith("jar:") || path.startsWith("file:")) {
+                    url = new URL(path);
+                } else {
+                    url = ctxt.getResource(path);
+                }
+                if (url == null) {
+                    return null;
+                }
+                try (InputStream is = url.openStream()) {
+                    update(md, is);
+                }
+            }
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Cannot read " + path, e);
+            }
+            return null;
+        }
+        return toHex(md.digest());
+    }
+
+    /*
+     * The settings changing the classes generated for a page, apart from
+     * the JSP configuration of the page.
+     */
+    private static String fingerprint(ServletContext context, Options options) {
+        StringBuilder sb = new StringBuilder(Version.VERSION);
+        Object[] settings = {
+                Boolean.valueOf(options.getErrorOnUseBeanInvalidClassAttribute()),
+                Boolean.valueOf(options.isPoolingEnabled()),
+                Boolean.valueOf(options.getMappedFile()),
+                Boolean.valueOf(options.getClassDebugInfo()),
+                Boolean.valueOf(options.isSmapSuppressed()),
+                Boolean.valueOf(options.getTrimSpaces()),
+                options.getCompilerClassName(),
+                options.getCompilerTargetVM(),
+                options.getCompilerSourceVM(),
+                options.getJavaEncoding(),
+                Boolean.valueOf(options.isXpoweredBy()),
+                Boolean.valueOf(options.genStringAsCharArray()),
+                Boolean.valueOf(options.genStringAsByteArray()),
+                Boolean.valueOf(options.isPooledBufferWriter()),
+                Boolean.valueOf(options.isAsyncOutput()),
+                Boolean.valueOf(options.isFlushEarly()),
+                new TreeSet<>(options.getFlushEarlyTags()),
+                Boolean.valueOf(options.isOptimizeJSPScriptlets()),
+                context.getInitParameter(ELInterpreterFactory.EL_INTERPRETER_CLASS_NAME) };
+        for (Object setting : settings) {
+            sb.append('\0').append(setting);
+        }
+        for (String name : new TreeSet<>(System.getProperties().stringPropertyNames())) {
+            if (name.startsWith("org.apache.jasper")) {
+                sb.append('\0').append(name).append('=').append(System.getProperty(name));
+            }
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, TagLibraryInfo> tagLibraries = (Map<String, TagLibraryInfo>)
+                context.getAttribute(Constants.JSP_TAG_LIBRARIES);
+        if (tagLibraries != null) {
+            for (TagLibraryInfo tld : new TreeMap<>(tagLibraries).values()) {
+                sb.append('\0').append(tld.getUri())
+                        .append(' ').append(tld.getTlibversion())
+                        .append(' ').append(tld.getJspversion());
+            }
+        }
+        try (InputStream is = context.getResourceAsStream(TagPluginManager.TAG_PLUGINS_XML)) {
+            if (is != null) {
+                MessageDigest md = newDigest();
+                update(md, is);
+                sb.append('\0').append(toHex(md.digest()));
+            }
+        } catch (IOException e) {
+            // The plugins are read again by the compiler, which reports it
+        }
+        return sb.toString();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest md, String... values) {
+        for (String value : values) {
+            md.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+        }
+    }
+
+    private static void update(MessageDigest md, InputStream is) throws IOException {
+        byte[] buf = new byte[8192];
+        int n;
+        while ((n = is.read(buf)) > 0) {
+            md.update(buf, 0, n);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16))
+                    .append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    private static final class Unit {
+
+        final Set<String> classNames;
+        final Map<String, Dependant> dependants = new HashMap<>();
+
+        Unit(Set<String> classNames, Map<String, String> digests, long verified) {
+            this.classNames = new HashSet<>(classNames);
+            for (Entry<String, String> digest : digests.entrySet()) {
+                dependants.put(digest.getKey(), new Dependant(digest.getValue(), verified));
+            }
+        }
+    }
+
+    private static final class Dependant {
+
+        final String digest;
+        /*
+         * The last time stamp the content was found unchanged at.
+         */
+        volatile long verified;
+
+        Dependant(String digest, long verified) {
+            this.digest = digest;
+            this.verified = verified;
+        }
+    }
+
+}
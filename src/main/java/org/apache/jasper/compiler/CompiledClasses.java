@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.compiler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The class files of the pages and tag files of a web application compiled
+ * in memory, see {@link org.apache.jasper.Options#isInMemoryCompilation()}.
+ *
+ * The classes are defined from their bytes by
+ * {@link org.apache.jasper.servlet.JasperLoader}, which also serves them as
+ * resources so that the compiler finds the tag files used by a page. The
+ * last modification time of the JSP a class was compiled from stands for
+ * the time stamp of its class file.
+ */
+public final class CompiledClasses {
+
+    private final Map<String, byte[]> classes = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastModified = new ConcurrentHashMap<>();
+
+    /**
+     * @param className The binary name of a class
+     * @return the bytes of the class file, or <code>null</code> if the class
+     *         was not compiled in memory
+     */
+    public byte[] getBytes(String className) {
+        return classes.get(className);
+    }
+
+    /**
+     * @param className The binary name of the class of a page or tag file
+     * @return the last modification time of the JSP the class was compiled
+     *         from, or <code>-1</code> if the class was not compiled
+     */
+    public long getLastModified(String className) {
+        Long time = lastModified.get(className);
+        return time == null ? -1 : time.longValue();
+    }
+
+    /*
+     * Returns the class of a page or tag file, with its inner classes.
+     */
+    Map<String, byte[]> get(String className) {
+        Map<String, byte[]> result = new HashMap<>();
+        String prefix = className + '$';
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            String name = entry.getKey();
+            if (name.equals(className) || name.startsWith(prefix)) {
+                result.put(name, entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    void putAll(Map<String, byte[]> compiled) {
+        classes.putAll(compiled);
+    }
+
+    void setLastModified(String className, long time) {
+        lastModified.put(className, Long.valueOf(time));
+    }
+
+    /*
+     * Removes the class of a page or tag file, with its inner classes.
+     */
+    void remove(String className) {
+        lastModified.remove(className);
+        classes.remove(className);
+        String prefix = className + '$';
+        classes.keySet().removeIf(name -> name.startsWith(prefix));
+    }
+
+}
@@ -19,12 +19,15 @@ package org.apache.jasper.compiler;
 
 import static org.apache.jasper.JasperMessages.MESSAGES;
 
+import java.io.CharArrayWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
@@ -70,6 +73,20 @@ public abstract class Compiler {
 
     protected Node.Nodes pageNodes;
 
+    /**
+     * The generated source, when the page is compiled in memory.
+     */
+    protected char[] javaSource;
+
+    private CharArrayWriter javaSourceWriter;
+
+    /*
+     * The state of a compilation between its steps.
+     */
+    private String[] smap;
+    private String cacheKey;
+    private long jspLastModified;
+
     // ------------------------------------------------------------ Constructor
 
     public void init(JspCompilationContext ctxt, JspServletWrapper jsw) {
@@ -154,6 +171,12 @@ public abstract class Compiler {
             pageInfo.setBufferValue(jspProperty.getBuffer(), null,
                     errDispatcher);
         }
+        if (jspProperty.getFlushEarly() != null) {
+            pageInfo.setFlushEarly(JspUtil.booleanValue(jspProperty
+                    .getFlushEarly()));
+        } else {
+            pageInfo.setFlushEarly(options.isFlushEarly());
+        }
         if (jspProperty.isErrorOnUndeclaredNamespace() != null) {
             pageInfo.setErrorOnUndeclaredNamespace(
                     JspUtil.booleanValue(
@@ -213,8 +236,9 @@ public abstract class Compiler {
                 // generate prototype .java file for the tag file
                 try (ServletWriter writer = setupContextWriter(javaFileName)) {
                 Generator.generate(writer, this, pageNodes);
-                return null;
             }
+                keepJavaSource(javaFileName);
+                return null;
             }
 
             // Validate and process attributes - don't re-validate the
@@ -254,6 +278,7 @@ public abstract class Compiler {
             try (ServletWriter writer = setupContextWriter(javaFileName)) {
             Generator.generate(writer, this, pageNodes);
             }
+            keepJavaSource(javaFileName);
 
             // The writer is only used during the compile, dereference
             // it in the JspCompilationContext when done to allow it
@@ -295,6 +320,13 @@ public abstract class Compiler {
 	private ServletWriter setupContextWriter(String javaFileName)
 			throws FileNotFoundException, JasperException {
 		ServletWriter writer;
+		if (options.isInMemoryCompilation()) {
+		    // Kept as characters, see keepJavaSource()
+		    javaSourceWriter = new CharArrayWriter(8192);
+		    writer = new ServletWriter(new PrintWriter(javaSourceWriter));
+		    ctxt.setWriter(writer);
+		    return writer;
+		}
 		// Setup the ServletWriter
 		String javaEncoding = ctxt.getOptions().getJavaEncoding();
 		OutputStreamWriter osw = null;
@@ -311,6 +343,39 @@ public abstract class Compiler {
 		return writer;
 	}
 
+    /*
+     * Keeps the source generated in memory for the compiler, only writing
+     * the .java file if the generated code is kept.
+     */
+    private void keepJavaSource(String javaFileName)
+            throws IOException, JasperException {
+        if (javaSourceWriter == null) {
+            return;
+        }
+        javaSource = javaSourceWriter.toCharArray();
+        javaSourceWriter = null;
+        if (ctxt.keepGenerated()) {
+            String javaEncoding = options.getJavaEncoding();
+            try (Writer writer = new OutputStreamWriter(
+                    new FileOutputStream(javaFileName), javaEncoding)) {
+                writer.write(javaSource);
+            } catch (UnsupportedEncodingException ex) {
+                errDispatcher.jspError(MESSAGES.needAlternateEncoding(javaEncoding));
+            }
+        }
+    }
+
+    /**
+     * Gets the source generated by the current compilation, if the page is
+     * compiled in memory.
+     *
+     * @return the generated source, or <code>null</code> if it was written
+     *         to the .java file
+     */
+    public char[] getJavaSource() {
+        return javaSource;
+    }
+
     /**
      * Compile the servlet from .java file to .class file
      */
@@ -350,54 +415,152 @@ public abstract class Compiler {
      */
     public void compile(boolean compileClass, boolean jspcMode)
             throws FileNotFoundException, JasperException, Exception {
-        if (errDispatcher == null) {
-            this.errDispatcher = new ErrorDispatcher(jspcMode);
-        }
-
         try {
-            String[] smap = generateJava();
-            File javaFile = new File(ctxt.getServletJavaFileName());
-            Long jspLastModified = ctxt.getLastModified(ctxt.getJspFile());
-            javaFile.setLastModified(jspLastModified.longValue());
-            if (compileClass) {
+            if (generate(compileClass, jspcMode)) {
                 generateClass(smap);
-                // Fix for bugzilla 41606
-                // Set JspServletWrapper.servletClassLastModifiedTime after successful compile
-                String targetFileName = ctxt.getClassFileName();
-                if (targetFileName != null) {
-                    File targetFile = new File(targetFileName);
-                    if (targetFile.exists()) {
-                        targetFile.setLastModified(jspLastModified.longValue());
-                        if (jsw != null) {
-                            jsw.setServletClassLastModifiedTime(
-                                    jspLastModified.longValue());
-                        }
-                    }
-                }
+                compiled();
             }
         } finally {
-            if (tfp != null && ctxt.isPrototypeMode()) {
-                tfp.removeProtoTypeFiles(null);
+            release();
+        }
+    }
+
+    /**
+     * Generate the .java file of the page, the first step of its
+     * compilation in a batch, see
+     * {@link JspRuntimeContext#compile(jakarta.servlet.ServletConfig, java.util.Collection, int)}.
+     * The .class file is then generated by {@link #completeCompilation()}.
+     *
+     * @return <code>true</code> if the .java file was generated,
+     *         <code>false</code> if the classes of the page were found in
+     *         the compilation cache
+     */
+    public boolean translate() throws FileNotFoundException,
+            JasperException, Exception {
+        boolean translated = false;
+        try {
+            translated = generate(true, false);
+            return translated;
+        } finally {
+            if (!translated) {
+                release();
             }
-            // Make sure these object which are only used during the
-            // generation and compilation of the JSP page get
-            // dereferenced so that they can be GC'd and reduce the
-            // memory footprint.
-            tfp = null;
-            errDispatcher = null;
-            pageInfo = null;
-
-            // Only get rid of the pageNodes if in production.
-            // In development mode, they are used for detailed
-            // error messages.
-            // http://bz.apache.org/bugzilla/show_bug.cgi?id=37062
-            if (!this.options.getDevelopment()) {
-                pageNodes = null;
+        }
+    }
+
+    /**
+     * Generate the .class file of a page translated by {@link #translate()},
+     * unless it was already compiled with other pages.
+     */
+    public void completeCompilation() throws FileNotFoundException,
+            JasperException, Exception {
+        try {
+            generateClass(smap);
+            compiled();
+        } finally {
+            release();
+        }
+    }
+
+    /*
+     * Generates the .java file, unless the classes of the page are
+     * restored from the compilation cache.
+     */
+    private boolean generate(boolean compileClass, boolean jspcMode)
+            throws FileNotFoundException, JasperException, Exception {
+        if (errDispatcher == null) {
+            this.errDispatcher = new ErrorDispatcher(jspcMode);
+        }
+
+        // Pages compiled in prototype mode are removed right after
+        cacheKey = null;
+        CompilationCache cache = null;
+        if (compileClass && !ctxt.isPrototypeMode()) {
+            cache = ctxt.getRuntimeContext().getCompilationCache();
+        }
+        if (cache != null) {
+            String key = cache.getKey(ctxt);
+            if (key != null && cache.restore(ctxt, key)) {
+                setClassLastModified(ctxt.getLastModified(
+                        ctxt.getJspFile()).longValue());
+                return false;
             }
+            cacheKey = key;
+        }
 
-            if (ctxt.getWriter() != null) {
-                ctxt.getWriter().close();
-                ctxt.setWriter(null);
+        smap = generateJava();
+        File javaFile = new File(ctxt.getServletJavaFileName());
+        jspLastModified = ctxt.getLastModified(ctxt.getJspFile()).longValue();
+        javaFile.setLastModified(jspLastModified);
+        return compileClass;
+    }
+
+    /*
+     * Records the classes of the page just compiled.
+     */
+    private void compiled() {
+        // Fix for bugzilla 41606
+        // Set JspServletWrapper.servletClassLastModifiedTime after successful compile
+        setClassLastModified(jspLastModified);
+        if (cacheKey != null) {
+            ctxt.getRuntimeContext().getCompilationCache().store(ctxt,
+                    cacheKey, pageInfo.getDependants(), tfp.getTagClassNames());
+        }
+    }
+
+    private void release() {
+        if (tfp != null && ctxt.isPrototypeMode()) {
+            tfp.removeProtoTypeFiles(null);
+        }
+        // Make sure these object which are only used during the
+        // generation and compilation of the JSP page get
+        // dereferenced so that they can be GC'd and reduce the
+        // memory footprint.
+        tfp = null;
+        errDispatcher = null;
+        pageInfo = null;
+        javaSource = null;
+        javaSourceWriter = null;
+        smap = null;
+        cacheKey = null;
+
+        // Only get rid of the pageNodes if in production.
+        // In development mode, they are used for detailed
+        // error messages.
+        // http://bz.apache.org/bugzilla/show_bug.cgi?id=37062
+        if (!this.options.getDevelopment()) {
+            pageNodes = null;
+        }
+
+        if (ctxt.getWriter() != null) {
+            ctxt.getWriter().close();
+            ctxt.setWriter(null);
+        }
+    }
+
+    /*
+     * Gives the class of the page the time stamp of its JSP.
+     */
+    private void setClassLastModified(long jspLastModified) {
+        if (options.isInMemoryCompilation()) {
+            CompiledClasses classes = ctxt.getRuntimeContext().getCompiledClasses();
+            String className = ctxt.getFQCN();
+            if (classes.getBytes(className) != null) {
+                classes.setLastModified(className, jspLastModified);
+                if (jsw != null) {
+                    jsw.setServletClassLastModifiedTime(jspLastModified);
+                }
+            }
+        } else {
+            String targetFileName = ctxt.getClassFileName();
+            if (targetFileName != null) {
+                File targetFile = new File(targetFileName);
+                if (targetFile.exists()) {
+                    targetFile.setLastModified(jspLastModified);
+                    if (jsw != null) {
+                        jsw.setServletClassLastModifiedTime(jspLastModified);
+                    }
+                }
             }
         }
     }
@@ -437,16 +600,30 @@ public abstract class Compiler {
         // last modified time of the source (unlikely) the target is going to
         // have to be checked anyway. If the target doesn't exist (likely during
         // startup) this saves an unnecessary check of the source.
-        File targetFile;
-        if (checkClass) {
-            targetFile = new File(ctxt.getClassFileName());
+        // The class of a page compiled in memory has no file, the time
+        // stamp of its JSP is kept with it instead.
+        String target;
+        long targetLastModified;
+        if (checkClass && options.isInMemoryCompilation()) {
+            target = ctxt.getFQCN();
+            targetLastModified = ctxt.getRuntimeContext()
+                    .getCompiledClasses().getLastModified(target);
+            if (targetLastModified < 0) {
+                return true;
+            }
         } else {
-            targetFile = new File(ctxt.getServletJavaFileName());
-        }
-        if (!targetFile.exists()) {
-            return true;
+            File targetFile;
+            if (checkClass) {
+                targetFile = new File(ctxt.getClassFileName());
+            } else {
+                targetFile = new File(ctxt.getServletJavaFileName());
+            }
+            if (!targetFile.exists()) {
+                return true;
+            }
+            target = targetFile.getPath();
+            targetLastModified = targetFile.lastModified();
         }
-        long targetLastModified = targetFile.lastModified();
         if (checkClass && jsw != null) {
             jsw.setServletClassLastModifiedTime(targetLastModified);
         }
@@ -459,7 +636,7 @@ public abstract class Compiler {
 
         if (targetLastModified != jspRealLastModified.longValue()) {
             if (log.isDebugEnabled()) {
-                log.debug("Compiler: outdated: " + targetFile + " "
+                log.debug("Compiler: outdated: " + target + " "
                         + targetLastModified);
             }
             return true;
@@ -509,8 +686,14 @@ public abstract class Compiler {
                 iuc.getInputStream().close();
                 }
 
+                // A page restored from the compilation cache holds the time
+                // stamps of the node that compiled it
                 if (includeLastModified != include.getValue().longValue()) {
-                    return true;
+                    CompilationCache cache = ctxt.getRuntimeContext().getCompilationCache();
+                    if (cache == null
+                            || !cache.isUnchanged(ctxt, key, includeLastModified)) {
+                        return true;
+                    }
                 }
             } catch (Exception e) {
                 if (log.isDebugEnabled())
@@ -567,6 +750,10 @@ public abstract class Compiler {
     }
 
     public void removeGeneratedClassFiles() {
+        if (options.isInMemoryCompilation()) {
+            ctxt.getRuntimeContext().getCompiledClasses().remove(ctxt.getFQCN());
+            return;
+        }
         try {
             String classFileName = ctxt.getClassFileName();
             if (classFileName != null) {
@@ -0,0 +1,1079 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.compiler;
+
+import static org.apache.jasper.compiler.Constants.CACHED_VALUE_EXPRESSION;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import jakarta.servlet.jsp.tagext.FunctionInfo;
+import jakarta.servlet.jsp.tagext.TagAttributeInfo;
+import jakarta.servlet.jsp.tagext.TagInfo;
+import jakarta.servlet.jsp.tagext.TagLibraryInfo;
+
+import org.apache.jasper.JasperException;
+import org.apache.jasper.JspCompilationContext;
+
+/**
+ * EL interpreter that translates expressions to Java code, when the types
+ * of the names they use are known while compiling the page: beans declared
+ * with <code>jsp:useBean</code>, attributes of tag files, and static fields
+ * of the classes imported by the page. Property chains, arithmetic,
+ * comparisons, logical operators, <code>empty</code>, the conditional
+ * operator and calls to the functions of tag libraries, which become
+ * direct static calls, are translated; anything else is left to the EL
+ * implementation.
+ *
+ * The generated code looks names up as the standard resolvers do, and
+ * gives up, letting the EL implementation evaluate the expression, when a
+ * bean is not there or has another type, or when a value it would need to
+ * coerce is <code>null</code>. It only gives up before calling any method
+ * of the application, so that the EL implementation never calls a getter
+ * or a function again: names are looked up first, and expressions that
+ * would need to give up after a call are not translated. The code is only
+ * run when the application did not add resolvers, see
+ * {@link org.apache.jasper.runtime.CachedValueExpression}.
+ *
+ * It is selected by setting the <code>org.apache.jasper.compiler.ELInterpreter</code>
+ * context initialisation parameter to the name of this class.
+ */
+public class CompilingELInterpreter implements ELInterpreter {
+
+    private static final String UNRESOLVED = CACHED_VALUE_EXPRESSION + ".UNRESOLVED";
+
+    private static final String CONTEXT = "_jspx_el_ctx";
+
+    private static final String VARIABLE = "_jspx_el_v";
+
+    private static final Set<String> IMPLICIT_OBJECTS = new HashSet<>(Arrays.asList(
+            "pageContext", "pageScope", "requestScope", "sessionScope",
+            "applicationScope", "param", "paramValues", "header",
+            "headerValues", "initParam", "cookie"));
+
+    private static final Map<String, String> OPERATORS = new HashMap<>();
+
+    static {
+        OPERATORS.put("and", "&&");
+        OPERATORS.put("or", "||");
+        OPERATORS.put("not", "!");
+        OPERATORS.put("eq", "==");
+        OPERATORS.put("ne", "!=");
+        OPERATORS.put("lt", "<");
+        OPERATORS.put("gt", ">");
+        OPERATORS.put("le", "<=");
+        OPERATORS.put("ge", ">=");
+        OPERATORS.put("div", "/");
+        OPERATORS.put("mod", "%");
+    }
+
+    private static final Set<String> RESERVED = new HashSet<>(Arrays.asList(
+            "true", "false", "null", "empty", "instanceof"));
+
+    static {
+        RESERVED.addAll(OPERATORS.keySet());
+    }
+
+    @Override
+    public String interpreterCall(JspCompilationContext context,
+            boolean isTagFile, String expression, Class<?> expectedType,
+            String fnmapvar) {
+        String compiled = compile(context, expression, expectedType);
+        if (compiled == null) {
+            return JspUtil.interpreterCall(isTagFile, expression, expectedType,
+                    fnmapvar);
+        }
+        // Kept on one line, to keep the line mapping of the page
+        StringBuilder sb = new StringBuilder();
+        for (String line : compiled.split("\n")) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(line.trim());
+        }
+        return JspUtil.compiledInterpreterCall(isTagFile, sb.toString(),
+                expression, expectedType, fnmapvar);
+    }
+
+    /**
+     * Translate an expression to Java code.
+     *
+     * @param context The compilation context of the page
+     * @param expression The expression
+     * @param expectedType The type the result is coerced to
+     * @return the source of a lambda implementing
+     *         {@link org.apache.jasper.runtime.CachedValueExpression.Compiled},
+     *         on several lines, or <code>null</code> if the expression
+     *         cannot be translated
+     */
+    public String compile(JspCompilationContext context, String expression,
+            Class<?> expectedType) {
+        if (context.getCompiler() == null || !expression.startsWith("${")
+                || !expression.endsWith("}")) {
+            return null;
+        }
+        try {
+            return new Translation(context,
+                    expression.substring(2, expression.length() - 1))
+                    .translate(expectedType);
+        } catch (Unsupported e) {
+            return null;
+        }
+    }
+
+
+    /*
+     * Thrown when an expression cannot be translated.
+     */
+    private static final class Unsupported extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final Unsupported UNSUPPORTED = new Unsupported();
+
+
+    private static final class Token {
+
+        static final char IDENTIFIER = 'I';
+        static final char INTEGER = 'N';
+        static final char FLOAT = 'F';
+        static final char STRING = 'S';
+        static final char OPERATOR = 'O';
+        static final char END = 'E';
+
+        final char kind;
+        final String text;
+
+        Token(char kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+
+        boolean is(String operator) {
+            return kind == OPERATOR && text.equals(operator);
+        }
+    }
+
+
+    /*
+     * The result of a part of the expression: a literal, or a local
+     * variable of the generated code.
+     */
+    private static final class Value {
+
+        final String code;
+        final Class<?> type;
+        final boolean nullable;
+        final boolean isNull;
+
+        Value(String code, Class<?> type, boolean nullable) {
+            this(code, type, nullable, false);
+        }
+
+        private Value(String code, Class<?> type, boolean nullable, boolean isNull) {
+            this.code = code;
+            this.type = type;
+            this.nullable = nullable;
+            this.isNull = isNull;
+        }
+
+        static final Value NULL = new Value("null", Object.class, true, true);
+    }
+
+
+    private static final class Translation {
+
+        private final JspCompilationContext context;
+        private final PageInfo pageInfo;
+        private final List<Token> tokens;
+        private int pos;
+        private StringBuilder code = new StringBuilder();
+        private final StringBuilder lookups = new StringBuilder();
+        private int depth = 1;
+        private int variables;
+
+        /*
+         * Whether the code generated so far calls methods of the
+         * application, after which it may no longer give up.
+         */
+        private boolean called;
+
+        Translation(JspCompilationContext context, String expression)
+                throws Unsupported {
+            this.context = context;
+            this.pageInfo = context.getCompiler().getPageInfo();
+            this.tokens = tokenize(expression);
+        }
+
+        String translate(Class<?> expectedType) throws Unsupported {
+            Value value = choice();
+            if (next().kind != Token.END) {
+                throw UNSUPPORTED;
+            }
+            String result = coerce(value, expectedType);
+            line("return " + result + ";");
+            return "(" + Constants.PAGE_CONTEXT + " " + CONTEXT + ") -> {\n"
+                    + lookups + code + "}";
+        }
+
+        // ------------------------------------------------------- Tokens
+
+        private static List<Token> tokenize(String s) throws Unsupported {
+            List<Token> tokens = new ArrayList<>();
+            int i = 0;
+            int length = s.length();
+            while (i < length) {
+                char c = s.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (Character.isJavaIdentifierStart(c)) {
+                    int start = i;
+                    while (i < length && Character.isJavaIdentifierPart(s.charAt(i))) {
+                        i++;
+                    }
+                    String word = s.substring(start, i);
+                    String operator = OPERATORS.get(word);
+                    if (operator != null) {
+                        tokens.add(new Token(Token.OPERATOR, operator));
+                    } else {
+                        tokens.add(new Token(Token.IDENTIFIER, word));
+                    }
+                } else if (isDigit(c) || (c == '.' && i + 1 < length
+                        && isDigit(s.charAt(i + 1)) && !followsValue(tokens))) {
+                    i = number(s, i, tokens);
+                } else if (c == '\'' || c == '"') {
+                    i = string(s, i, tokens);
+                } else {
+                    String two = i + 1 < length ? s.substring(i, i + 2) : "";
+                    if (two.equals("==") || two.equals("!=") || two.equals("<=")
+                            || two.equals(">=") || two.equals("&&") || two.equals("||")) {
+                        tokens.add(new Token(Token.OPERATOR, two));
+                        i += 2;
+                    } else if (two.equals("->") || two.equals("+=")) {
+                        throw UNSUPPORTED;
+                    } else if ("<>!+-*/%?:().,".indexOf(c) >= 0) {
+                        tokens.add(new Token(Token.OPERATOR, String.valueOf(c)));
+                        i++;
+                    } else {
+                        // Brackets, assignments, lambdas, collections...
+                        throw UNSUPPORTED;
+                    }
+                }
+            }
+            tokens.add(new Token(Token.END, ""));
+            return tokens;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean followsValue(List<Token> tokens) {
+            if (tokens.isEmpty()) {
+                return false;
+            }
+            Token last = tokens.get(tokens.size() - 1);
+            return last.kind != Token.OPERATOR || last.is(")");
+        }
+
+        private static int number(String s, int i, List<Token> tokens) {
+            int start = i;
+            int length = s.length();
+            boolean floating = false;
+            while (i < length && isDigit(s.charAt(i))) {
+                i++;
+            }
+            if (i + 1 < length && s.charAt(i) == '.' && isDigit(s.charAt(i + 1))
+                    || i < length && s.charAt(i) == '.' && start < i) {
+                floating = true;
+                i++;
+                while (i < length && isDigit(s.charAt(i))) {
+                    i++;
+                }
+            }
+            if (i < length && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+                int exponent = i + 1;
+                if (exponent < length && (s.charAt(exponent) == '+' || s.charAt(exponent) == '-')) {
+                    exponent++;
+                }
+                if (exponent < length && isDigit(s.charAt(exponent))) {
+                    floating = true;
+                    i = exponent;
+                    while (i < length && isDigit(s.charAt(i))) {
+                        i++;
+                    }
+                }
+            }
+            tokens.add(new Token(floating ? Token.FLOAT : Token.INTEGER, s.substring(start, i)));
+            return i;
+        }
+
+        private static int string(String s, int i, List<Token> tokens) throws Unsupported {
+            char quote = s.charAt(i++);
+            StringBuilder sb = new StringBuilder();
+            while (i < s.length()) {
+                char c = s.charAt(i++);
+                if (c == quote) {
+                    tokens.add(new Token(Token.STRING, sb.toString()));
+                    return i;
+                } else if (c == '\\') {
+                    if (i == s.length()) {
+                        break;
+                    }
+                    c = s.charAt(i++);
+                    if (c != '\\' && c != '\'' && c != '"') {
+                        throw UNSUPPORTED;
+                    }
+                }
+                sb.append(c);
+            }
+            throw UNSUPPORTED;
+        }
+
+        private Token next() {
+            return tokens.get(pos);
+        }
+
+        private boolean accept(String operator) {
+            if (next().is(operator)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String operator) throws Unsupported {
+            if (!accept(operator)) {
+                throw UNSUPPORTED;
+            }
+        }
+
+        // --------------------------------------------------------- Code
+
+        private void line(String s) {
+            for (int i = 0; i < depth; i++) {
+                code.append("  ");
+            }
+            code.append(s).append('\n');
+        }
+
+        /*
+         * Names are looked up before anything else, so that the code gives
+         * up before calling any method when one of them is not there.
+         */
+        private void lookup(String s) {
+            lookups.append("  ").append(s).append('\n');
+        }
+
+        private String variable() {
+            return VARIABLE + variables++;
+        }
+
+        private Value declare(Class<?> type, String expression, boolean nullable)
+                throws Unsupported {
+            String v = variable();
+            line(typeName(type) + " " + v + " = " + expression + ";");
+            return new Value(v, type, nullable);
+        }
+
+        /*
+         * Values the EL implementation would coerce from null are left to it,
+         * unless methods were called already and would be called again.
+         */
+        private void requireNonNull(Value value) throws Unsupported {
+            if (value.isNull || (value.nullable && called)) {
+                throw UNSUPPORTED;
+            }
+            if (value.nullable) {
+                line("if (" + value.code + " == null) {");
+                line("  return " + UNRESOLVED + ";");
+                line("}");
+            }
+        }
+
+        private static String typeName(Class<?> type) throws Unsupported {
+            if (!type.isPrimitive()) {
+                Class<?> component = type;
+                while (component.isArray()) {
+                    component = component.getComponentType();
+                }
+                for (Class<?> c = component; c != null; c = c.getDeclaringClass()) {
+                    if (!c.isPrimitive() && !Modifier.isPublic(c.getModifiers())) {
+                        throw UNSUPPORTED;
+                    }
+                }
+            }
+            String name = type.getCanonicalName();
+            if (name == null) {
+                throw UNSUPPORTED;
+            }
+            return name;
+        }
+
+        // -------------------------------------------------------- Types
+
+        private static Class<?> unbox(Class<?> type) {
+            if (type == Long.class) {
+                return long.class;
+            } else if (type == Integer.class) {
+                return int.class;
+            } else if (type == Short.class) {
+                return short.class;
+            } else if (type == Byte.class) {
+                return byte.class;
+            } else if (type == Double.class) {
+                return double.class;
+            } else if (type == Float.class) {
+                return float.class;
+            } else if (type == Boolean.class) {
+                return boolean.class;
+            } else if (type == Character.class) {
+                return char.class;
+            }
+            return type;
+        }
+
+        private static boolean isIntegral(Value value) {
+            Class<?> type = unbox(value.type);
+            return !value.isNull && (type == long.class || type == int.class
+                    || type == short.class || type == byte.class);
+        }
+
+        private static boolean isFloating(Value value) {
+            Class<?> type = unbox(value.type);
+            return !value.isNull && (type == double.class || type == float.class);
+        }
+
+        private static boolean isNumber(Value value) {
+            return isIntegral(value) || isFloating(value);
+        }
+
+        private static boolean isBoolean(Value value) {
+            return !value.isNull && unbox(value.type) == boolean.class;
+        }
+
+        private String toLong(Value value) throws Unsupported {
+            requireNonNull(value);
+            return value.type.isPrimitive() ? "(long) " + value.code
+                    : value.code + ".longValue()";
+        }
+
+        private String toDouble(Value value) throws Unsupported {
+            requireNonNull(value);
+            return value.type.isPrimitive() ? "(double) " + value.code
+                    : value.code + ".doubleValue()";
+        }
+
+        private String toBoolean(Value value) throws Unsupported {
+            if (!isBoolean(value)) {
+                throw UNSUPPORTED;
+            }
+            requireNonNull(value);
+            return value.code;
+        }
+
+        /*
+         * The operands of the logical and conditional operators are false
+         * when null.
+         */
+        private String test(Value value) throws Unsupported {
+            if (!isBoolean(value)) {
+                throw UNSUPPORTED;
+            }
+            return value.nullable ? "(" + value.code + " != null && "
+                    + value.code + ")" : value.code;
+        }
+
+        // ------------------------------------------------------ Grammar
+
+        private Value choice() throws Unsupported {
+            Value condition = or();
+            if (!accept("?")) {
+                return condition;
+            }
+            String test = test(condition);
+            String v = variable();
+            StringBuilder saved = code;
+            depth++;
+            code = new StringBuilder();
+            Value first = choice();
+            line(v + " = " + first.code + ";");
+            String firstCode = code.toString();
+            expect(":");
+            code = new StringBuilder();
+            Value second = choice();
+            line(v + " = " + second.code + ";");
+            String secondCode = code.toString();
+            depth--;
+            code = saved;
+            Class<?> type = !first.isNull && !second.isNull && first.type == second.type
+                    ? first.type : Object.class;
+            line(typeName(type) + " " + v + ";");
+            line("if (" + test + ") {");
+            code.append(firstCode);
+            line("} else {");
+            code.append(secondCode);
+            line("}");
+            return new Value(v, type, first.nullable || second.nullable);
+        }
+
+        private Value or() throws Unsupported {
+            Value left = and();
+            while (next().is("||")) {
+                pos++;
+                left = shortCircuit(left, false);
+            }
+            return left;
+        }
+
+        private Value and() throws Unsupported {
+            Value left = equality();
+            while (next().is("&&")) {
+                pos++;
+                left = shortCircuit(left, true);
+            }
+            return left;
+        }
+
+        private Value shortCircuit(Value left, boolean and) throws Unsupported {
+            Value result = declare(boolean.class, test(left), false);
+            line("if (" + (and ? "" : "!") + result.code + ") {");
+            depth++;
+            Value right = and ? equality() : and();
+            line(result.code + " = " + test(right) + ";");
+            depth--;
+            line("}");
+            return result;
+        }
+
+        private Value equality() throws Unsupported {
+            Value left = relational();
+            while (next().is("==") || next().is("!=")) {
+                boolean equal = next().is("==");
+                pos++;
+                String test = equal(left, relational());
+                left = declare(boolean.class, equal ? test : "!(" + test + ")", false);
+            }
+            return left;
+        }
+
+        private String equal(Value left, Value right) throws Unsupported {
+            if (left.isNull || right.isNull) {
+                Value other = left.isNull ? right : left;
+                if (other.isNull) {
+                    return "true";
+                }
+                return other.type.isPrimitive() ? "false" : other.code + " == null";
+            } else if (isNumber(left) && isNumber(right)) {
+                if (isFloating(left) || isFloating(right)) {
+                    return "Double.compare(" + toDouble(left) + ", "
+                            + toDouble(right) + ") == 0";
+                }
+                return toLong(left) + " == " + toLong(right);
+            } else if (isBoolean(left) && isBoolean(right)) {
+                return toBoolean(left) + " == " + toBoolean(right);
+            } else if (left.type == String.class && right.type == String.class) {
+                return "java.util.Objects.equals(" + left.code + ", " + right.code + ")";
+            } else if (left.type == right.type && left.type.isEnum()) {
+                return left.code + " == " + right.code;
+            }
+            throw UNSUPPORTED;
+        }
+
+        private Value relational() throws Unsupported {
+            Value left = additive();
+            while (next().is("<") || next().is(">") || next().is("<=") || next().is(">=")) {
+                String operator = next().text;
+                pos++;
+                Value right = additive();
+                String test;
+                if (isNumber(left) && isNumber(right)) {
+                    if (isFloating(left) || isFloating(right)) {
+                        test = "Double.compare(" + toDouble(left) + ", "
+                                + toDouble(right) + ") " + operator + " 0";
+                    } else {
+                        test = toLong(left) + " " + operator + " " + toLong(right);
+                    }
+                } else if (left.type == String.class && right.type == String.class) {
+                    requireNonNull(left);
+                    requireNonNull(right);
+                    test = left.code + ".compareTo(" + right.code + ") " + operator + " 0";
+                } else {
+                    throw UNSUPPORTED;
+                }
+                left = declare(boolean.class, test, false);
+            }
+            return left;
+        }
+
+        private Value additive() throws Unsupported {
+            Value left = multiplicative();
+            while (next().is("+") || next().is("-")) {
+                String operator = next().text;
+                pos++;
+                left = arithmetic(left, operator, multiplicative());
+            }
+            return left;
+        }
+
+        private Value multiplicative() throws Unsupported {
+            Value left = unary();
+            while (next().is("*") || next().is("/") || next().is("%")) {
+                String operator = next().text;
+                pos++;
+                left = arithmetic(left, operator, unary());
+            }
+            return left;
+        }
+
+        private Value arithmetic(Value left, String operator, Value right)
+                throws Unsupported {
+            if (!isNumber(left) || !isNumber(right)) {
+                throw UNSUPPORTED;
+            }
+            // Division is always done on doubles
+            if (isFloating(left) || isFloating(right) || operator.equals("/")) {
+                return declare(double.class, toDouble(left) + " " + operator
+                        + " " + toDouble(right), false);
+            }
+            return declare(long.class, toLong(left) + " " + operator + " "
+                    + toLong(right), false);
+        }
+
+        private Value unary() throws Unsupported {
+            if (accept("-")) {
+                Value value = unary();
+                if (!isNumber(value)) {
+                    throw UNSUPPORTED;
+                }
+                requireNonNull(value);
+                // The type of the operand is kept
+                Class<?> type = unbox(value.type);
+                return declare(type, "(" + type.getName() + ") -(" + value.code + ")", false);
+            } else if (accept("!")) {
+                return declare(boolean.class, "!" + test(unary()), false);
+            } else if (next().kind == Token.IDENTIFIER && next().text.equals("empty")) {
+                pos++;
+                return declare(boolean.class, empty(unary()), false);
+            }
+            return value();
+        }
+
+        private String empty(Value value) throws Unsupported {
+            if (value.isNull) {
+                return "true";
+            }
+            Class<?> type = value.type;
+            if (type.isPrimitive()) {
+                return "false";
+            }
+            String test;
+            if (type == String.class) {
+                test = value.code + ".isEmpty()";
+            } else if (Collection.class.isAssignableFrom(type)
+                    || Map.class.isAssignableFrom(type)) {
+                test = value.code + ".isEmpty()";
+                called = true;
+            } else if (type.isArray()) {
+                test = value.code + ".length == 0";
+            } else if (Modifier.isFinal(type.getModifiers()) || type.isEnum()) {
+                return value.code + " == null";
+            } else {
+                // Could be a collection
+                throw UNSUPPORTED;
+            }
+            return value.nullable ? value.code + " == null || " + test : test;
+        }
+
+        private Value value() throws Unsupported {
+            Token token = next();
+            pos++;
+            Value value;
+            switch (token.kind) {
+            case Token.INTEGER:
+                try {
+                    value = new Value(Long.parseLong(token.text) + "L", long.class, false);
+                } catch (NumberFormatException e) {
+                    // A BigInteger
+                    throw UNSUPPORTED;
+                }
+                break;
+            case Token.FLOAT:
+                double d = Double.parseDouble(token.text);
+                if (Double.isInfinite(d)) {
+                    throw UNSUPPORTED;
+                }
+                value = new Value(Double.toString(d), double.class, false);
+                break;
+            case Token.STRING:
+                value = new Value(Generator.quote(token.text), String.class, false);
+                break;
+            case Token.IDENTIFIER:
+                if (token.text.equals("true") || token.text.equals("false")) {
+                    value = new Value(token.text, boolean.class, false);
+                } else if (token.text.equals("null")) {
+                    value = Value.NULL;
+                } else if (next().is(":") && tokens.get(pos + 1).kind == Token.IDENTIFIER
+                        && tokens.get(pos + 2).is("(")) {
+                    String name = tokens.get(pos + 1).text;
+                    pos += 3;
+                    value = function(token.text, name);
+                } else {
+                    value = identifier(token.text);
+                }
+                break;
+            case Token.OPERATOR:
+                if (token.is("(")) {
+                    value = choice();
+                    expect(")");
+                    break;
+                }
+                throw UNSUPPORTED;
+            default:
+                throw UNSUPPORTED;
+            }
+            while (accept(".")) {
+                Token property = next();
+                pos++;
+                if (property.kind != Token.IDENTIFIER || RESERVED.contains(property.text)) {
+                    throw UNSUPPORTED;
+                }
+                value = property(value, property.text);
+            }
+            if (next().is("(")) {
+                // Method or function call
+                throw UNSUPPORTED;
+            }
+            return value;
+        }
+
+        // ------------------------------------------------------- Names
+
+        private Value identifier(String name) throws Unsupported {
+            if (RESERVED.contains(name) || IMPLICIT_OBJECTS.contains(name)) {
+                throw UNSUPPORTED;
+            }
+            Class<?> type = getAttributeType(name);
+            if (type != null) {
+                String typeName = typeName(type);
+                String attribute = variable();
+                lookup("Object " + attribute + " = " + CONTEXT + ".findAttribute("
+                        + Generator.quote(name) + ");");
+                lookup("if (!(" + attribute + " instanceof " + typeName + ")) {");
+                lookup("  return " + UNRESOLVED + ";");
+                lookup("}");
+                String v = variable();
+                lookup(typeName + " " + v + " = (" + typeName + ") " + attribute + ";");
+                return new Value(v, type, false);
+            }
+            // An imported class, then resolved after the scoped attributes
+            Class<?> imported = getImportedClass(name);
+            if (imported == null || !next().is(".")) {
+                throw UNSUPPORTED;
+            }
+            pos++;
+            Token fieldName = next();
+            pos++;
+            if (fieldName.kind != Token.IDENTIFIER) {
+                throw UNSUPPORTED;
+            }
+            Field field;
+            try {
+                field = imported.getField(fieldName.text);
+            } catch (NoSuchFieldException e) {
+                throw UNSUPPORTED;
+            }
+            if (!Modifier.isStatic(field.getModifiers())) {
+                throw UNSUPPORTED;
+            }
+            lookup("if (" + CONTEXT + ".findAttribute(" + Generator.quote(name) + ") != null) {");
+            lookup("  return " + UNRESOLVED + ";");
+            lookup("}");
+            return declare(field.getType(), typeName(imported) + "." + field.getName(),
+                    !field.getType().isPrimitive());
+        }
+
+        /*
+         * A function of a tag library is called directly, its arguments
+         * coerced to the types of its parameters as the EL implementation
+         * would.
+         */
+        private Value function(String prefix, String name) throws Unsupported {
+            Method method = getFunction(prefix, name);
+            Class<?>[] types = method.getParameterTypes();
+            List<String> arguments = new ArrayList<>();
+            if (!accept(")")) {
+                do {
+                    if (arguments.size() == types.length) {
+                        throw UNSUPPORTED;
+                    }
+                    arguments.add(argument(choice(), types[arguments.size()]));
+                } while (accept(","));
+                expect(")");
+            }
+            if (arguments.size() != types.length) {
+                throw UNSUPPORTED;
+            }
+            Class<?> result = method.getReturnType();
+            if (result == void.class) {
+                throw UNSUPPORTED;
+            }
+            Value value = declare(result, typeName(method.getDeclaringClass()) + "."
+                    + method.getName() + "(" + String.join(", ", arguments) + ")",
+                    !result.isPrimitive());
+            called = true;
+            return value;
+        }
+
+        private Method getFunction(String prefix, String name) throws Unsupported {
+            String uri = pageInfo.getURI(prefix);
+            TagLibraryInfo taglib = uri == null ? null : pageInfo.getTaglib(uri);
+            FunctionInfo function = taglib == null ? null : taglib.getFunction(name);
+            if (function == null) {
+                throw UNSUPPORTED;
+            }
+            // <return-type> <method-name>(<arg-type>, ...)
+            String signature = function.getFunctionSignature();
+            int open = signature.indexOf('(');
+            int close = signature.lastIndexOf(')');
+            if (open < 0 || close < open) {
+                throw UNSUPPORTED;
+            }
+            String[] head = signature.substring(0, open).trim().split("\\s+");
+            String list = signature.substring(open + 1, close).trim();
+            String[] names = list.isEmpty() ? new String[0] : list.split(",");
+            Class<?>[] types = new Class<?>[names.length];
+            try {
+                for (int i = 0; i < names.length; i++) {
+                    types[i] = JspUtil.toClass(names[i].trim(), context.getClassLoader());
+                }
+                Method method = loadClass(function.getFunctionClass())
+                        .getMethod(head[head.length - 1], types);
+                if (!Modifier.isStatic(method.getModifiers()) || method.isVarArgs()) {
+                    throw UNSUPPORTED;
+                }
+                return method;
+            } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+                throw UNSUPPORTED;
+            }
+        }
+
+        /*
+         * Cast to the type of the parameter, so that the method of the
+         * signature is called whatever its overloads.
+         */
+        private String argument(Value value, Class<?> type) throws Unsupported {
+            String code;
+            if (type == String.class || type.isPrimitive() || unbox(type) != type) {
+                code = coerce(value, type);
+            } else if (value.isNull) {
+                code = "null";
+            } else if (type.isAssignableFrom(box(value.type))) {
+                code = value.code;
+            } else {
+                throw UNSUPPORTED;
+            }
+            return "(" + typeName(type) + ") (" + code + ")";
+        }
+
+        private Class<?> getAttributeType(String name) throws Unsupported {
+            String typeName = null;
+            BeanRepository beans = pageInfo.getBeanRepository();
+            if (beans.checkVariable(name)) {
+                try {
+                    return beans.getBeanType(name);
+                } catch (JasperException e) {
+                    throw UNSUPPORTED;
+                }
+            } else if (context.isTagFile()) {
+                TagInfo tagInfo = context.getTagInfo();
+                TagAttributeInfo[] attributes = tagInfo == null ? null : tagInfo.getAttributes();
+                if (attributes != null) {
+                    for (TagAttributeInfo attribute : attributes) {
+                        if (attribute.getName().equals(name)) {
+                            if (attribute.isFragment() || attribute.isDeferredValue()
+                                    || attribute.isDeferredMethod()) {
+                                throw UNSUPPORTED;
+                            }
+                            typeName = attribute.getTypeName();
+                            if (typeName == null) {
+                                typeName = "java.lang.String";
+                            }
+                        }
+                    }
+                }
+            }
+            return typeName == null ? null : loadClass(typeName);
+        }
+
+        private Class<?> loadClass(String name) throws Unsupported {
+            try {
+                return context.getClassLoader().loadClass(name);
+            } catch (ClassNotFoundException | LinkageError e) {
+                throw UNSUPPORTED;
+            }
+        }
+
+        private Class<?> findClass(String name) {
+            try {
+                return context.getClassLoader().loadClass(name);
+            } catch (ClassNotFoundException | LinkageError e) {
+                return null;
+            }
+        }
+
+        /*
+         * Resolved as the import handler of the page would, a name found in
+         * several imported packages is left to it.
+         */
+        private Class<?> getImportedClass(String name) throws Unsupported {
+            List<String> candidates = new ArrayList<>();
+            candidates.add("java.lang." + name);
+            for (String imported : pageInfo.getImports()) {
+                String trimmed = imported.trim();
+                if (trimmed.endsWith(".*")) {
+                    candidates.add(trimmed.substring(0, trimmed.length() - 1) + name);
+                } else if (trimmed.endsWith("." + name)) {
+                    return loadClass(trimmed);
+                }
+            }
+            Class<?> found = null;
+            for (String candidate : candidates) {
+                Class<?> c = findClass(candidate);
+                if (c != null) {
+                    if (found != null && found != c) {
+                        throw UNSUPPORTED;
+                    }
+                    found = c;
+                }
+            }
+            return found;
+        }
+
+        private Value property(Value base, String name) throws Unsupported {
+            Class<?> type = base.type;
+            if (base.isNull || type.isPrimitive() || type.isArray()
+                    || Map.class.isAssignableFrom(type)
+                    || List.class.isAssignableFrom(type)
+                    || ResourceBundle.class.isAssignableFrom(type)) {
+                // Not resolved as a bean property
+                throw UNSUPPORTED;
+            }
+            Method getter = null;
+            try {
+                for (PropertyDescriptor pd : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                    if (pd.getName().equals(name)) {
+                        getter = pd.getReadMethod();
+                    }
+                }
+            } catch (IntrospectionException e) {
+                throw UNSUPPORTED;
+            }
+            if (getter == null || !Modifier.isPublic(getter.getModifiers())
+                    || !Modifier.isPublic(getter.getDeclaringClass().getModifiers())) {
+                throw UNSUPPORTED;
+            }
+            Class<?> result = getter.getReturnType();
+            String call = base.code + "." + getter.getName() + "()";
+            called = true;
+            if (!base.nullable) {
+                return declare(result, call, !result.isPrimitive());
+            }
+            // The value of a property of null is null
+            Class<?> boxed = box(result);
+            return declare(boxed, base.code + " == null ? null : "
+                    + (boxed != result ? typeName(boxed) + ".valueOf(" + call + ")" : call), true);
+        }
+
+        private static Class<?> box(Class<?> type) {
+            if (type == long.class) {
+                return Long.class;
+            } else if (type == int.class) {
+                return Integer.class;
+            } else if (type == short.class) {
+                return Short.class;
+            } else if (type == byte.class) {
+                return Byte.class;
+            } else if (type == double.class) {
+                return Double.class;
+            } else if (type == float.class) {
+                return Float.class;
+            } else if (type == boolean.class) {
+                return Boolean.class;
+            } else if (type == char.class) {
+                return Character.class;
+            }
+            return type;
+        }
+
+        // ---------------------------------------------------- Coercion
+
+        private String coerce(Value value, Class<?> expectedType) throws Unsupported {
+            if (expectedType == String.class) {
+                if (value.isNull) {
+                    return "\"\"";
+                }
+                Class<?> type = value.type;
+                String string;
+                if (type.isPrimitive()) {
+                    return "String.valueOf(" + value.code + ")";
+                } else if (type == String.class) {
+                    string = value.code;
+                } else if (type.isEnum()) {
+                    string = value.code + ".name()";
+                } else if (Modifier.isFinal(type.getModifiers())) {
+                    string = value.code + ".toString()";
+                    called = true;
+                } else {
+                    called = true;
+                    string = "(Object) " + value.code + " instanceof Enum ? ((Enum<?>) (Object) "
+                            + value.code + ").name() : " + value.code + ".toString()";
+                }
+                return value.nullable ? value.code + " == null ? \"\" : " + string : string;
+            } else if (expectedType == Object.class) {
+                return value.code;
+            }
+            Class<?> type = unbox(expectedType);
+            if (type == boolean.class) {
+                return toBoolean(value);
+            } else if (type == char.class || !type.isPrimitive() || !isNumber(value)) {
+                throw UNSUPPORTED;
+            }
+            return "(" + type.getName() + ") " + (isFloating(value)
+                    ? "(" + toDouble(value) + ")" : "(" + toLong(value) + ")");
+        }
+    }
+}
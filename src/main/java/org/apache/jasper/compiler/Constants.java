@@ -117,6 +117,7 @@ final class Constants {
 
     // org.apache.jasper.runtime
     private static final String PACKAGE_ORG_APACHE_JASPER_RUNTIME = "org.apache.jasper.runtime";
+    static final String CACHED_VALUE_EXPRESSION = PACKAGE_ORG_APACHE_JASPER_RUNTIME + ".CachedValueExpression";
     static final String INSTANCE_MANAGER_FACTORY = PACKAGE_ORG_APACHE_JASPER_RUNTIME + ".InstanceManagerFactory";
     static final String JSP_CONTEXT_WRAPPER = PACKAGE_ORG_APACHE_JASPER_RUNTIME + ".JspContextWrapper";
     static final String JSP_FRAGMENT_HELPER = PACKAGE_ORG_APACHE_JASPER_RUNTIME + ".JspFragmentHelper";
@@ -125,6 +126,7 @@ final class Constants {
     static final String JSP_SOURCE_DIRECTIVES = PACKAGE_ORG_APACHE_JASPER_RUNTIME + ".JspSourceDirectives";
     static final String JSP_SOURCE_IMPORTS = PACKAGE_ORG_APACHE_JASPER_RUNTIME + ".JspSourceImports";
     static final String PAGE_CONTEXT_IMPL = PACKAGE_ORG_APACHE_JASPER_RUNTIME + ".PageContextImpl";
+    static final String PRE_ENCODED_TEXT = PACKAGE_ORG_APACHE_JASPER_RUNTIME + ".PreEncodedText";
     static final String TAG_HANDLER_POOL = PACKAGE_ORG_APACHE_JASPER_RUNTIME + ".TagHandlerPool";
 
     // org.apache.tomcat
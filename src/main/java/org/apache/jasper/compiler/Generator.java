@@ -23,6 +23,7 @@ import static org.apache.jasper.compiler.Constants.BEANS;
 import static org.apache.jasper.compiler.Constants.BODY_CONTENT;
 import static org.apache.jasper.compiler.Constants.BODY_TAG;
 import static org.apache.jasper.compiler.Constants.BOOLEAN;
+import static org.apache.jasper.compiler.Constants.CACHED_VALUE_EXPRESSION;
 import static org.apache.jasper.compiler.Constants.CLASS;
 import static org.apache.jasper.compiler.Constants.CLASS_NOT_FOUND_EXCEPTION;
 import static org.apache.jasper.compiler.Constants.DISPATCHER_TYPE;
@@ -60,6 +61,7 @@ import static org.apache.jasper.compiler.Constants.MAP;
 import static org.apache.jasper.compiler.Constants.METHOD_EXPRESSION;
 import static org.apache.jasper.compiler.Constants.OBJECT;
 import static org.apache.jasper.compiler.Constants.PAGE_CONTEXT;
+import static org.apache.jasper.compiler.Constants.PRE_ENCODED_TEXT;
 import static org.apache.jasper.compiler.Constants.SERVLET_CONFIG;
 import static org.apache.jasper.compiler.Constants.SERVLET_CONTEXT;
 import static org.apache.jasper.compiler.Constants.SERVLET_EXCEPTION;
@@ -84,6 +86,7 @@ import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.charset.Charset;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -96,6 +99,7 @@ import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -185,8 +189,27 @@ class Generator {
 
     private final Vector<String> tagHandlerPoolNames;
 
+    /*
+     * Key of each tag handler pool in the pool registry of the web
+     * application, shared by the pages using the same handler class with
+     * the same attributes.
+     */
+    private final Map<String, String> tagHandlerPoolKeys;
+
     private GenBuffer charArrayBuffer;
 
+    /*
+     * Static fields holding the expressions evaluated by the page, so that
+     * each distinct expression is parsed once.
+     */
+    private GenBuffer expressionBuffer;
+
+    private final Map<String, String> expressionNames;
+
+    private final String textCharset;
+
+    private Node.TemplateText flushEarlyText;
+
     private final DateFormat timestampFormat;
 
     private final ELInterpreter elInterpreter;
@@ -334,6 +357,100 @@ class Generator {
         page.visit(new DeclarationVisitor());
     }
 
+    /**
+     * Finds the template text closing the document head of the page, after
+     * which the output is flushed. The page is not flushed if it has an
+     * error page, or if anything after its head may redirect, forward or
+     * send an error, as none of these work once the response is committed:
+     * forwards, includes, scripting elements, and custom tags whose handler
+     * is not one of the flushEarlyTags option or with scripting attributes.
+     */
+    private void findFlushEarlyText(Node.Nodes page) throws JasperException {
+
+        if (pageInfo.getErrorPage() != null || pageInfo.getBuffer() == 0) {
+            return;
+        }
+
+        final Set<String> safeTags = ctxt.getOptions().getFlushEarlyTags();
+
+        class FlushEarlyVisitor extends Node.Visitor {
+
+            private Node.TemplateText head;
+            private boolean unsafe;
+
+            @Override
+            public void visit(Node.TemplateText n) throws JasperException {
+                if (head == null && isTopLevel(n) && n.getText()
+                        .toLowerCase(Locale.ENGLISH).contains("</head>")) {
+                    head = n;
+                }
+            }
+
+            /*
+             * Only text written by the service method of the page itself,
+             * not by tag bodies or fragments, is flushed.
+             */
+            private boolean isTopLevel(Node n) {
+                Node parent = n.getParent();
+                while (parent != null) {
+                    if (!(parent instanceof Node.IncludeDirective)
+                            && !(parent instanceof Node.Root
+                                    && !((Node.Root) parent).isXmlSyntax())) {
+                        return false;
+                    }
+                    parent = parent.getParent();
+                }
+                return true;
+            }
+
+            @Override
+            public void visit(Node.ForwardAction n) throws JasperException {
+                unsafeAfterHead();
+            }
+
+            @Override
+            public void visit(Node.IncludeAction n) throws JasperException {
+                unsafeAfterHead();
+            }
+
+            @Override
+            public void visit(Node.Expression n) throws JasperException {
+                unsafeAfterHead();
+            }
+
+            @Override
+            public void visit(Node.Scriptlet n) throws JasperException {
+                unsafeAfterHead();
+            }
+
+            @Override
+            public void visit(Node.CustomTag n) throws JasperException {
+                if (!safeTags.contains(n.getTagInfo().getTagClassName())) {
+                    unsafeAfterHead();
+                }
+                Node.JspAttribute[] attrs = n.getJspAttributes();
+                for (int i = 0; attrs != null && i < attrs.length; i++) {
+                    if (attrs[i].isExpression()) {
+                        unsafeAfterHead();
+                    }
+                }
+                visitBody(n);
+            }
+
+            private void unsafeAfterHead() {
+                if (head != null) {
+                    unsafe = true;
+                }
+            }
+        }
+
+        FlushEarlyVisitor visitor = new FlushEarlyVisitor();
+        page.visit(visitor);
+        if (!visitor.unsafe) {
+            flushEarlyText = visitor.head;
+        }
+    }
+
     /**
      * Compiles list of tag handler pool names.
      */
@@ -362,29 +479,31 @@ class Generator {
             public void visit(Node.CustomTag n) throws JasperException {
 
                 if (!n.implementsSimpleTag()) {
-                    String name = createTagHandlerPoolName(n.getPrefix(), n
-                            .getLocalName(), n.getAttributes(),
+                    String shape = createTagHandlerPoolShape(n.getAttributes(),
                             n.getNamedAttributeNodes(), n.hasEmptyBody());
+                    String name = JspUtil.makeJavaIdentifier("_jspx_tagPool_"
+                            + n.getPrefix() + '_' + n.getLocalName() + shape);
                     n.setTagHandlerPoolName(name);
                     if (!names.contains(name)) {
                         names.add(name);
+                        tagHandlerPoolKeys.put(name,
+                                n.getTagHandlerClass().getName() + shape);
                     }
                 }
                 visitBody(n);
             }
 
             /*
-             * Creates the name of the tag handler pool whose tag handlers may
-             * be (re)used to service this action.
+             * Creates the part of the name of the tag handler pool whose tag
+             * handlers may be (re)used to service this action that follows
+             * the name of the tag: the attributes and whether the body is
+             * empty.
              *
-             * @return The name of the tag handler pool
+             * @return The shape of the tag
              */
-            private String createTagHandlerPoolName(String prefix,
-                    String shortName, Attributes attrs, Node.Nodes namedAttrs,
-                    boolean hasEmptyBody) {
+            private String createTagHandlerPoolShape(Attributes attrs,
+                    Node.Nodes namedAttrs, boolean hasEmptyBody) {
                 StringBuilder poolName = new StringBuilder(64);
-                poolName.append("_jspx_tagPool_").append(prefix).append('_')
-                        .append(shortName);
 
                 if (attrs != null) {
                     String[] attrNames =
@@ -408,7 +527,7 @@ class Generator {
                 if (hasEmptyBody) {
                     poolName.append("_nobody");
                 }
-                return JspUtil.makeJavaIdentifier(poolName.toString());
+                return poolName.toString();
             }
         }
 
@@ -501,13 +620,16 @@ class Generator {
         out.pushIndent();
         if (isPoolingEnabled) {
             for (int i = 0; i < tagHandlerPoolNames.size(); i++) {
-                out.printin(tagHandlerPoolNames.elementAt(i));
+                String poolName = tagHandlerPoolNames.elementAt(i);
+                out.printin(poolName);
                 out.print(" = " + TAG_HANDLER_POOL + ".getTagHandlerPool(");
                 if (ctxt.isTagFile()) {
                     out.print("config");
                 } else {
                     out.print("getServletConfig()");
                 }
+                out.print(", ");
+                out.print(quote(tagHandlerPoolKeys.get(poolName)));
                 out.println(");");
             }
         }
@@ -993,7 +1115,7 @@ class Generator {
                 }
                 return v;
             } else if (attr.isELInterpreterInput()) {
-                v = elInterpreter.interpreterCall(ctxt, this.isTagFile, v,
+                v = interpreterCall(this.isTagFile, v,
                         expectedType, attr.getEL().getMapName());
                 if (encode) {
                     return JSP_RUNTIME_LIBRARY + ".URLEncode("
@@ -1079,7 +1201,7 @@ class Generator {
             n.setBeginJavaLine(out.getJavaLine());
             if (!pageInfo.isELIgnored() && (n.getEL() != null)) {
                 out.printil("out.write("
-                        + elInterpreter.interpreterCall(ctxt, this.isTagFile,
+                        + interpreterCall(this.isTagFile,
                                 n.getType() + "{" + n.getText() + "}",
                                 String.class, n.getEL().getMapName()) +
                         ");");
@@ -1238,12 +1360,21 @@ class Generator {
                 java.lang.reflect.Method meth = JspRuntimeLibrary
                         .getReadMethod(bean, property);
                 String methodName = meth.getName();
-                out.printil("out.write(" + JSP_RUNTIME_LIBRARY + ".toString("
-                                + "((("
-                                + beanName
-                                + ")_jspx_page_context.findAttribute("
-                                + "\""
-                                + name + "\"))." + methodName + "())));");
+                if (meth.getReturnType().isPrimitive()) {
+                    // Printed by the writer without creating a String
+                    out.printil("out.print((("
+                                    + beanName
+                                    + ")_jspx_page_context.findAttribute("
+                                    + "\""
+                                    + name + "\"))." + methodName + "());");
+                } else {
+                    out.printil("out.write(" + JSP_RUNTIME_LIBRARY + ".toString("
+                                    + "((("
+                                    + beanName
+                                    + ")_jspx_page_context.findAttribute("
+                                    + "\""
+                                    + name + "\"))." + methodName + "())));");
+                }
             } else if (!STRICT_GET_PROPERTY || varInfoNames.contains(name)) {
                 // The object is a custom action with an associated
                 // VariableInfo entry for this name.
@@ -1881,6 +2012,15 @@ class Generator {
 
         @Override
         public void visit(Node.TemplateText n) throws JasperException {
+            generateTemplateText(n);
+            if (n == flushEarlyText && methodNesting == 0) {
+                // Let the browser fetch the resources of the head while the
+                // body renders
+                out.printil(JSP_RUNTIME_LIBRARY + ".flushEarly(out, response);");
+            }
+        }
+
+        private void generateTemplateText(Node.TemplateText n) throws JasperException {
 
             String text = n.getText();
 
@@ -1907,8 +2047,9 @@ class Generator {
                 return;
             }
 
-            if (ctxt.getOptions().genStringAsCharArray()) {
-                // Generate Strings as char arrays, for performance
+            if (textCharset != null || ctxt.getOptions().genStringAsCharArray()) {
+                // Generate Strings as pre-encoded byte arrays or char arrays,
+                // for performance
                 ServletWriter caOut;
                 if (charArrayBuffer == null) {
                     charArrayBuffer = new GenBuffer();
@@ -1933,6 +2074,17 @@ class Generator {
                     String output = text.substring(textIndex, textIndex + len);
                     String charArrayName = textMap.get(output);
                 if (charArrayName == null) {
+                    if (textCharset != null) {
+                        charArrayName = "_jspx_text_" + charArrayCount++;
+                        textMap.put(output, charArrayName);
+                        caOut.printin("static final " + PRE_ENCODED_TEXT + " ");
+                        caOut.print(charArrayName);
+                        caOut.print(" = new " + PRE_ENCODED_TEXT + "(");
+                        caOut.print(quote(output));
+                        caOut.print(", ");
+                        caOut.print(quote(textCharset));
+                        caOut.println(");");
+                    } else {
                     charArrayName = "_jspx_char_array_" + charArrayCount++;
                         textMap.put(output, charArrayName);
                     caOut.printin("static char[] ");
@@ -1940,10 +2092,15 @@ class Generator {
                     caOut.print(" = ");
                         caOut.print(quote(output));
                     caOut.println(".toCharArray();");
+                    }
                 }
 
                 n.setBeginJavaLine(out.getJavaLine());
-                out.printil("out.write(" + charArrayName + ");");
+                if (textCharset != null) {
+                    out.printil(JSP_RUNTIME_LIBRARY + ".write(out, " + charArrayName + ");");
+                } else {
+                    out.printil("out.write(" + charArrayName + ");");
+                }
                 n.setEndJavaLine(out.getJavaLine());
 
                     textIndex = textIndex + len;
@@ -2905,8 +3062,8 @@ class Generator {
                     // run attrValue through the expression interpreter
                     String mapName = (attr.getEL() != null) ? attr.getEL()
                             .getMapName() : null;
-                    attrValue = elInterpreter.interpreterCall(ctxt,
-                            this.isTagFile, attrValue, c[0], mapName);
+                    attrValue = interpreterCall(this.isTagFile, attrValue,
+                            c[0], mapName);
                 }
             } else {
                 attrValue = convertString(c[0], attrValue, localName,
@@ -3302,11 +3459,73 @@ class Generator {
             out.printMultiLn(charArrayBuffer.toString());
         }
 
+        // Append expression declarations
+        if (expressionBuffer != null) {
+            out.printMultiLn(expressionBuffer.toString());
+        }
+
         // Close the class definition
         out.popIndent();
         out.printil("}");
     }
 
+    /**
+     * Produces a String representing a call to the EL interpreter. With the
+     * default and the compiling interpreters, each distinct expression is
+     * declared once as a static field of the generated class, holding the
+     * parsed expression and its compiled code.
+     */
+    private String interpreterCall(boolean isTagFile, String expression,
+            Class<?> expectedType, String fnmapvar) {
+        String compiled = null;
+        if (elInterpreter.getClass() == CompilingELInterpreter.class) {
+            compiled = ((CompilingELInterpreter) elInterpreter).compile(ctxt,
+                    expression, expectedType);
+        } else if (elInterpreter.getClass() != ELInterpreterFactory.DefaultELInterpreter.class) {
+            return elInterpreter.interpreterCall(ctxt, isTagFile, expression,
+                    expectedType, fnmapvar);
+        }
+        String targetType = JspUtil.toJavaSourceType(expectedType.getCanonicalName());
+        String key = expression + '\u0000' + targetType + '\u0000' + fnmapvar;
+        String expressionName = expressionNames.get(key);
+        if (expressionName == null) {
+            expressionName = "_jspx_el_" + expressionNames.size();
+            expressionNames.put(key, expressionName);
+            ServletWriter elOut;
+            if (expressionBuffer == null) {
+                expressionBuffer = new GenBuffer();
+                elOut = expressionBuffer.getOut();
+                elOut.pushIndent();
+            } else {
+                elOut = expressionBuffer.getOut();
+            }
+            elOut.printin("private static final " + CACHED_VALUE_EXPRESSION + " ");
+            elOut.print(expressionName);
+            elOut.print(" = new " + CACHED_VALUE_EXPRESSION + "(");
+            elOut.print(quote(expression));
+            elOut.print(", ");
+            elOut.print(targetType);
+            elOut.print(".class, ");
+            elOut.print(fnmapvar);
+            if (compiled == null) {
+                elOut.println(");");
+            } else {
+                elOut.println(",");
+                elOut.pushIndent();
+                elOut.pushIndent();
+                String[] lines = compiled.split("\n");
+                for (int i = 0; i < lines.length - 1; i++) {
+                    elOut.printil(lines[i]);
+                }
+                elOut.printil(lines[lines.length - 1] + ");");
+                elOut.popIndent();
+                elOut.popIndent();
+            }
+        }
+        return JspUtil.cachedInterpreterCall(isTagFile, expressionName,
+                expectedType);
+    }
+
     /**
      * Generates the ending part of the static portion of the servlet.
      */
@@ -3359,6 +3578,8 @@ class Generator {
         this.out = out;
         methodsBuffered = new ArrayList<>();
         charArrayBuffer = null;
+        expressionBuffer = null;
+        expressionNames = new HashMap<>();
         err = compiler.getErrorDispatcher();
         ctxt = compiler.getCompilationContext();
         fragmentHelperClass = new FragmentHelperClass("Helper");
@@ -3393,11 +3614,47 @@ class Generator {
         breakAtLF = ctxt.getOptions().getMappedFile();
         if (isPoolingEnabled) {
             tagHandlerPoolNames = new Vector<>();
+            tagHandlerPoolKeys = new HashMap<>();
         } else {
             tagHandlerPoolNames = null;
+            tagHandlerPoolKeys = null;
         }
         timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
         timestampFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        textCharset = getTextCharset();
+    }
+
+    /**
+     * Determines the charset template text is to be pre-encoded with. This
+     * is only possible for pages when pre-encoding is enabled and the content
+     * type of the page fixes a supported charset.
+     *
+     * @return the charset name, or null if template text is not to be
+     *         pre-encoded
+     */
+    private String getTextCharset() {
+        if (!ctxt.getOptions().genStringAsByteArray() || ctxt.isTagFile()) {
+            return null;
+        }
+        String cType = pageInfo.getContentType();
+        int index = (cType == null) ? -1 : cType.indexOf("charset=");
+        if (index < 0) {
+            return null;
+        }
+        String charset = cType.substring(index + 8);
+        index = charset.indexOf(';');
+        if (index >= 0) {
+            charset = charset.substring(0, index);
+        }
+        charset = charset.trim();
+        if (charset.length() > 1 && charset.startsWith("\"") && charset.endsWith("\"")) {
+            charset = charset.substring(1, charset.length() - 1);
+        }
+        try {
+            return Charset.isSupported(charset) ? charset : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     /**
@@ -3433,6 +3690,9 @@ class Generator {
                     gen.methodsBuffered, gen.fragmentHelperClass));
             gen.generateTagHandlerPostamble(tagInfo);
         } else {
+            if (gen.pageInfo.isFlushEarly()) {
+                gen.findFlushEarlyText(page);
+            }
             gen.generatePreamble(page);
             gen.generateXmlProlog(page);
             gen.fragmentHelperClass.generatePreamble();
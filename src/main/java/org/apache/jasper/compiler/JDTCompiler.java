@@ -20,24 +20,24 @@ import static org.apache.jasper.JasperMessages.MESSAGES;
 
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.StringTokenizer;
 
 import org.apache.jasper.JasperException;
 import org.apache.jasper.JasperLogger;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.internal.compiler.ClassFile;
 import org.eclipse.jdt.internal.compiler.CompilationResult;
@@ -66,6 +66,12 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
 
     private final JasperLogger log = JasperLogger.COMPILER_LOGGER; // must not be static
 
+    /**
+     * The result of the compilation of the page in a batch, see
+     * {@link #generateClasses(List)}.
+     */
+    private Unit compiled;
+
     /**
      * Compile the servlet from .java file to .class file
      */
@@ -78,79 +84,225 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
             t1 = System.currentTimeMillis();
         }
 
-        final String sourceFile = ctxt.getServletJavaFileName();
-        final String outputDir = ctxt.getOptions().getScratchDir().getAbsolutePath();
-        String packageName = ctxt.getServletPackageName();
-        final String targetClassName =
+        Unit unit = compiled;
+        compiled = null;
+        if (unit == null) {
+            unit = new Unit();
+            compile(Collections.singletonList(unit));
+        }
+
+        if (!ctxt.keepGenerated() && javaSource == null) {
+            File javaFile = new File(ctxt.getServletJavaFileName());
+            if (!javaFile.delete()) {
+                JasperLogger.COMPILER_LOGGER.failedToDeleteGeneratedFile(javaFile);
+                throw new JasperException(MESSAGES.errorCannotDeleteFile(javaFile.getAbsolutePath()));
+            }
+        }
+
+        if (!unit.problemList.isEmpty()) {
+            JavacErrorDetail[] jeds =
+                unit.problemList.toArray(new JavacErrorDetail[0]);
+            errDispatcher.javacError(jeds);
+        }
+        
+        if( JasperLogger.COMPILER_LOGGER.isDebugEnabled() ) {
+            long t2=System.currentTimeMillis();
+            JasperLogger.COMPILER_LOGGER.debug("Compiled " + ctxt.getServletJavaFileName() + " "
+                      + (t2-t1) + "ms");
+        }
+
+        Map<String,byte[]> classes = unit.classes;
+        if (ctxt.isPrototypeMode()) {
+            if (classes != null) {
+                ctxt.getRuntimeContext().getCompiledClasses().putAll(classes);
+            }
+            return;
+        }
+
+        // JSR45 Support
+        if (classes != null) {
+            if (! options.isSmapSuppressed()) {
+                SmapUtil.installSmap(smap, unit.packageName, classes);
+            }
+            ctxt.getRuntimeContext().getCompiledClasses().putAll(classes);
+        } else if (! options.isSmapSuppressed()) {
+            SmapUtil.installSmap(smap);
+        }
+    }
+
+    /**
+     * Compiles the sources generated for several pages in a single
+     * invocation of the JDT compiler, which then resolves the classes
+     * they use once. The classes and errors of each page are handed over
+     * to {@link #generateClass(String[])} when its compilation completes.
+     * The pages are compiled with the options of the first one.
+     *
+     * @param compilers The compilers of the pages, those that are not JDT
+     *            compilers compile their page on their own
+     */
+    static void generateClasses(
+            List<? extends org.apache.jasper.compiler.Compiler> compilers) {
+        List<Unit> units = new ArrayList<>();
+        for (org.apache.jasper.compiler.Compiler compiler : compilers) {
+            if (compiler instanceof JDTCompiler) {
+                JDTCompiler jdt = (JDTCompiler) compiler;
+                jdt.compiled = jdt.new Unit();
+                units.add(jdt.compiled);
+            }
+        }
+        if (units.isEmpty()) {
+            return;
+        }
+        try {
+            units.get(0).getCompiler().compile(units);
+        } catch (RuntimeException e) {
+            // Each page is compiled again on its own, to report its error
+            for (Unit unit : units) {
+                unit.getCompiler().compiled = null;
+            }
+        }
+    }
+
+    /*
+     * A page to compile, collecting its classes and errors.
+     */
+    private class Unit implements ICompilationUnit {
+
+        private final String sourceFile = ctxt.getServletJavaFileName();
+        private final String packageName = ctxt.getServletPackageName();
+        private final String className =
             ((packageName.length() != 0) ? (packageName + ".") : "")
                     + ctxt.getServletClassName();
-        final ClassLoader classLoader = ctxt.getJspLoader();
-        String[] fileNames = new String[] {sourceFile};
-        String[] classNames = new String[] {targetClassName};
-        final ArrayList<JavacErrorDetail> problemList = new ArrayList<>();
+        private final ArrayList<JavacErrorDetail> problemList = new ArrayList<>();
+        // The class files compiled in memory, keyed by class name
+        private final Map<String,byte[]> classes =
+            options.isInMemoryCompilation() ? new HashMap<>() : null;
 
-        class CompilationUnit implements ICompilationUnit {
+        JDTCompiler getCompiler() {
+            return JDTCompiler.this;
+        }
 
-            private final String className;
-            private final String sourceFile;
+        @Override
+        public char[] getFileName() {
+            return sourceFile.toCharArray();
+        }
 
-            CompilationUnit(String sourceFile, String className) {
-                this.className = className;
-                this.sourceFile = sourceFile;
+        @Override
+        public char[] getContents() {
+            if (javaSource != null) {
+                return javaSource;
             }
-
-            @Override
-            public char[] getFileName() {
-                return sourceFile.toCharArray();
+            char[] result = null;
+            try (FileInputStream is = new FileInputStream(sourceFile);
+                    InputStreamReader isr = new InputStreamReader(
+                            is, ctxt.getOptions().getJavaEncoding());
+                    Reader reader = new BufferedReader(isr)) {
+                    char[] chars = new char[8192];
+                    StringBuilder buf = new StringBuilder();
+                    int count;
+                while ((count = reader.read(chars, 0,
+                                                chars.length)) > 0) {
+                        buf.append(chars, 0, count);
+                    }
+                    result = new char[buf.length()];
+                    buf.getChars(0, result.length, result, 0);
+            } catch (IOException e) {
+                JasperLogger.COMPILER_LOGGER.errorReadingSourceFile(sourceFile, e);
             }
+            return result;
+        }
 
-            @Override
-            public char[] getContents() {
-                char[] result = null;
-                try (FileInputStream is = new FileInputStream(sourceFile);
-                        InputStreamReader isr = new InputStreamReader(
-                                is, ctxt.getOptions().getJavaEncoding());
-                        Reader reader = new BufferedReader(isr)) {
-                        char[] chars = new char[8192];
-                        StringBuilder buf = new StringBuilder();
-                        int count;
-                    while ((count = reader.read(chars, 0,
-                                                    chars.length)) > 0) {
-                            buf.append(chars, 0, count);
-                        }
-                        result = new char[buf.length()];
-                        buf.getChars(0, result.length, result, 0);
-                } catch (IOException e) {
-                    JasperLogger.COMPILER_LOGGER.errorReadingSourceFile(sourceFile, e);
-                }
-                return result;
+        @Override
+        public char[] getMainTypeName() {
+            int dot = className.lastIndexOf('.');
+            if (dot > 0) {
+                return className.substring(dot + 1).toCharArray();
             }
+            return className.toCharArray();
+        }
 
-            @Override
-            public char[] getMainTypeName() {
-                int dot = className.lastIndexOf('.');
-                if (dot > 0) {
-                    return className.substring(dot + 1).toCharArray();
-                }
-                return className.toCharArray();
+        @Override
+        public char[][] getPackageName() {
+            StringTokenizer izer =
+                new StringTokenizer(className, ".");
+            char[][] result = new char[izer.countTokens()-1][];
+            for (int i = 0; i < result.length; i++) {
+                String tok = izer.nextToken();
+                result[i] = tok.toCharArray();
             }
+            return result;
+        }
+
+        @Override
+        public boolean ignoreOptionalProblems() {
+            return false;
+        }
 
-            @Override
-            public char[][] getPackageName() {
-                StringTokenizer izer =
-                    new StringTokenizer(className, ".");
-                char[][] result = new char[izer.countTokens()-1][];
-                for (int i = 0; i < result.length; i++) {
-                    String tok = izer.nextToken();
-                    result[i] = tok.toCharArray();
+        void acceptResult(CompilationResult result) {
+            final String outputDir = ctxt.getOptions().getScratchDir().getAbsolutePath();
+            try {
+                if (result.hasProblems()) {
+                    IProblem[] problems = result.getProblems();
+                    for (int i = 0; i < problems.length; i++) {
+                        IProblem problem = problems[i];
+                        if (problem.isError()) {
+                            String name =
+                                new String(problems[i].getOriginatingFileName());
+                            try {
+                                problemList.add(ErrorDispatcher.createJavacError
+                                        (name, pageNodes, new StringBuilder(problem.getMessage()),
+                                                problem.getSourceLineNumber(), ctxt));
+                            } catch (JasperException e) {
+                                log.error("Error visiting node", e);
+                            }
+                        }
+                    }
                 }
-                return result;
+                if (problemList.isEmpty()) {
+                    ClassFile[] classFiles = result.getClassFiles();
+                    for (int i = 0; i < classFiles.length; i++) {
+                        ClassFile classFile = classFiles[i];
+                        char[][] compoundName =
+                            classFile.getCompoundName();
+                        if (classes != null) {
+                            classes.put(new String(CharOperation.concatWith(compoundName, '.')),
+                                    classFile.getBytes());
+                            continue;
+                        }
+                        StringBuilder classFileName = new StringBuilder(outputDir).append('/');
+                        for (int j = 0;
+                             j < compoundName.length; j++) {
+                            if(j > 0)
+                                classFileName.append('/');
+                            classFileName.append(compoundName[j]);
+                        }
+                        byte[] bytes = classFile.getBytes();
+                        classFileName.append(".class");
+                        FileOutputStream fout =
+                            new FileOutputStream(classFileName.toString());
+                        BufferedOutputStream bos =
+                            new BufferedOutputStream(fout);
+                        bos.write(bytes);
+                        bos.close();
+                    }
+                }
+            } catch (IOException exc) {
+                JasperLogger.COMPILER_LOGGER.errorCompiling(exc);
             }
+        }
+    }
 
-            @Override
-            public boolean ignoreOptionalProblems() {
-                return false;
-            }
+    /*
+     * Compiles the pages, looking up the classes they use in the class
+     * loader of this page.
+     */
+    private void compile(List<Unit> units) {
+        final ClassLoader classLoader = ctxt.getJspLoader();
+        final ClassLookupCache lookupCache =
+            ctxt.getRuntimeContext().getClassLookupCache(ctxt.getClassLoader());
+        final Map<String,Unit> targets = new HashMap<>();
+        for (Unit unit : units) {
+            targets.put(unit.className, unit);
         }
 
         final INameEnvironment env = new INameEnvironment() {
@@ -186,60 +338,27 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
 
                 private NameEnvironmentAnswer findType(String className) {
 
-                        if (className.equals(targetClassName)) {
-                        ICompilationUnit compilationUnit =
-                                new CompilationUnit(sourceFile, className);
+                        Unit unit = targets.get(className);
+                        if (unit != null) {
                         return
-                                new NameEnvironmentAnswer(compilationUnit, null);
+                                new NameEnvironmentAnswer(unit, null);
                         }
 
-                    String resourceName =
-                            className.replace('.', '/') + ".class";
-
-                    try (InputStream is = classLoader.getResourceAsStream(resourceName)) {
-                        if (is != null) {
-                            byte[] classBytes;
-                            byte[] buf = new byte[8192];
-                            ByteArrayOutputStream baos =
-                                new ByteArrayOutputStream(buf.length);
-                            int count;
-                            while ((count = is.read(buf, 0, buf.length)) > 0) {
-                                baos.write(buf, 0, count);
-                            }
-                            baos.flush();
-                            classBytes = baos.toByteArray();
-                            char[] fileName = className.toCharArray();
-                            ClassFileReader classFileReader =
-                                new ClassFileReader(classBytes, fileName,
-                                                    true);
-                            return
-                                new NameEnvironmentAnswer(classFileReader, null);
-                        }
-                    } catch (IOException exc) {
-                        JasperLogger.COMPILER_LOGGER.errorReadingClassFile(className, exc);
-                    } catch (org.eclipse.jdt.internal.compiler.classfmt.ClassFormatException exc) {
-                        JasperLogger.COMPILER_LOGGER.errorReadingClassFile(className, exc);
+                    ClassFileReader classFileReader =
+                        lookupCache.findType(classLoader, className);
+                    if (classFileReader != null) {
+                        return
+                            new NameEnvironmentAnswer(classFileReader, null);
                     }
                     return null;
                 }
 
                 private boolean isPackage(String result) {
-                    if (result.equals(targetClassName) || result.startsWith(targetClassName + '$')) {
-                        return false;
-                    }
-                    String packageName = result.replace('.', '/');
-                    URL resourceUrl = classLoader.getResource(packageName);
-                    if(resourceUrl != null) {
-                        return true;
-                    }
-                    String resourceName = packageName + ".class";
-                    try (InputStream is =
-                        classLoader.getResourceAsStream(resourceName)) {
-                    return is == null;
-                    } catch (IOException e) {
-                        // we are here, since close on is failed. That means it was not null
+                    int nested = result.indexOf('$');
+                    if (targets.containsKey(nested < 0 ? result : result.substring(0, nested))) {
                         return false;
                     }
+                    return lookupCache.isPackage(classLoader, result);
                 }
 
                 @Override
@@ -412,59 +531,10 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
         final ICompilerRequestor requestor = new ICompilerRequestor() {
                 @Override
                 public void acceptResult(CompilationResult result) {
-                    try {
-                        if (result.hasProblems()) {
-                            IProblem[] problems = result.getProblems();
-                            for (int i = 0; i < problems.length; i++) {
-                                IProblem problem = problems[i];
-                                if (problem.isError()) {
-                                    String name =
-                                        new String(problems[i].getOriginatingFileName());
-                                    try {
-                                        problemList.add(ErrorDispatcher.createJavacError
-                                                (name, pageNodes, new StringBuilder(problem.getMessage()),
-                                                        problem.getSourceLineNumber(), ctxt));
-                                    } catch (JasperException e) {
-                                        log.error("Error visiting node", e);
-                                    }
-                                }
-                            }
-                        }
-                        if (problemList.isEmpty()) {
-                            ClassFile[] classFiles = result.getClassFiles();
-                            for (int i = 0; i < classFiles.length; i++) {
-                                ClassFile classFile = classFiles[i];
-                                char[][] compoundName =
-                                    classFile.getCompoundName();
-                                StringBuilder classFileName = new StringBuilder(outputDir).append('/');
-                                for (int j = 0;
-                                     j < compoundName.length; j++) {
-                                    if(j > 0)
-                                        classFileName.append('/');
-                                    classFileName.append(compoundName[j]);
-                                }
-                                byte[] bytes = classFile.getBytes();
-                                classFileName.append(".class");
-                                FileOutputStream fout =
-                                    new FileOutputStream(classFileName.toString());
-                                BufferedOutputStream bos =
-                                    new BufferedOutputStream(fout);
-                                bos.write(bytes);
-                                bos.close();
-                            }
-                        }
-                    } catch (IOException exc) {
-                        JasperLogger.COMPILER_LOGGER.errorCompiling(exc);
-                    }
+                    ((Unit) result.getCompilationUnit()).acceptResult(result);
                 }
             };
 
-        ICompilationUnit[] compilationUnits =
-            new ICompilationUnit[classNames.length];
-        for (int i = 0; i < compilationUnits.length; i++) {
-            String className = classNames[i];
-            compilationUnits[i] = new CompilationUnit(fileNames[i], className);
-        }
         CompilerOptions cOptions = new CompilerOptions(settings);
 
         // Check source/target JDK versions as the newest versions are allowed
@@ -491,35 +561,6 @@ public class JDTCompiler extends org.apache.jasper.compiler.Compiler {
                                          cOptions,
                                          requestor,
                                          problemFactory);
-        compiler.compile(compilationUnits);
-
-        if (!ctxt.keepGenerated()) {
-            File javaFile = new File(ctxt.getServletJavaFileName());
-            if (!javaFile.delete()) {
-                JasperLogger.COMPILER_LOGGER.failedToDeleteGeneratedFile(javaFile);
-                throw new JasperException(MESSAGES.errorCannotDeleteFile(javaFile.getAbsolutePath()));
-            }
-        }
-
-        if (!problemList.isEmpty()) {
-            JavacErrorDetail[] jeds =
-                problemList.toArray(new JavacErrorDetail[0]);
-            errDispatcher.javacError(jeds);
-        }
-        
-        if( JasperLogger.COMPILER_LOGGER.isDebugEnabled() ) {
-            long t2=System.currentTimeMillis();
-            JasperLogger.COMPILER_LOGGER.debug("Compiled " + ctxt.getServletJavaFileName() + " "
-                      + (t2-t1) + "ms");
-        }
-
-        if (ctxt.isPrototypeMode()) {
-            return;
-        }
-
-        // JSR45 Support
-        if (! options.isSmapSuppressed()) {
-            SmapUtil.installSmap(smap);
-        }
+        compiler.compile(units.toArray(new ICompilationUnit[0]));
     }
 }
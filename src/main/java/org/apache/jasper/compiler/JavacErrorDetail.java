@@ -20,10 +20,12 @@ package org.apache.jasper.compiler;
 import static org.apache.jasper.JasperMessages.MESSAGES;
 
 import java.io.BufferedReader;
+import java.io.CharArrayReader;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -91,8 +93,8 @@ public class JavacErrorDetail {
                 // Read both files in, so we can inspect them
                 String[] jspLines = readFile(is);
 
-                try (FileInputStream fis = new FileInputStream(ctxt.getServletJavaFileName())) {
-                String[] javaLines = readFile(fis);
+                try (Reader javaReader = openJavaSource(ctxt)) {
+                String[] javaLines = readFile(javaReader);
 
                 if (jspLines.length < jspBeginLineNum) {
                     // Avoid ArrayIndexOutOfBoundsException
@@ -196,12 +198,30 @@ public class JavacErrorDetail {
         return this.jspExtract;
     }
 
+    /**
+     * Opens the generated Java source, which is only in memory when the page
+     * is compiled in memory.
+     */
+    private static Reader openJavaSource(JspCompilationContext ctxt)
+            throws IOException {
+        Compiler compiler = ctxt.getCompiler();
+        if (compiler != null && compiler.getJavaSource() != null) {
+            return new CharArrayReader(compiler.getJavaSource());
+        }
+        return new InputStreamReader(
+                new FileInputStream(ctxt.getServletJavaFileName()));
+    }
+
     /**
      * Reads a text file from an input stream into a String[]. Used to read in
      * the JSP and generated Java file when generating error messages.
      */
     private String[] readFile(InputStream s) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(s));
+        return readFile(new InputStreamReader(s));
+    }
+
+    private String[] readFile(Reader r) throws IOException {
+        BufferedReader reader = new BufferedReader(r);
         List<String> lines = new ArrayList<>();
         String line;
 
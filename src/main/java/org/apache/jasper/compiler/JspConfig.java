@@ -104,7 +104,10 @@ public class JspConfig {
                     jspPropertyGroup.getTrimDirectiveWhitespaces(),
                     jspPropertyGroup.getDefaultContentType(),
                     jspPropertyGroup.getBuffer(),
-                    jspPropertyGroup.getErrorOnUndeclaredNamespace());
+                    jspPropertyGroup.getErrorOnUndeclaredNamespace(),
+                    getAsyncOutput(jspPropertyGroup),
+                    getStrictFlush(jspPropertyGroup),
+                    getFlushEarly(jspPropertyGroup));
 
             // Add one JspPropertyGroup for each URL Pattern.  This makes
             // the matching logic easier.
@@ -152,6 +155,31 @@ public class JspConfig {
         }
     }
 
+    /*
+     * Not part of the jsp-property-group of the specification, only groups
+     * set up through the deployment API can carry these.
+     */
+    private static String getAsyncOutput(JspPropertyGroupDescriptor jspPropertyGroup) {
+        if (jspPropertyGroup instanceof org.apache.jasper.deploy.JspPropertyGroup) {
+            return ((org.apache.jasper.deploy.JspPropertyGroup) jspPropertyGroup).getAsyncOutput();
+        }
+        return null;
+    }
+
+    private static String getStrictFlush(JspPropertyGroupDescriptor jspPropertyGroup) {
+        if (jspPropertyGroup instanceof org.apache.jasper.deploy.JspPropertyGroup) {
+            return ((org.apache.jasper.deploy.JspPropertyGroup) jspPropertyGroup).getStrictFlush();
+        }
+        return null;
+    }
+
+    private static String getFlushEarly(JspPropertyGroupDescriptor jspPropertyGroup) {
+        if (jspPropertyGroup instanceof org.apache.jasper.deploy.JspPropertyGroup) {
+            return ((org.apache.jasper.deploy.JspPropertyGroup) jspPropertyGroup).getFlushEarly();
+        }
+        return null;
+    }
+
     private void init() {
 
         if (!initialized) {
@@ -250,6 +278,9 @@ public class JspConfig {
         JspPropertyGroup defaultContentTypeMatch = null;
         JspPropertyGroup bufferMatch = null;
         JspPropertyGroup errorOnUndeclaredNamespaceMatch = null;
+        JspPropertyGroup asyncOutputMatch = null;
+        JspPropertyGroup strictFlushMatch = null;
+        JspPropertyGroup flushEarlyMatch = null;
 
         Iterator<JspPropertyGroup> iter = jspProperties.iterator();
         while (iter.hasNext()) {
@@ -326,6 +357,15 @@ public class JspConfig {
                 errorOnUndeclaredNamespaceMatch =
                     selectProperty(errorOnUndeclaredNamespaceMatch, jpg);
             }
+            if (jp.getAsyncOutput() != null) {
+                asyncOutputMatch = selectProperty(asyncOutputMatch, jpg);
+            }
+            if (jp.getStrictFlush() != null) {
+                strictFlushMatch = selectProperty(strictFlushMatch, jpg);
+            }
+            if (jp.getFlushEarly() != null) {
+                flushEarlyMatch = selectProperty(flushEarlyMatch, jpg);
+            }
         }
 
 
@@ -340,6 +380,9 @@ public class JspConfig {
         String defaultContentType = defaultDefaultContentType;
         String buffer = defaultBuffer;
         String errorOnUndelcaredNamespace = defaultErrorOnUndeclaredNamespace;
+        String asyncOutput = null;
+        String strictFlush = null;
+        String flushEarly = null;
 
         if (isXmlMatch != null) {
             isXml = isXmlMatch.getJspProperty().isXml();
@@ -376,11 +419,21 @@ public class JspConfig {
             errorOnUndelcaredNamespace =
                 errorOnUndeclaredNamespaceMatch.getJspProperty().isErrorOnUndeclaredNamespace();
         }
+        if (asyncOutputMatch != null) {
+            asyncOutput = asyncOutputMatch.getJspProperty().getAsyncOutput();
+        }
+        if (strictFlushMatch != null) {
+            strictFlush = strictFlushMatch.getJspProperty().getStrictFlush();
+        }
+        if (flushEarlyMatch != null) {
+            flushEarly = flushEarlyMatch.getJspProperty().getFlushEarly();
+        }
 
         return new JspProperty(isXml, isELIgnored, errorOnELNotFound, isScriptingInvalid,
                 pageEncoding, includePreludes, includeCodas,
                 isDeferedSyntaxAllowedAsLiteral, isTrimDirectiveWhitespaces,
-                defaultContentType, buffer, errorOnUndelcaredNamespace);
+                defaultContentType, buffer, errorOnUndelcaredNamespace,
+                asyncOutput, strictFlush, flushEarly);
     }
 
     /**
@@ -468,6 +521,9 @@ public class JspConfig {
         private final String defaultContentType;
         private final String buffer;
         private final String errorOnUndeclaredNamespace;
+        private final String asyncOutput;
+        private final String strictFlush;
+        private final String flushEarly;
 
         public JspProperty(String isXml, String elIgnored, String errorOnELNotFound,
                 String scriptingInvalid, String pageEncoding,
@@ -477,6 +533,24 @@ public class JspConfig {
                 String defaultContentType,
                 String buffer,
                 String errorOnUndeclaredNamespace) {
+            this(isXml, elIgnored, errorOnELNotFound, scriptingInvalid,
+                    pageEncoding, includePrelude, includeCoda,
+                    deferedSyntaxAllowedAsLiteral, trimDirectiveWhitespaces,
+                    defaultContentType, buffer, errorOnUndeclaredNamespace,
+                    null, null, null);
+        }
+
+        public JspProperty(String isXml, String elIgnored, String errorOnELNotFound,
+                String scriptingInvalid, String pageEncoding,
+                Collection<String> includePrelude, Collection<String> includeCoda,
+                String deferedSyntaxAllowedAsLiteral,
+                String trimDirectiveWhitespaces,
+                String defaultContentType,
+                String buffer,
+                String errorOnUndeclaredNamespace,
+                String asyncOutput,
+                String strictFlush,
+                String flushEarly) {
 
             this.isXml = isXml;
             this.elIgnored = elIgnored;
@@ -490,6 +564,9 @@ public class JspConfig {
             this.defaultContentType = defaultContentType;
             this.buffer = buffer;
             this.errorOnUndeclaredNamespace = errorOnUndeclaredNamespace;
+            this.asyncOutput = asyncOutput;
+            this.strictFlush = strictFlush;
+            this.flushEarly = flushEarly;
         }
 
         public String isXml() {
@@ -539,5 +616,17 @@ public class JspConfig {
         public String isErrorOnUndeclaredNamespace() {
             return errorOnUndeclaredNamespace;
         }
+
+        public String getAsyncOutput() {
+            return asyncOutput;
+        }
+
+        public String getStrictFlush() {
+            return strictFlush;
+        }
+
+        public String getFlushEarly() {
+            return flushEarly;
+        }
     }
 }
@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FilePermission;
 import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLDecoder;
@@ -31,20 +32,30 @@ import java.security.Permission;
 import java.security.PermissionCollection;
 import java.security.Policy;
 import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import jakarta.servlet.ServletConfig;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.jsp.JspFactory;
 
 import org.apache.jasper.Constants;
+import org.apache.jasper.JasperException;
 import org.apache.jasper.JasperLogger;
 import org.apache.jasper.JspCompilationContext;
 import org.apache.jasper.Options;
 import org.apache.jasper.runtime.JspFactoryImpl;
+import org.apache.jasper.runtime.TagHandlerPoolRegistry;
 import org.apache.jasper.security.SecurityClassLoad;
 import org.apache.jasper.servlet.JspServletWrapper;
 import org.apache.jasper.util.ExceptionUtils;
@@ -166,6 +177,13 @@ public final class JspRuntimeContext {
 
         /* Init parameter is in seconds, locally we use milliseconds */
         jspIdleTimeout = options.getJspIdleTimeout() * 1000;
+
+        if (options.getCompilationCache() != null) {
+            compilationCache = new CompilationCache(
+                    options.getCompilationCache(), context, options);
+        } else {
+            compilationCache = null;
+        }
     }
 
     // ----------------------------------------------------- Instance Variables
@@ -195,6 +213,21 @@ public final class JspRuntimeContext {
      */
     private FastRemovalDequeue<JspServletWrapper> jspQueue = null;
 
+    /**
+     * The classes compiled in memory.
+     */
+    private final CompiledClasses compiledClasses = new CompiledClasses();
+
+    /**
+     * The cache of compiled pages shared with other deployments and nodes.
+     */
+    private final CompilationCache compilationCache;
+
+    /**
+     * The types and packages found by the compiler.
+     */
+    private volatile ClassLookupCache classLookupCache;
+
     // ------------------------------------------------------ Public Methods
 
     /**
@@ -304,6 +337,37 @@ public final class JspRuntimeContext {
         return permissionCollection;
     }
 
+    /**
+     * Get the classes of the pages and tag files compiled in memory.
+     *
+     * @return the classes compiled in memory
+     */
+    public CompiledClasses getCompiledClasses() {
+        return compiledClasses;
+    }
+
+    /**
+     * @return the cache of compiled pages, or <code>null</code> if there
+     *         is none
+     */
+    public CompilationCache getCompilationCache() {
+        return compilationCache;
+    }
+
+    /**
+     * @param loader The class loader the pages are compiled against
+     * @return the types and packages found by the compiler in the class
+     *         loader, which are forgotten if another one is used
+     */
+    ClassLookupCache getClassLookupCache(ClassLoader loader) {
+        ClassLookupCache cache = classLookupCache;
+        if (cache == null || cache.getClassLoader() != loader) {
+            cache = new ClassLookupCache(loader);
+            classLookupCache = cache;
+        }
+        return cache;
+    }
+
     /**
      * Process a "destroy" event for this web application context.
      */
@@ -314,6 +378,13 @@ public final class JspRuntimeContext {
         }
     }
 
+    /**
+     * Trim the tag handler pools of the pages of this web application.
+     */
+    public void trimTagHandlerPools() {
+        TagHandlerPoolRegistry.getInstance(context).trim();
+    }
+
     /**
      * Increments the JSP reload counter.
      */
@@ -400,6 +471,99 @@ public final class JspRuntimeContext {
 
     }
 
+    /**
+     * Compile pages in a batch, as done for all the pages of the web
+     * application when the JSP servlet starts. The pages are translated to
+     * Java on <code>parallelism</code> threads, then compiled by a single
+     * invocation of the Java compiler, which looks up the classes they
+     * use once for all of them. The tag files used by the pages are
+     * compiled on their own when the pages are translated. The pages that
+     * are up to date are left alone.
+     *
+     * @param config The configuration of the JSP servlet, given to the
+     *            pages
+     * @param jspUris The pages to compile
+     * @param parallelism The number of threads translating the pages
+     * @return the errors of the pages that failed, by page
+     */
+    public Map<String, Exception> compile(final ServletConfig config,
+            Collection<String> jspUris, int parallelism) {
+        final Map<String, Exception> failures = new ConcurrentSkipListMap<>();
+        final List<JspCompilationContext> translated =
+                Collections.synchronizedList(new ArrayList<JspCompilationContext>());
+        // The pages are translated as they would be on a request
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        for (final String jspUri : jspUris) {
+            pool.execute(() -> {
+                Thread thread = Thread.currentThread();
+                ClassLoader original = thread.getContextClassLoader();
+                thread.setContextClassLoader(loader);
+                try {
+                    JspCompilationContext ctxt =
+                            getOrCreateWrapper(config, jspUri).getJspEngineContext();
+                    if (ctxt.translate()) {
+                        translated.add(ctxt);
+                    }
+                } catch (Exception e) {
+                    failures.put(jspUri, e);
+                } catch (Throwable t) {
+                    ExceptionUtils.handleThrowable(t);
+                    failures.put(jspUri, new JasperException(t));
+                } finally {
+                    thread.setContextClassLoader(original);
+                }
+            });
+        }
+        pool.shutdown();
+        boolean interrupted = false;
+        while (!pool.isTerminated()) {
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                // The translated pages wait for their compilation
+                interrupted = true;
+            }
+        }
+
+        try {
+            List<Compiler> compilers = new ArrayList<>();
+            for (JspCompilationContext ctxt : translated) {
+                compilers.add(ctxt.getCompiler());
+            }
+            JDTCompiler.generateClasses(compilers);
+        } finally {
+            for (JspCompilationContext ctxt : translated) {
+                try {
+                    ctxt.completeCompilation();
+                } catch (Exception e) {
+                    failures.put(ctxt.getJspFile(), e);
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return failures;
+    }
+
+    private JspServletWrapper getOrCreateWrapper(ServletConfig config,
+            String jspUri) throws FileNotFoundException, MalformedURLException {
+        JspServletWrapper wrapper = jsps.get(jspUri);
+        if (wrapper == null) {
+            if (context.getResource(jspUri) == null) {
+                throw new FileNotFoundException(jspUri);
+            }
+            JspServletWrapper created =
+                    new JspServletWrapper(config, options, jspUri, this);
+            wrapper = jsps.putIfAbsent(jspUri, created);
+            if (wrapper == null) {
+                wrapper = created;
+            }
+        }
+        return wrapper;
+    }
+
     /**
      * The classpath that is passed off to the Java compiler.
      */
@@ -19,6 +19,7 @@ package org.apache.jasper.compiler;
 import static org.apache.jasper.JasperMessages.MESSAGES;
 import static org.apache.jasper.compiler.Constants.BOOLEAN;
 import static org.apache.jasper.compiler.Constants.BYTE;
+import static org.apache.jasper.compiler.Constants.CACHED_VALUE_EXPRESSION;
 import static org.apache.jasper.compiler.Constants.CHARACTER;
 import static org.apache.jasper.compiler.Constants.DOUBLE;
 import static org.apache.jasper.compiler.Constants.FLOAT;
@@ -351,83 +352,118 @@ public class JspUtil {
     public static String interpreterCall(boolean isTagFile, String expression,
             Class<?> expectedType, String fnmapvar) {
         /*
-         * Determine which context object to use.
+         * Build up the base call to the interpreter.
          */
-    String jspCtxt = null;
+        // The expression is parsed on each evaluation. Pages generated with
+        // the default interpreter call cachedInterpreterCall() instead, so
+        // that expressions are parsed once and cached in static fields.
+        String targetType = toJavaSourceType(expectedType.getCanonicalName());
+        return convertEvaluation(PAGE_CONTEXT_IMPL + ".proprietaryEvaluate"
+                + "(" + Generator.quote(expression) + ", " + targetType
+                + ".class, " + "(" + PAGE_CONTEXT + ")" + getJspContext(isTagFile)
+                + ", " + fnmapvar + ")", expectedType);
+    }
+
+    /**
+     * Produces a String representing the evaluation of an expression cached
+     * in a static field of the generated class.
+     *
+     * @param expressionVar
+     *            Variable pointing to the
+     *            {@link org.apache.jasper.runtime.CachedValueExpression}
+     * @param expectedType
+     *            the expected type of the interpreted result
+     * @return a String representing the evaluation of the expression.
+     */
+    public static String cachedInterpreterCall(boolean isTagFile,
+            String expressionVar, Class<?> expectedType) {
+        return convertEvaluation(expressionVar + ".getValue((" + PAGE_CONTEXT
+                + ")" + getJspContext(isTagFile) + ")", expectedType);
+    }
+
+    /**
+     * Produces a String representing the evaluation of an expression
+     * compiled to Java code, falling back to the EL interpreter.
+     *
+     * @param compiled
+     *            the source of the compiled expression, on one line
+     * @param expression
+     *            a String containing zero or more "${}" expressions
+     * @param expectedType
+     *            the expected type of the interpreted result
+     * @param fnmapvar
+     *            Variable pointing to a function map.
+     * @return a String representing the evaluation of the expression.
+     */
+    public static String compiledInterpreterCall(boolean isTagFile,
+            String compiled, String expression, Class<?> expectedType,
+            String fnmapvar) {
+        String targetType = toJavaSourceType(expectedType.getCanonicalName());
+        return convertEvaluation(CACHED_VALUE_EXPRESSION + ".evaluate("
+                + compiled + ", " + Generator.quote(expression) + ", "
+                + targetType + ".class, " + "(" + PAGE_CONTEXT + ")"
+                + getJspContext(isTagFile) + ", " + fnmapvar + ")", expectedType);
+    }
+
+    /*
+     * Determine which context object to use.
+     */
+    private static String getJspContext(boolean isTagFile) {
         if (isTagFile) {
-        jspCtxt = "this.getJspContext()";
+            return "this.getJspContext()";
         } else {
-        jspCtxt = "_jspx_page_context";
+            return "_jspx_page_context";
         }
+    }
 
-    /*
+    private static String convertEvaluation(String evaluation,
+            Class<?> expectedType) {
+        /*
          * Determine whether to use the expected type's textual name or, if it's
          * a primitive, the name of its correspondent boxed type.
          */
-    String returnType = expectedType.getCanonicalName();
-    String targetType = returnType;
-    String primitiveConverterMethod = null;
-    if (expectedType.isPrimitive()) {
-        if (expectedType.equals(Boolean.TYPE)) {
-            returnType = Boolean.class.getName();
-        primitiveConverterMethod = "booleanValue";
-        } else if (expectedType.equals(Byte.TYPE)) {
-            returnType = Byte.class.getName();
-        primitiveConverterMethod = "byteValue";
-        } else if (expectedType.equals(Character.TYPE)) {
-            returnType = Character.class.getName();
-        primitiveConverterMethod = "charValue";
-        } else if (expectedType.equals(Short.TYPE)) {
-            returnType = Short.class.getName();
-        primitiveConverterMethod = "shortValue";
-        } else if (expectedType.equals(Integer.TYPE)) {
-            returnType = Integer.class.getName();
-        primitiveConverterMethod = "intValue";
-        } else if (expectedType.equals(Long.TYPE)) {
-            returnType = Long.class.getName();
-        primitiveConverterMethod = "longValue";
-        } else if (expectedType.equals(Float.TYPE)) {
-            returnType = Float.class.getName();
-        primitiveConverterMethod = "floatValue";
+        String returnType = expectedType.getCanonicalName();
+        String primitiveConverterMethod = null;
+        if (expectedType.isPrimitive()) {
+            if (expectedType.equals(Boolean.TYPE)) {
+                returnType = Boolean.class.getName();
+                primitiveConverterMethod = "booleanValue";
+            } else if (expectedType.equals(Byte.TYPE)) {
+                returnType = Byte.class.getName();
+                primitiveConverterMethod = "byteValue";
+            } else if (expectedType.equals(Character.TYPE)) {
+                returnType = Character.class.getName();
+                primitiveConverterMethod = "charValue";
+            } else if (expectedType.equals(Short.TYPE)) {
+                returnType = Short.class.getName();
+                primitiveConverterMethod = "shortValue";
+            } else if (expectedType.equals(Integer.TYPE)) {
+                returnType = Integer.class.getName();
+                primitiveConverterMethod = "intValue";
+            } else if (expectedType.equals(Long.TYPE)) {
+                returnType = Long.class.getName();
+                primitiveConverterMethod = "longValue";
+            } else if (expectedType.equals(Float.TYPE)) {
+                returnType = Float.class.getName();
+                primitiveConverterMethod = "floatValue";
             } else if (expectedType.equals(Double.TYPE)) {
-            returnType = Double.class.getName();
-        primitiveConverterMethod = "doubleValue";
+                returnType = Double.class.getName();
+                primitiveConverterMethod = "doubleValue";
+            }
         }
-    }
 
-    /*
-         * Build up the base call to the interpreter.
-         */
-        // XXX - We use a proprietary call to the interpreter for now
-        // as the current standard machinery is inefficient and requires
-        // lots of wrappers and adapters.  This should all clear up once
-        // the EL interpreter moves out of JSTL and into its own project.
-        // In the future, this should be replaced by code that calls
-        // ExpressionEvaluator.parseExpression() and then cache the resulting
-        // expression objects.  The interpreterCall would simply select
-        // one of the pre-cached expressions and evaluate it.
-        // Note that PageContextImpl implements VariableResolver and
-        // the generated Servlet/SimpleTag implements FunctionMapper, so
-        // that machinery is already in place (mroth).
-    targetType = toJavaSourceType(targetType);
-    StringBuilder call = new StringBuilder(
-                "("
-                        + returnType
-                        + ") "
-               + PAGE_CONTEXT_IMPL + ".proprietaryEvaluate"
-                        + "(" + Generator.quote(expression) + ", " + targetType
-                        + ".class, " + "(" + PAGE_CONTEXT + ")" + jspCtxt + ", "
-                        + fnmapvar + ")");
+        StringBuilder call = new StringBuilder(
+                "(" + returnType + ") " + evaluation);
 
-    /*
+        /*
          * Add the primitive converter method if we need to.
          */
-    if (primitiveConverterMethod != null) {
-        call.insert(0, "(");
-        call.append(")." + primitiveConverterMethod + "()");
-    }
+        if (primitiveConverterMethod != null) {
+            call.insert(0, "(");
+            call.append(")." + primitiveConverterMethod + "()");
+        }
 
-    return call.toString();
+        return call.toString();
     }
 
     public static String coerceToPrimitiveBoolean(String s,
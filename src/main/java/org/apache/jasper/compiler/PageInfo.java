@@ -75,6 +75,7 @@ class PageInfo {
 
     private String isELIgnoredValue;
     private boolean isELIgnored = false;
+    private boolean flushEarly = false;
 
     // JSP 2.1
     private String deferredSyntaxAllowedAsLiteralValue;
@@ -764,4 +765,12 @@ class PageInfo {
             boolean errorOnUndeclaredNamespace) {
         this.errorOnUndeclaredNamepsace = errorOnUndeclaredNamespace;
     }
+
+    public boolean isFlushEarly() {
+        return flushEarly;
+    }
+
+    public void setFlushEarly(boolean flushEarly) {
+        this.flushEarly = flushEarly;
+    }
 }
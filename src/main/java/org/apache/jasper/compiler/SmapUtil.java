@@ -165,6 +165,33 @@ public class SmapUtil {
         }
     }
 
+    /**
+     * Install the SMAPs in class files compiled in memory.
+     *
+     * @param smap The SMAPs, keyed by class file name
+     * @param packageName The package of the classes
+     * @param classes The class files, keyed by class name
+     */
+    public static void installSmap(String[] smap, String packageName,
+            Map<String, byte[]> classes) throws IOException {
+        if (smap == null) {
+            return;
+        }
+
+        for (int i = 0; i < smap.length; i += 2) {
+            String className = unqualify(smap[i]);
+            className = className.substring(0, className.length() - ".class".length());
+            if (packageName.length() != 0) {
+                className = packageName + '.' + className;
+            }
+            byte[] bytes = classes.get(className);
+            if (bytes != null) {
+                classes.put(className, SDEInstaller.install(bytes,
+                        smap[i+1].getBytes(StandardCharsets.ISO_8859_1)));
+            }
+        }
+    }
+
     //*********************************************************************
     // Private utilities
 
@@ -206,6 +233,14 @@ public class SmapUtil {
             }
         }
 
+        static byte[] install(byte[] classBytes, byte[] smap) throws IOException {
+            SDEInstaller installer = new SDEInstaller(classBytes, smap);
+            installer.addSDE();
+            byte[] result = new byte[installer.genPos];
+            System.arraycopy(installer.gen, 0, result, 0, installer.genPos);
+            return result;
+        }
+
         SDEInstaller(File inClassFile, byte[] sdeAttr)
             throws IOException {
             if (!inClassFile.exists()) {
@@ -218,6 +253,12 @@ public class SmapUtil {
             gen = new byte[orig.length + sdeAttr.length + 100];
         }
 
+        SDEInstaller(byte[] classBytes, byte[] sdeAttr) {
+            this.sdeAttr = sdeAttr;
+            orig = classBytes;
+            gen = new byte[orig.length + sdeAttr.length + 100];
+        }
+
         void install(File outClassFile) throws IOException {
             // do it
             addSDE();
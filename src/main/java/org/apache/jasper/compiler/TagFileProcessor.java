@@ -23,8 +23,10 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.Vector;
 import jakarta.el.MethodExpression;
 import jakarta.el.ValueExpression;
@@ -53,6 +55,8 @@ class TagFileProcessor {
 
     private Vector<Compiler> tempVector;
 
+    private final Set<String> tagClassNames = new HashSet<>();
+
     /**
      * A visitor the tag file
      */
@@ -662,6 +666,7 @@ class TagFileProcessor {
                 Class<?> c = loadTagFile(compiler, tagFilePath, n.getTagInfo(),
                         pageInfo);
                 n.setTagHandlerClass(c);
+                tagClassNames.add(c.getName());
             }
             visitBody(n);
         }
@@ -680,6 +685,13 @@ class TagFileProcessor {
         page.visit(new TagFileLoaderVisitor(compiler));
     }
 
+    /**
+     * @return the names of the classes of the tag files used by the page
+     */
+    public Set<String> getTagClassNames() {
+        return tagClassNames;
+    }
+
     /**
      * Removed the java and class files for the tag prototype generated from the
      * current compilation.
@@ -39,7 +39,7 @@ import org.apache.jasper.compiler.tagplugin.TagPluginContext;
 
 public class TagPluginManager {
 
-    private static final String TAG_PLUGINS_XML = "/WEB-INF/tagPlugins.xml";
+    static final String TAG_PLUGINS_XML = "/WEB-INF/tagPlugins.xml";
     private static final String TAG_PLUGINS_ROOT_ELEM = "tag-plugins";
 
     private boolean initialized = false;
@@ -37,6 +37,9 @@ public class JspPropertyGroup implements Serializable, JspPropertyGroupDescripto
     protected String defaultContentType = null;
     protected String buffer = null;
     protected String errorOnUndeclaredNamespace = null;
+    protected String asyncOutput = null;
+    protected String strictFlush = null;
+    protected String flushEarly = null;
 
     public void addUrlPattern(String urlPattern) {
         urlPatterns.add(urlPattern);
@@ -109,6 +112,24 @@ public class JspPropertyGroup implements Serializable, JspPropertyGroupDescripto
     public void setErrorOnUndeclaredNamespace(String errorOnUndeclaredNamespace) {
         this.errorOnUndeclaredNamespace = errorOnUndeclaredNamespace;
     }
+    public String getAsyncOutput() {
+        return asyncOutput;
+    }
+    public void setAsyncOutput(String asyncOutput) {
+        this.asyncOutput = asyncOutput;
+    }
+    public String getStrictFlush() {
+        return strictFlush;
+    }
+    public void setStrictFlush(String strictFlush) {
+        this.strictFlush = strictFlush;
+    }
+    public String getFlushEarly() {
+        return flushEarly;
+    }
+    public void setFlushEarly(String flushEarly) {
+        this.flushEarly = flushEarly;
+    }
     public ArrayList<String> getUrlPatterns() {
         return urlPatterns;
     }
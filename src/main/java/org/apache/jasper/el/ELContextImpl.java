@@ -18,7 +18,9 @@ package org.apache.jasper.el;
 
 import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import jakarta.el.ArrayELResolver;
 import jakarta.el.BeanELResolver;
@@ -26,14 +28,18 @@ import jakarta.el.CompositeELResolver;
 import jakarta.el.ELContext;
 import jakarta.el.ELManager;
 import jakarta.el.ELResolver;
+import jakarta.el.EvaluationListener;
 import jakarta.el.ExpressionFactory;
 import jakarta.el.FunctionMapper;
+import jakarta.el.ImportHandler;
 import jakarta.el.ListELResolver;
 import jakarta.el.MapELResolver;
 import jakarta.el.ResourceBundleELResolver;
 import jakarta.el.StaticFieldELResolver;
 import jakarta.el.ValueExpression;
 import jakarta.el.VariableMapper;
+import jakarta.servlet.jsp.JspContext;
+import jakarta.servlet.jsp.el.NotFoundELResolver;
 
 import org.apache.jasper.Constants;
 
@@ -77,6 +83,12 @@ public class ELContextImpl extends ELContext {
         }
     }
 
+    /*
+     * The context objects put by Jasper, which replaces them as needed.
+     */
+    private static final Set<Class<?>> JASPER_CONTEXT_KEYS = Set.of(
+            JspContext.class, NotFoundELResolver.class, JasperELResolver.Misses.class);
+
     private static final ELResolver DefaultResolver;
 
     static {
@@ -101,6 +113,10 @@ public class ELContextImpl extends ELContext {
 
     private VariableMapper variableMapper;
 
+    private ImportHandler importHandler;
+
+    private boolean foreignContextObjects;
+
     public ELContextImpl(ExpressionFactory factory) {
         this(getDefaultResolver(factory));
     }
@@ -135,6 +151,64 @@ public class ELContextImpl extends ELContext {
         this.variableMapper = variableMapper;
     }
 
+    @Override
+    public ImportHandler getImportHandler() {
+        if (this.importHandler == null) {
+            this.importHandler = new ImportHandler();
+        }
+        return this.importHandler;
+    }
+
+    public void setImportHandler(ImportHandler importHandler) {
+        this.importHandler = importHandler;
+    }
+
+    @Override
+    public void putContext(Class<?> key, Object contextObject) throws NullPointerException {
+        super.putContext(key, contextObject);
+        if (!JASPER_CONTEXT_KEYS.contains(key)) {
+            foreignContextObjects = true;
+        }
+    }
+
+    /**
+     * Reset the state this context got while evaluating the expressions of
+     * a request, so that it can be used again for another request. The
+     * context objects put by Jasper are kept, and are replaced as needed.
+     * Context objects cannot be removed, so a context holding others, put
+     * by tags, resolvers or listeners, is not used again.
+     *
+     * @return <code>false</code> if the context cannot be used again, as
+     *         evaluation listeners or other context objects were added to it
+     */
+    public boolean recycle() {
+        List<EvaluationListener> listeners = getEvaluationListeners();
+        if (foreignContextObjects || (listeners != null && !listeners.isEmpty())) {
+            return false;
+        }
+        this.functionMapper = NullFunctionMapper;
+        this.variableMapper = null;
+        this.importHandler = null;
+        setPropertyResolved(false);
+        setLocale(null);
+        return true;
+    }
+
+    /**
+     * @return <code>true</code> if expressions created with this context
+     *         may depend on variables of its variable mapper
+     */
+    public boolean hasVariables() {
+        if (this.variableMapper == null) {
+            return false;
+        }
+        if (this.variableMapper instanceof VariableMapperImpl) {
+            Map<String, ValueExpression> vars = ((VariableMapperImpl) this.variableMapper).vars;
+            return vars != null && !vars.isEmpty();
+        }
+        return true;
+    }
+
     public static ELResolver getDefaultResolver(ExpressionFactory factory) {
         if (Constants.IS_SECURITY_ENABLED) {
             CompositeELResolver defaultResolver = new CompositeELResolver();
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.el;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.el.BeanELResolver;
+import jakarta.el.ELContext;
+import jakarta.el.ELException;
+
+import org.apache.jasper.util.ExceptionUtils;
+
+/**
+ * Bean resolver reading properties through method handles instead of
+ * reflection. The getters of a class are looked up once, and kept in a
+ * table attached to the class with a {@link ClassValue}, which goes away
+ * with the class when its web application is undeployed.
+ *
+ * Everything else, such as properties without a public getter, writes
+ * and method invocations, is left to {@link BeanELResolver}.
+ */
+public class JasperBeanELResolver extends BeanELResolver {
+
+    private static final MethodType GETTER_TYPE =
+            MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<Map<String, MethodHandle>> GETTERS =
+            new ClassValue<Map<String, MethodHandle>>() {
+        @Override
+        protected Map<String, MethodHandle> computeValue(Class<?> type) {
+            return getGetters(type);
+        }
+    };
+
+    @Override
+    public Object getValue(ELContext context, Object base, Object property) {
+        if (base == null || !(property instanceof String)) {
+            return super.getValue(context, base, property);
+        }
+        MethodHandle getter = GETTERS.get(base.getClass()).get(property);
+        if (getter == null) {
+            return super.getValue(context, base, property);
+        }
+        Object value;
+        try {
+            value = getter.invokeExact(base);
+        } catch (Throwable t) {
+            ExceptionUtils.handleThrowable(t);
+            throw new ELException(t);
+        }
+        context.setPropertyResolved(base, property);
+        return value;
+    }
+
+    private static Map<String, MethodHandle> getGetters(Class<?> type) {
+        PropertyDescriptor[] descriptors;
+        try {
+            descriptors = Introspector.getBeanInfo(type).getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            return Collections.emptyMap();
+        }
+        Map<String, MethodHandle> getters = new HashMap<>();
+        for (PropertyDescriptor descriptor : descriptors) {
+            Method method = getAccessibleMethod(type, descriptor.getReadMethod());
+            if (method != null) {
+                try {
+                    getters.put(descriptor.getName(), MethodHandles.publicLookup()
+                            .unreflect(method).asType(GETTER_TYPE));
+                } catch (IllegalAccessException e) {
+                    // Left to the bean resolver
+                }
+            }
+        }
+        return getters;
+    }
+
+    /*
+     * The getter of a class that is not public is called through a public
+     * class or interface declaring it, as the bean resolver does.
+     */
+    private static Method getAccessibleMethod(Class<?> type, Method method) {
+        if (method == null || !Modifier.isPublic(method.getModifiers())) {
+            return null;
+        }
+        if (Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            return method;
+        }
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            if (Modifier.isPublic(c.getModifiers())) {
+                try {
+                    Method m = c.getMethod(method.getName());
+                    if (Modifier.isPublic(m.getDeclaringClass().getModifiers())) {
+                        return m;
+                    }
+                } catch (NoSuchMethodException e) {
+                    // Not declared here
+                }
+            }
+            for (Class<?> i : c.getInterfaces()) {
+                Method m = getAccessibleMethod(i, method);
+                if (m != null) {
+                    return m;
+                }
+            }
+        }
+        return null;
+    }
+
+}
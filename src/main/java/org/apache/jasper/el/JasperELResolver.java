@@ -16,21 +16,23 @@
  */
 package org.apache.jasper.el;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import jakarta.el.ArrayELResolver;
-import jakarta.el.BeanELResolver;
 import jakarta.el.CompositeELResolver;
 import jakarta.el.ELContext;
 import jakarta.el.ELException;
 import jakarta.el.ELResolver;
+import jakarta.el.ImportHandler;
 import jakarta.el.ListELResolver;
 import jakarta.el.MapELResolver;
 import jakarta.el.PropertyNotFoundException;
 import jakarta.el.ResourceBundleELResolver;
 import jakarta.el.StaticFieldELResolver;
-import jakarta.servlet.jsp.el.ImplicitObjectELResolver;
+import jakarta.servlet.jsp.JspContext;
 import jakarta.servlet.jsp.el.ImportELResolver;
 import jakarta.servlet.jsp.el.NotFoundELResolver;
 import jakarta.servlet.jsp.el.ScopedAttributeELResolver;
@@ -39,22 +41,50 @@ import org.apache.jasper.JasperLogger;
 /**
  * Jasper-specific CompositeELResolver that optimizes certain functions to avoid
  * unnecessary resolver calls.
+ *
+ * Identifiers that are not implicit objects are looked up directly in the
+ * scoped attributes, unless an application resolver may resolve them: the
+ * application resolvers must all have been registered as never resolving
+ * identifiers, see
+ * {@link org.apache.jasper.runtime.JspApplicationContextImpl#addPropertyELResolver(ELResolver)}.
+ * The identifiers that are neither attributes nor imported classes are
+ * remembered in the EL context, so that the import handler is not asked
+ * again for them during the request.
  */
 public class JasperELResolver extends CompositeELResolver {
 
     // Keep aligned with class under test
     private static final int STANDARD_RESOLVERS_COUNT = 11;
 
+    private static final Set<String> IMPLICIT_OBJECTS = Set.of(
+            "pageContext", "pageScope", "requestScope", "sessionScope",
+            "applicationScope", "param", "paramValues", "header",
+            "headerValues", "initParam", "cookie");
+
     private AtomicInteger resolversSize = new AtomicInteger(0);
     private volatile ELResolver[] resolvers;
     private final int appResolversSize;
+    private final boolean appResolversSkipIdentifiers;
+    private final int importResolverIndex;
 
     public JasperELResolver(List<ELResolver> appResolvers,
             ELResolver streamResolver) {
+        this(appResolvers, streamResolver, appResolvers.isEmpty());
+    }
+
+    /**
+     * @param appResolvers The resolvers added by the application
+     * @param streamResolver The stream resolver of the expression factory
+     * @param appResolversSkipIdentifiers <code>true</code> if none of the
+     *            application resolvers resolves identifiers
+     */
+    public JasperELResolver(List<ELResolver> appResolvers,
+            ELResolver streamResolver, boolean appResolversSkipIdentifiers) {
         appResolversSize = appResolvers.size();
+        this.appResolversSkipIdentifiers = appResolversSkipIdentifiers;
         resolvers = new ELResolver[appResolversSize + STANDARD_RESOLVERS_COUNT];
 
-        add(new ImplicitObjectELResolver());
+        add(new JasperImplicitObjectELResolver());
         for (ELResolver appResolver : appResolvers) {
             add(appResolver);
         }
@@ -64,12 +94,20 @@ public class JasperELResolver extends CompositeELResolver {
         add(new ResourceBundleELResolver());
         add(new ListELResolver());
         add(new ArrayELResolver());
-        add(new BeanELResolver());
+        add(new JasperBeanELResolver());
         add(new ScopedAttributeELResolver());
+        importResolverIndex = resolversSize.get();
         add(new ImportELResolver());
         add(new NotFoundELResolver());
     }
 
+    /**
+     * @return <code>true</code> if resolvers were added by the application
+     */
+    public boolean hasAppResolvers() {
+        return appResolversSize > 0;
+    }
+
     @Override
     public synchronized void add(ELResolver elResolver) {
         super.add(elResolver);
@@ -97,6 +135,15 @@ public class JasperELResolver extends CompositeELResolver {
         Object result = null;
 
         if (base == null) {
+            if (property instanceof String
+                    && !IMPLICIT_OBJECTS.contains(property)
+                    && appResolversSkipIdentifiers) {
+                JspContext jspContext =
+                        (JspContext) context.getContext(JspContext.class);
+                if (jspContext != null) {
+                    return getAttribute(context, jspContext, (String) property);
+                }
+            }
             // call implicit and app resolvers
             int index = 1 /* implicit */ + appResolversSize;
             for (int i = 0; i < index; i++) {
@@ -132,6 +179,67 @@ public class JasperELResolver extends CompositeELResolver {
         return null;
     }
 
+    /*
+     * Skip the implicit, app, stream, static, collection-based and bean
+     * resolvers, then the scoped attribute resolver, which would look up
+     * the attribute again.
+     */
+    private Object getAttribute(ELContext context, JspContext jspContext,
+            String name) {
+        Object result = jspContext.findAttribute(name);
+        if (result != null) {
+            context.setPropertyResolved(null, name);
+            return result;
+        }
+
+        int importIndex = importResolverIndex;
+        Set<String> misses = getMisses(context);
+        int size = resolversSize.get();
+        for (int i = importIndex; i < size; i++) {
+            if (i == importIndex && misses.contains(name)) {
+                continue;
+            }
+            try {
+                result = resolvers[i].getValue(context, null, name);
+            } catch (RuntimeException t) {
+                JasperLogger.ROOT_LOGGER.warn("base == null , property == " + name, t);
+            }
+            if (context.isPropertyResolved()) {
+                return result;
+            }
+            if (i == importIndex) {
+                misses.add(name);
+            }
+        }
+
+        return null;
+    }
+
+    /*
+     * The misses are only valid for the import handler they were looked up
+     * with, as tag files have their own imports.
+     */
+    private static Set<String> getMisses(ELContext context) {
+        ImportHandler importHandler = context.getImportHandler();
+        Misses misses = (Misses) context.getContext(Misses.class);
+        if (misses == null || misses.importHandler != importHandler) {
+            misses = new Misses(importHandler);
+            context.putContext(Misses.class, misses);
+        }
+        return misses.names;
+    }
+
+    static final class Misses {
+
+        private final ImportHandler importHandler;
+        private final Set<String> names = new HashSet<>();
+
+        Misses(ImportHandler importHandler) {
+            this.importHandler = importHandler;
+        }
+
+    }
+
     @Override
     public Object invoke(ELContext context, Object base, Object method,
             Class<?>[] paramTypes, Object[] params) {
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.el;
+
+import jakarta.el.ELContext;
+import jakarta.servlet.jsp.JspContext;
+import jakarta.servlet.jsp.el.ImplicitObjectELResolver;
+
+import org.apache.jasper.runtime.ImplicitObjects;
+
+/**
+ * Implicit object resolver taking the maps of the implicit objects from
+ * the page context, where they are kept for the whole request, see
+ * {@link ImplicitObjects}.
+ *
+ * The types and the read-only state of the implicit objects are left to
+ * {@link ImplicitObjectELResolver}.
+ */
+public class JasperImplicitObjectELResolver extends ImplicitObjectELResolver {
+
+    @Override
+    public Object getValue(ELContext context, Object base, Object property) {
+        if (context == null) {
+            throw new NullPointerException();
+        }
+        if (base != null || !(property instanceof String)) {
+            return null;
+        }
+        JspContext jspContext = (JspContext) context.getContext(JspContext.class);
+        Object value;
+        switch ((String) property) {
+        case "pageContext":
+            value = jspContext;
+            break;
+        case "pageScope":
+            value = ImplicitObjects.get(jspContext).getPageScope();
+            break;
+        case "requestScope":
+            value = ImplicitObjects.get(jspContext).getRequestScope();
+            break;
+        case "sessionScope":
+            value = ImplicitObjects.get(jspContext).getSessionScope();
+            break;
+        case "applicationScope":
+            value = ImplicitObjects.get(jspContext).getApplicationScope();
+            break;
+        case "param":
+            value = ImplicitObjects.get(jspContext).getParam();
+            break;
+        case "paramValues":
+            value = ImplicitObjects.get(jspContext).getParamValues();
+            break;
+        case "header":
+            value = ImplicitObjects.get(jspContext).getHeader();
+            break;
+        case "headerValues":
+            value = ImplicitObjects.get(jspContext).getHeaderValues();
+            break;
+        case "initParam":
+            value = ImplicitObjects.get(jspContext).getInitParam();
+            break;
+        case "cookie":
+            value = ImplicitObjects.get(jspContext).getCookie();
+            break;
+        default:
+            return null;
+        }
+        context.setPropertyResolved(base, property);
+        return value;
+    }
+
+}
@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.runtime;
+
+import static org.apache.jasper.JasperMessages.MESSAGES;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.apache.jasper.JasperLogger;
+import org.apache.jasper.util.ExceptionUtils;
+
+import io.undertow.connector.PooledByteBuffer;
+import io.undertow.io.BufferWritableOutputStream;
+import io.undertow.servlet.spec.AsyncContextImpl;
+import io.undertow.servlet.spec.HttpServletResponseImpl;
+
+/**
+ * Non-blocking output of a page.
+ *
+ * The page is rendered on a worker thread of an asynchronous request. The
+ * full buffers of its {@link PooledBufferJspWriter} are queued here instead
+ * of being written to the connection, and a {@link WriteListener} drains
+ * them on the I/O thread of the connection as the client accepts data.
+ * When more than {@link #HIGH_WATER_MARK} bytes are queued the rendering
+ * thread waits until half of them have been written, so that a slow client
+ * holds back the page without every write of the page blocking.
+ *
+ * Pages reached through a forward, including error pages, write to the same
+ * queue. Included pages write to the writer of the including page.
+ */
+public final class AsyncPageOutput implements WriteListener, AsyncListener {
+
+    /**
+     * Request attribute under which the output of the page being rendered
+     * is found by its page context.
+     */
+    public static final String ATTRIBUTE = AsyncPageOutput.class.getName();
+
+    private static final long HIGH_WATER_MARK =
+        Long.parseLong(System.getProperty("org.apache.jasper.runtime.AsyncPageOutput.HIGH_WATER_MARK", "262144"));
+
+    private final AsyncContext context;
+    private final HttpServletResponseImpl response;
+    private final Executor ioThread;
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                drain();
+            } catch (IOException e) {
+                onError(e);
+            }
+        }
+    };
+
+    private final ArrayDeque<PooledByteBuffer> queue = new ArrayDeque<>();
+    private long queued;
+    private ServletOutputStream os;
+    private boolean listening = false;
+    private boolean idle = false;
+    private boolean waiting = false;
+    private boolean ended = false;
+    private boolean completed = false;
+    private Throwable failure;
+
+    private AsyncPageOutput(AsyncContext context, HttpServletResponseImpl response) {
+        this.context = context;
+        this.response = response;
+        this.ioThread = response.getExchange().getIoThread();
+    }
+
+    /**
+     * Whether the given request can be rendered asynchronously. Only
+     * requests coming straight from the client, for an unwrapped Undertow
+     * response, whose servlet supports asynchronous processing qualify.
+     *
+     * @param request The request for the page
+     * @param response The response of the page
+     * @return <code>true</code> if the page may be rendered asynchronously
+     */
+    public static boolean canStart(ServletRequest request, ServletResponse response) {
+        return request.isAsyncSupported() && !request.isAsyncStarted()
+                && request.getDispatcherType() == DispatcherType.REQUEST
+                && PooledBufferJspWriter.canWrite(response);
+    }
+
+    /**
+     * Put the request in asynchronous mode and render the page on a worker
+     * thread, its output being written without blocking.
+     *
+     * @param page The page to render
+     * @param request The request for the page
+     * @param response The response of the page
+     */
+    public static void start(final HttpJspBase page, final HttpServletRequest request,
+            final HttpServletResponse response) {
+        final AsyncContext context = request.startAsync();
+        // Rendering is not limited in time, as for a blocking page
+        context.setTimeout(0);
+        final AsyncPageOutput output =
+            new AsyncPageOutput(context, (HttpServletResponseImpl) response);
+        context.addListener(output);
+        request.setAttribute(ATTRIBUTE, output);
+        context.start(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    page._jspService(request, response);
+                    request.removeAttribute(ATTRIBUTE);
+                    output.end();
+                } catch (Throwable t) {
+                    ExceptionUtils.handleThrowable(t);
+                    request.removeAttribute(ATTRIBUTE);
+                    output.abort(request.getRequestURI(), t);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param request The request for the page
+     * @return the output of the page being rendered asynchronously for the
+     *         request, or <code>null</code>
+     */
+    static AsyncPageOutput get(ServletRequest request) {
+        return (AsyncPageOutput) request.getAttribute(ATTRIBUTE);
+    }
+
+    /**
+     * Obtain the output stream of the response and register the write
+     * listener, once the page first writes out.
+     *
+     * @return <code>false</code> if a writer is already in use for the
+     *         response, the page is then written out by blocking
+     */
+    boolean open() {
+        synchronized (this) {
+            if (listening) {
+                return true;
+            }
+        }
+        ServletOutputStream os;
+        try {
+            os = response.getOutputStream();
+        } catch (IllegalStateException e) {
+            return false;
+        }
+        synchronized (this) {
+            this.os = os;
+            listening = true;
+            os.setWriteListener(this);
+        }
+        return true;
+    }
+
+    /**
+     * Queue the first <code>count</code> flipped buffers of a writer, taking
+     * over their ownership. The slots of the queued buffers are cleared.
+     * Waits while the queue is above the high water mark.
+     *
+     * @param pooled The buffers to write
+     * @param count The number of buffers to write
+     * @throws IOException if the output failed, or the thread was
+     *         interrupted while waiting
+     */
+    synchronized void write(PooledByteBuffer[] pooled, int count) throws IOException {
+        while (failure == null && queued > HIGH_WATER_MARK) {
+            waiting = true;
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } finally {
+                waiting = false;
+            }
+        }
+        if (failure != null) {
+            throw MESSAGES.asyncOutputFailed(failure);
+        }
+        for (int i = 0; i < count; i++) {
+            queue.add(pooled[i]);
+            queued += pooled[i].getBuffer().remaining();
+            pooled[i] = null;
+        }
+        resume();
+    }
+
+    /*
+     * The listener is only called again by the container after isReady()
+     * returned false, so a drain is scheduled on the I/O thread when the
+     * listener went idle on an empty queue.
+     */
+    private void resume() {
+        if (idle) {
+            idle = false;
+            ioThread.execute(drainTask);
+        }
+    }
+
+    private synchronized void drain() throws IOException {
+        while (failure == null && !completed && os.isReady()) {
+            PooledByteBuffer next = queue.poll();
+            if (next == null) {
+                if (ended) {
+                    completed = true;
+                    context.complete();
+                } else {
+                    idle = true;
+                }
+                return;
+            }
+            try {
+                ByteBuffer buffer = next.getBuffer();
+                queued -= buffer.remaining();
+                // Anything the connection cannot take is copied by the stream
+                ((BufferWritableOutputStream) os).write(buffer);
+            } finally {
+                next.close();
+            }
+            if (waiting && queued <= HIGH_WATER_MARK / 2) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * The page has been rendered, complete the request once the queue has
+     * been written.
+     */
+    void end() {
+        boolean complete;
+        synchronized (this) {
+            ended = true;
+            complete = !listening && failure == null;
+            if (listening) {
+                resume();
+            }
+        }
+        if (complete) {
+            context.complete();
+        }
+    }
+
+    /*
+     * The page failed without handling the exception. Until output has
+     * started the container reports the error as for a blocking page,
+     * afterwards what has been rendered is still written.
+     */
+    private void abort(String uri, Throwable t) {
+        boolean handle;
+        synchronized (this) {
+            handle = !listening && failure == null;
+        }
+        if (handle && context instanceof AsyncContextImpl) {
+            ((AsyncContextImpl) context).handleError(t);
+        } else {
+            JasperLogger.ROOT_LOGGER.failedAsyncPage(uri, t);
+            end();
+        }
+    }
+
+    private synchronized void release(Throwable t) {
+        if (failure == null) {
+            failure = t != null ? t : new IOException(MESSAGES.streamClosed());
+        }
+        PooledByteBuffer buffer;
+        while ((buffer = queue.poll()) != null) {
+            buffer.close();
+        }
+        queued = 0;
+        notifyAll();
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        release(t);
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) throws IOException {
+        release(null);
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) throws IOException {
+        release(event.getThrowable());
+    }
+
+    @Override
+    public void onError(AsyncEvent event) throws IOException {
+        release(event.getThrowable());
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) throws IOException {
+    }
+
+}
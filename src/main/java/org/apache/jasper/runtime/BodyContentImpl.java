@@ -23,6 +23,8 @@ import java.io.CharArrayReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 
 import jakarta.servlet.jsp.JspWriter;
 import jakarta.servlet.jsp.tagext.BodyContent;
@@ -36,6 +38,13 @@ import org.apache.jasper.Constants;
  *
  * Provide support for discarding for the output that has been buffered.
  *
+ * The body is kept in a {@link CharBuffer}, so growing it never copies
+ * what has been written already, and writing it out to an enclosing body
+ * hands over the filled arrays instead of copying them. The bodies of a
+ * page context share the arrays kept for reuse, so that the arrays handed
+ * over to an enclosing body are reused by the inner one once the enclosing
+ * body is cleared.
+ *
  * @author Rajiv Mordani
  * @author Jan Luehe
  */
@@ -44,21 +53,29 @@ public class BodyContentImpl extends BodyContent {
     private static final boolean LIMIT_BUFFER =
         Boolean.valueOf(System.getProperty("org.apache.jasper.runtime.BodyContentImpl.LIMIT_BUFFER", "false")).booleanValue();
 
-    private char[] cb;
-    private int nextChar;
+    private final CharBuffer cb;
     private boolean closed;
 
     // Enclosed writer to which any output is written
     private Writer writer;
 
+    private final char[] number = new char[DecimalChars.MAX_CHARS];
+
     /**
      * Constructor.
      */
     public BodyContentImpl(JspWriter enclosingWriter) {
+        this(enclosingWriter, new ArrayList<char[]>());
+    }
+
+    /**
+     * Constructor for the bodies of a page context, which share the arrays
+     * they keep for reuse.
+     */
+    BodyContentImpl(JspWriter enclosingWriter, List<char[]> freeArrays) {
         super(enclosingWriter);
-        cb = new char[Constants.DEFAULT_TAG_BUFFER_SIZE];
-        bufferSize = cb.length;
-        nextChar = 0;
+        cb = new CharBuffer(Constants.DEFAULT_TAG_BUFFER_SIZE, 0, freeArrays);
+        bufferSize = Constants.DEFAULT_TAG_BUFFER_SIZE;
         closed = false;
     }
 
@@ -71,10 +88,7 @@ public class BodyContentImpl extends BodyContent {
             writer.write(c);
         } else {
             ensureOpen();
-            if (nextChar >= bufferSize) {
-                reAllocBuff (1);
-            }
-            cb[nextChar++] = (char) c;
+            cb.buffer((char) c);
         }
     }
 
@@ -107,11 +121,7 @@ public class BodyContentImpl extends BodyContent {
                 return;
             }
 
-            if (len >= bufferSize - nextChar)
-                reAllocBuff (len);
-
-            System.arraycopy(cbuf, off, cb, nextChar, len);
-            nextChar+=len;
+            cb.buffer(cbuf, off, len);
         }
     }
 
@@ -141,11 +151,7 @@ public class BodyContentImpl extends BodyContent {
             writer.write(s, off, len);
         } else {
             ensureOpen();
-            if (len >= bufferSize - nextChar)
-                reAllocBuff(len);
-
-            s.getChars(off, off + len, cb, nextChar);
-            nextChar += len;
+            cb.buffer(s, off, len);
         }
     }
 
@@ -209,9 +215,9 @@ public class BodyContentImpl extends BodyContent {
     @Override
     public void print(char c) throws IOException {
         if (writer != null) {
-            writer.write(String.valueOf(c));
+            writer.write(c);
         } else {
-            write(String.valueOf(c));
+            write(c);
         }
     }
 
@@ -227,11 +233,7 @@ public class BodyContentImpl extends BodyContent {
      */
     @Override
     public void print(int i) throws IOException {
-        if (writer != null) {
-            writer.write(String.valueOf(i));
-        } else {
-            write(String.valueOf(i));
-        }
+        print((long) i);
     }
 
     /**
@@ -246,10 +248,11 @@ public class BodyContentImpl extends BodyContent {
      */
     @Override
     public void print(long l) throws IOException {
+        int start = DecimalChars.getChars(l, number);
         if (writer != null) {
-            writer.write(String.valueOf(l));
+            writer.write(number, start, number.length - start);
         } else {
-            write(String.valueOf(l));
+            write(number, start, number.length - start);
         }
     }
 
@@ -265,10 +268,13 @@ public class BodyContentImpl extends BodyContent {
      */
     @Override
     public void print(float f) throws IOException {
-        if (writer != null) {
-            writer.write(String.valueOf(f));
+        int start = DecimalChars.getChars(f, number);
+        if (start < 0) {
+            print(String.valueOf(f));
+        } else if (writer != null) {
+            writer.write(number, start, number.length - start);
         } else {
-            write(String.valueOf(f));
+            write(number, start, number.length - start);
         }
     }
 
@@ -284,10 +290,13 @@ public class BodyContentImpl extends BodyContent {
      */
     @Override
     public void print(double d) throws IOException {
-        if (writer != null) {
-            writer.write(String.valueOf(d));
+        int start = DecimalChars.getChars(d, number);
+        if (start < 0) {
+            print(String.valueOf(d));
+        } else if (writer != null) {
+            writer.write(number, start, number.length - start);
         } else {
-            write(String.valueOf(d));
+            write(number, start, number.length - start);
         }
     }
 
@@ -493,10 +502,10 @@ public class BodyContentImpl extends BodyContent {
         if (writer != null) {
             throw new IOException();
         } else {
-            nextChar = 0;
-            if (LIMIT_BUFFER && (cb.length > Constants.DEFAULT_TAG_BUFFER_SIZE)) {
-                cb = new char[Constants.DEFAULT_TAG_BUFFER_SIZE];
-                bufferSize = cb.length;
+            if (LIMIT_BUFFER) {
+                cb.reset();
+            } else {
+                cb.clear();
             }
         }
     }
@@ -543,7 +552,7 @@ public class BodyContentImpl extends BodyContent {
         // JspContext.pushBody(java.io.Writer writer) must behave as
         // though it were unbuffered. This means that its getBufferSize()
         // must always return 0.
-        return (writer == null) ? bufferSize : 0;
+        return (writer == null) ? cb.size() + cb.getCapacity() : 0;
     }
 
     /**
@@ -551,7 +560,7 @@ public class BodyContentImpl extends BodyContent {
      */
     @Override
     public int getRemaining() {
-        return (writer == null) ? bufferSize-nextChar : 0;
+        return (writer == null) ? cb.getCapacity() : 0;
     }
 
     /**
@@ -563,7 +572,7 @@ public class BodyContentImpl extends BodyContent {
      */
     @Override
     public Reader getReader() {
-        return (writer == null) ? new CharArrayReader (cb, 0, nextChar) : null;
+        return (writer == null) ? new CharArrayReader (cb.toArray()) : null;
     }
 
     /**
@@ -575,7 +584,7 @@ public class BodyContentImpl extends BodyContent {
      */
     @Override
     public String getString() {
-        return (writer == null) ? new String(cb, 0, nextChar) : null;
+        return (writer == null) ? cb.toString() : null;
     }
 
     /**
@@ -589,12 +598,28 @@ public class BodyContentImpl extends BodyContent {
     @Override
     public void writeOut(Writer out) throws IOException {
         if (writer == null) {
-            out.write(cb, 0, nextChar);
+            if (out instanceof BodyContentImpl) {
+                ((BodyContentImpl) out).write(cb);
+            } else {
+                cb.writeOut(out);
+            }
         // Flush not called as the writer passed could be a BodyContent and
         // it doesn't allow to flush.
     }
     }
 
+    /**
+     * Write the content of another body, taking over its filled arrays.
+     */
+    void write(CharBuffer body) throws IOException {
+        if (writer != null) {
+            body.writeOut(writer);
+        } else {
+            ensureOpen();
+            cb.buffer(body);
+        }
+    }
+
     /**
      * Sets the writer to which all output is written.
      */
@@ -632,25 +657,4 @@ public class BodyContentImpl extends BodyContent {
         }
     }
 
-    /**
-     * Reallocates buffer since the spec requires it to be unbounded.
-     */
-    private void reAllocBuff(int len) {
-
-        if (bufferSize + len <= cb.length) {
-            bufferSize = cb.length;
-            return;
-        }
-
-        if (len < cb.length) {
-            len = cb.length;
-        }
-
-        char[] tmp = new char[cb.length + len];
-        System.arraycopy(cb, 0, tmp, 0, cb.length);
-        cb = tmp;
-        bufferSize = cb.length;
-    }
-
-
 }
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.runtime;
+
+import static org.apache.jasper.JasperMessages.MESSAGES;
+
+import java.util.List;
+
+import jakarta.el.ELContext;
+import jakarta.el.ELException;
+import jakarta.el.ELResolver;
+import jakarta.el.EvaluationListener;
+import jakarta.el.ExpressionFactory;
+import jakarta.el.ValueExpression;
+import jakarta.servlet.jsp.JspFactory;
+import jakarta.servlet.jsp.PageContext;
+
+import org.apache.jasper.el.ELContextImpl;
+import org.apache.jasper.el.JasperELResolver;
+
+/**
+ * An EL expression of a page, held in a static field of the generated
+ * class so that it is parsed once instead of on each evaluation, as done
+ * by {@link PageContextImpl#proprietaryEvaluate}.
+ *
+ * The value expression is created on the first evaluation, bound to the
+ * function map of the page. Variables set in the variable mapper of the
+ * EL context, by deferred attributes of tag files or by the JSTL
+ * <code>c:set</code> tag, are resolved when an expression is created, so
+ * an expression is neither cached nor reused while the context has any.
+ *
+ * The expression may also have been compiled to Java code, see
+ * {@link org.apache.jasper.compiler.CompilingELInterpreter}. The compiled
+ * code is only run when the EL context resolves names the standard way,
+ * and the expression is evaluated by the EL implementation whenever the
+ * compiled code cannot tell the result. It can only tell so before calling
+ * any method of the application, which is never called twice; exceptions
+ * thrown by such methods are reported as an {@link ELException}, as the
+ * EL implementation does.
+ */
+public final class CachedValueExpression {
+
+    /**
+     * Returned by compiled code that cannot tell the value of the
+     * expression, such as when a bean is not there or has another type,
+     * before it called any method of the application.
+     */
+    public static final Object UNRESOLVED = new Object();
+
+    /**
+     * An expression compiled to Java code.
+     */
+    public interface Compiled {
+
+        /**
+         * @param pageContext The page context of the page, or the JSP
+         *            context of a tag file
+         * @return the value of the expression, coerced to the expected
+         *         type, or {@link CachedValueExpression#UNRESOLVED}
+         * @throws Exception if a method called by the expression failed
+         */
+        Object evaluate(PageContext pageContext) throws Exception;
+
+    }
+
+    private final String expression;
+    private final Class<?> expectedType;
+    private final ProtectedFunctionMapper functionMap;
+    private final Compiled compiled;
+
+    private volatile ValueExpression valueExpression;
+
+    /**
+     * @param expression The expression
+     * @param expectedType The type the result is coerced to
+     * @param functionMap The function map of the page, may be
+     *            <code>null</code>
+     */
+    public CachedValueExpression(String expression, Class<?> expectedType,
+            ProtectedFunctionMapper functionMap) {
+        this(expression, expectedType, functionMap, null);
+    }
+
+    /**
+     * @param expression The expression
+     * @param expectedType The type the result is coerced to
+     * @param functionMap The function map of the page, may be
+     *            <code>null</code>
+     * @param compiled The expression compiled to Java code, may be
+     *            <code>null</code>
+     */
+    public CachedValueExpression(String expression, Class<?> expectedType,
+            ProtectedFunctionMapper functionMap, Compiled compiled) {
+        this.expression = expression;
+        this.expectedType = expectedType;
+        this.functionMap = functionMap;
+        this.compiled = compiled;
+    }
+
+    /**
+     * Evaluate the expression.
+     *
+     * @param pageContext The page context of the page, or the JSP context
+     *            of a tag file
+     * @return the value of the expression
+     * @throws ELException if the evaluation failed
+     */
+    public Object getValue(PageContext pageContext) throws ELException {
+        ELContext ctx = pageContext.getELContext();
+        ELContextImpl ctxImpl = PageContextImpl.getELContextImpl(ctx);
+        boolean hasVariables = ctxImpl.hasVariables();
+        if (compiled != null && !hasVariables) {
+            Object value = evaluate(compiled, expression, ctx, pageContext);
+            if (value != UNRESOLVED) {
+                return value;
+            }
+        }
+        ValueExpression ve = valueExpression;
+        if (ve == null || hasVariables) {
+            ExpressionFactory exprFactory = JspFactory.getDefaultFactory()
+                    .getJspApplicationContext(pageContext.getServletContext())
+                    .getExpressionFactory();
+            ctxImpl.setFunctionMapper(functionMap);
+            ve = exprFactory.createValueExpression(ctx, expression, expectedType);
+            if (!hasVariables) {
+                valueExpression = ve;
+            }
+        }
+        return ve.getValue(ctx);
+    }
+
+    /**
+     * Evaluate an expression compiled to Java code, for pages that do not
+     * cache their expressions.
+     *
+     * @param compiled The expression compiled to Java code
+     * @param expression The expression
+     * @param expectedType The type the result is coerced to
+     * @param pageContext The page context of the page, or the JSP context
+     *            of a tag file
+     * @param functionMap The function map of the page, may be
+     *            <code>null</code>
+     * @return the value of the expression
+     * @throws ELException if the evaluation failed
+     */
+    public static Object evaluate(Compiled compiled, String expression,
+            Class<?> expectedType, PageContext pageContext,
+            ProtectedFunctionMapper functionMap) throws ELException {
+        ELContext ctx = pageContext.getELContext();
+        if (!PageContextImpl.getELContextImpl(ctx).hasVariables()) {
+            Object value = evaluate(compiled, expression, ctx, pageContext);
+            if (value != UNRESOLVED) {
+                return value;
+            }
+        }
+        return PageContextImpl.proprietaryEvaluate(expression, expectedType,
+                pageContext, functionMap);
+    }
+
+    /*
+     * Names are resolved by the compiled code as the standard resolvers do,
+     * and evaluation listeners would not be notified.
+     */
+    private static Object evaluate(Compiled compiled, String expression,
+            ELContext ctx, PageContext pageContext) throws ELException {
+        ELResolver resolver = ctx.getELResolver();
+        List<EvaluationListener> listeners = ctx.getEvaluationListeners();
+        if (!(resolver instanceof JasperELResolver)
+                || ((JasperELResolver) resolver).hasAppResolvers()
+                || (listeners != null && !listeners.isEmpty())) {
+            return UNRESOLVED;
+        }
+        try {
+            return compiled.evaluate(pageContext);
+        } catch (ELException e) {
+            throw e;
+        } catch (Exception e) {
+            throw MESSAGES.failedEvaluation(expression, e);
+        }
+    }
+
+}
@@ -21,12 +21,18 @@ import static org.apache.jasper.JasperMessages.MESSAGES;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * An efficient character buffer class. 
  * This class is not thread-safe, so its clients will have to take care of any necessary thread issues.
+ *
+ * Characters are kept in a list of arrays, so growing the buffer never copies what it already holds.
+ * Filled arrays can be handed to another buffer with {@link #buffer(CharBuffer)} without being copied.
+ * Both buffers then hold them, and they are only reused once every buffer holding them was cleared.
+ * Buffers may share the list of arrays kept for reuse, so that the arrays handed over come back to the
+ * buffer that filled them.
  * @author Brian Remmington
  *
  */
@@ -34,11 +40,21 @@ public class CharBuffer {
     private static final int DEFAULT_INITIAL_CAPACITY = 512;
 
     /**
-     * List of all fully populated character arrays.
+     * The largest growth of the buffer based on its current size.
+     */
+    private static final int MAXIMUM_GROWTH = 8192;
+
+    /**
+     * List of all filled character arrays.
      */
-    private LinkedList bufList;
+    private final List<Segment> bufList = new ArrayList<>();
     private int listSize = 0;
 
+    /**
+     * Arrays of this buffer that may be written again, kept when the buffer is cleared.
+     */
+    private final List<char[]> freeList;
+
     /**
      * The character array that is currently being filled
      */
@@ -49,6 +65,8 @@ public class CharBuffer {
      */
     private int index;
 
+    private final int initialCapacity;
+
     /**
      * The minimum number of characters by which the buffer should grow when 
      * 'currentBuf' becomes full.
@@ -73,17 +91,28 @@ public class CharBuffer {
      * If zero is specified then the value of the initial capacity will be used.
      */
     public CharBuffer(int initialCapacity, int minimumGrowth) {
+        this(initialCapacity, minimumGrowth, new ArrayList<char[]>());
+    }
+
+    /**
+     * Create a new character buffer sharing the arrays kept for reuse with other buffers.
+     * @param initialCapacity The number of characters initially provisioned for.
+     * @param minimumGrowth The smallest number of characters by which the buffer will grow.
+     * @param freeList The arrays kept for reuse, shared by buffers used by a single thread.
+     */
+    CharBuffer(int initialCapacity, int minimumGrowth, List<char[]> freeList) {
         if (initialCapacity == 0) {
             initialCapacity = DEFAULT_INITIAL_CAPACITY;
         }
         if (minimumGrowth == 0) {
             minimumGrowth = initialCapacity;
         }
-        this.bufList = new LinkedList();
+        this.initialCapacity = initialCapacity;
         this.currentBuf = new char[initialCapacity];
         this.index = 0;
         this.minimumGrowth = minimumGrowth;
         this.listSize = 0;
+        this.freeList = freeList;
     }
 
     /**
@@ -197,6 +226,31 @@ public class CharBuffer {
         }
     }
 
+    /**
+     * Add the content of another buffer to this buffer. The filled arrays of the other buffer are
+     * shared rather than copied, only the characters of the array it is currently filling are copied.
+     * The other buffer keeps its content.
+     * @param other The buffer whose content is to be added to this buffer.
+     * @throws IllegalArgumentException If other is null.
+     */
+    public void buffer(CharBuffer other) throws IllegalArgumentException {
+        if (other == null) {
+            throw MESSAGES.nullCharBufferCharactersArgument();
+        }
+        if (!other.bufList.isEmpty()) {
+            if (index > 0) {
+                this.seal();
+                this.currentBuf = this.next(this.minimumGrowth);
+            }
+            for (Segment segment : other.bufList) {
+                segment.holders++;
+                this.bufList.add(segment);
+                this.listSize += segment.length;
+            }
+        }
+        this.buffer(other.currentBuf, 0, other.index);
+    }
+
     /**
      * Render this buffer as a character array.
      * @return
@@ -204,10 +258,9 @@ public class CharBuffer {
     public char[] toArray() {
         char[] result = new char[size()];
         int offset = 0;
-        for (Iterator iter = this.bufList.iterator(); iter.hasNext();) {
-            char[] curBuf = (char[]) iter.next();
-            System.arraycopy(curBuf, 0, result, offset, curBuf.length);
-            offset += curBuf.length;
+        for (Segment segment : this.bufList) {
+            System.arraycopy(segment.chars, 0, result, offset, segment.length);
+            offset += segment.length;
         }
         System.arraycopy(this.currentBuf, 0, result, offset, index);
         return result;
@@ -218,10 +271,12 @@ public class CharBuffer {
      */
     public String toString()
     {
+        if (this.bufList.isEmpty()) {
+            return new String(currentBuf, 0, index);
+        }
         StringBuilder sb = new StringBuilder(size());
-        for (Iterator iter = this.bufList.iterator(); iter.hasNext();) {
-            char[] curBuf = (char[]) iter.next();
-            sb.append(curBuf);
+        for (Segment segment : this.bufList) {
+            sb.append(segment.chars, 0, segment.length);
         }
         sb.append(currentBuf, 0, index);
         return sb.toString();
@@ -251,7 +306,29 @@ public class CharBuffer {
      *
      */
     public void clear() {
+        for (Segment segment : this.bufList) {
+            if (--segment.holders == 0) {
+                this.freeList.add(segment.chars);
+            }
+        }
+        this.bufList.clear();
+        this.index = 0;
+        this.listSize = 0;
+    }
+
+    /**
+     * Clear this buffer and drop the arrays kept for reuse, going back to a single array of the
+     * initial capacity.
+     */
+    public void reset() {
+        for (Segment segment : this.bufList) {
+            segment.holders--;
+        }
         this.bufList.clear();
+        this.freeList.clear();
+        if (this.currentBuf.length > this.initialCapacity) {
+            this.currentBuf = new char[this.initialCapacity];
+        }
         this.index = 0;
         this.listSize = 0;
     }
@@ -267,9 +344,8 @@ public class CharBuffer {
         if (writer == null) {
             throw MESSAGES.nullCharBufferWriterArgument();
         }
-        for (Iterator iter = this.bufList.iterator(); iter.hasNext();) {
-            char[] curBuf = (char[]) iter.next();
-            writer.write(curBuf);
+        for (Segment segment : this.bufList) {
+            writer.write(segment.chars, 0, segment.length);
         }
         writer.write(currentBuf, 0, index);
     }
@@ -279,12 +355,39 @@ public class CharBuffer {
     }
 
     private void grow(int requiredChars) {
+        this.seal();
+        this.currentBuf = this.next(Math.max(requiredChars, Math.min(this.listSize, MAXIMUM_GROWTH)));
+    }
+
+    private void seal() {
+        this.bufList.add(new Segment(currentBuf, index));
+        this.listSize += index;
+        index = 0;
+    }
+
+    private char[] next(int requiredChars) {
         if (requiredChars < this.minimumGrowth) {
             requiredChars = this.minimumGrowth;
         }
-        this.bufList.add(currentBuf);
-        this.listSize += currentBuf.length;
-        currentBuf = new char[requiredChars];
-        index = 0;
+        int last = this.freeList.size() - 1;
+        if (last >= 0 && this.freeList.get(last).length >= requiredChars) {
+            return this.freeList.remove(last);
+        }
+        return new char[requiredChars];
+    }
+
+    private static final class Segment {
+        private final char[] chars;
+        private final int length;
+
+        /**
+         * The number of buffers holding the array, which may be written again once none does.
+         */
+        private int holders = 1;
+
+        private Segment(char[] chars, int length) {
+            this.chars = chars;
+            this.length = length;
+        }
     }
 }
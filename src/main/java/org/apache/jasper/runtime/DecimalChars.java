@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.runtime;
+
+/**
+ * Formatting of numbers into a char array owned by a writer, so that
+ * printing them does not create a String. The characters are the same as
+ * those of {@link String#valueOf(long)} and {@link String#valueOf(double)}.
+ *
+ * The digits are written backwards from the end of the array, which must
+ * hold at least {@link #MAX_CHARS} characters, and the index of the first
+ * character is returned.
+ */
+final class DecimalChars {
+
+    /**
+     * Length of {@link Long#MIN_VALUE} in decimal.
+     */
+    static final int MAX_CHARS = 20;
+
+    /*
+     * Double.toString() switches to computerized scientific notation from
+     * this magnitude on.
+     */
+    private static final double MAX_PLAIN = 1.0E7;
+
+    private DecimalChars() {
+    }
+
+    /**
+     * @param l The number to format
+     * @param buf The array to format into
+     * @return the index of the first character
+     */
+    static int getChars(long l, char[] buf) {
+        return getChars(l, buf, buf.length);
+    }
+
+    /*
+     * Digits are computed on the negated value, which also covers
+     * Long.MIN_VALUE.
+     */
+    private static int getChars(long l, char[] buf, int end) {
+        int pos = end;
+        boolean negative = l < 0;
+        if (!negative) {
+            l = -l;
+        }
+        do {
+            long q = l / 10;
+            buf[--pos] = (char) ('0' + (q * 10 - l));
+            l = q;
+        } while (l != 0);
+        if (negative) {
+            buf[--pos] = '-';
+        }
+        return pos;
+    }
+
+    /**
+     * Only whole numbers below 10<sup>7</sup> are formatted, as the
+     * shortest representation of other values is left to
+     * {@link Double#toString(double)}. Whole float values format the same.
+     *
+     * @param d The number to format
+     * @param buf The array to format into
+     * @return the index of the first character, or -1 if the number has
+     *         not been formatted
+     */
+    static int getChars(double d, char[] buf) {
+        if (!(Math.abs(d) < MAX_PLAIN) || d != Math.rint(d)) {
+            return -1;
+        }
+        int end = buf.length;
+        buf[--end] = '0';
+        buf[--end] = '.';
+        int pos = getChars((long) Math.abs(d), buf, end);
+        if (Double.doubleToRawLongBits(d) < 0) {
+            // Including negative zero
+            buf[--pos] = '-';
+        }
+        return pos;
+    }
+
+}
@@ -37,9 +37,95 @@ public abstract class HttpJspBase extends HttpServlet implements HttpJspPage {
 
     private static final long serialVersionUID = 1L;
 
+    private boolean pooledBufferWriter = false;
+
+    private ResponseSizeHistogram responseSizes;
+
+    private boolean asyncOutput = false;
+
+    private int flushCoalescingSize = 0;
+
+    private boolean flushEarly = false;
+
+    private transient volatile PageImports imports;
+
     protected HttpJspBase() {
     }
 
+    /**
+     * Whether the output of this page is written to pooled byte buffers,
+     * see {@link PooledBufferJspWriter}.
+     */
+    public boolean isPooledBufferWriter() {
+        return pooledBufferWriter;
+    }
+
+    public void setPooledBufferWriter(boolean pooledBufferWriter) {
+        this.pooledBufferWriter = pooledBufferWriter;
+    }
+
+    /**
+     * The output sizes of this page, used to size the buffer of pages that
+     * do not set one, or <code>null</code> when buffers are not adapted.
+     */
+    public ResponseSizeHistogram getResponseSizes() {
+        return responseSizes;
+    }
+
+    public void setResponseSizes(ResponseSizeHistogram responseSizes) {
+        this.responseSizes = responseSizes;
+    }
+
+    /**
+     * Whether this page is rendered on a worker thread of an asynchronous
+     * request, its output being written without blocking, see
+     * {@link AsyncPageOutput}.
+     */
+    public boolean isAsyncOutput() {
+        return asyncOutput;
+    }
+
+    public void setAsyncOutput(boolean asyncOutput) {
+        this.asyncOutput = asyncOutput;
+    }
+
+    /**
+     * The output below which flushes requested by this page are deferred,
+     * 0 when every flush reaches the response.
+     */
+    public int getFlushCoalescingSize() {
+        return flushCoalescingSize;
+    }
+
+    public void setFlushCoalescingSize(int flushCoalescingSize) {
+        this.flushCoalescingSize = flushCoalescingSize;
+    }
+
+    /**
+     * Whether this page may write out its output after its document head,
+     * <code>false</code> when the deployment declares error pages.
+     */
+    public boolean isFlushEarly() {
+        return flushEarly;
+    }
+
+    public void setFlushEarly(boolean flushEarly) {
+        this.flushEarly = flushEarly;
+    }
+
+    /**
+     * The imports of this page, shared by the EL contexts of its requests,
+     * or <code>null</code> when the page does not give its imports.
+     */
+    PageImports getImports() {
+        PageImports result = imports;
+        if (result == null && this instanceof JspSourceImports) {
+            result = new PageImports((JspSourceImports) this);
+            imports = result;
+        }
+        return result;
+    }
+
     @Override
     public final void init(ServletConfig config)
         throws ServletException
@@ -67,7 +153,11 @@ public abstract class HttpJspBase extends HttpServlet implements HttpJspPage {
     public final void service(HttpServletRequest request, HttpServletResponse response)
         throws ServletException, IOException
     {
-        _jspService(request, response);
+        if (asyncOutput && AsyncPageOutput.canStart(request, response)) {
+            AsyncPageOutput.start(this, request, response);
+        } else {
+            _jspService(request, response);
+        }
     }
 
     @Override
@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.runtime;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.jsp.JspContext;
+import jakarta.servlet.jsp.PageContext;
+
+/**
+ * The maps of the EL implicit objects of a page context.
+ *
+ * Each map is created on first use, and kept until the page context is
+ * released, so that the expressions of a request share them. The cookies
+ * are only parsed once per request.
+ */
+public final class ImplicitObjects {
+
+    private final PageContext pageContext;
+
+    private Map<String, Object> pageScope;
+    private Map<String, Object> requestScope;
+    private Map<String, Object> sessionScope;
+    private Map<String, Object> applicationScope;
+    private Map<String, String> param;
+    private Map<String, String[]> paramValues;
+    private Map<String, String> header;
+    private Map<String, String[]> headerValues;
+    private Map<String, String> initParam;
+    private Map<String, Cookie> cookie;
+
+    ImplicitObjects(PageContext pageContext) {
+        this.pageContext = pageContext;
+    }
+
+    /**
+     * @param jspContext The page context of the page, or the JSP context of
+     *            a tag file
+     * @return the implicit objects of the context
+     */
+    public static ImplicitObjects get(JspContext jspContext) {
+        if (jspContext instanceof PageContextImpl) {
+            return ((PageContextImpl) jspContext).getImplicitObjects();
+        }
+        if (jspContext instanceof JspContextWrapper) {
+            return ((JspContextWrapper) jspContext).getImplicitObjects();
+        }
+        return new ImplicitObjects((PageContext) jspContext);
+    }
+
+    void recycle() {
+        pageScope = null;
+        requestScope = null;
+        sessionScope = null;
+        applicationScope = null;
+        param = null;
+        paramValues = null;
+        header = null;
+        headerValues = null;
+        initParam = null;
+        cookie = null;
+    }
+
+    public Map<String, Object> getPageScope() {
+        if (pageScope == null) {
+            pageScope = new EnumeratedMap<Object>(true) {
+                @Override
+                Enumeration<String> enumerateKeys() {
+                    return pageContext.getAttributeNamesInScope(PageContext.PAGE_SCOPE);
+                }
+
+                @Override
+                Object getValue(String key) {
+                    return pageContext.getAttribute(key, PageContext.PAGE_SCOPE);
+                }
+            };
+        }
+        return pageScope;
+    }
+
+    public Map<String, Object> getRequestScope() {
+        if (requestScope == null) {
+            final ServletRequest request = pageContext.getRequest();
+            requestScope = new EnumeratedMap<Object>(true) {
+                @Override
+                Enumeration<String> enumerateKeys() {
+                    return request.getAttributeNames();
+                }
+
+                @Override
+                Object getValue(String key) {
+                    return request.getAttribute(key);
+                }
+            };
+        }
+        return requestScope;
+    }
+
+    public Map<String, Object> getSessionScope() {
+        if (sessionScope == null) {
+            // The session may be created while the request is processed
+            sessionScope = new EnumeratedMap<Object>(true) {
+                @Override
+                Enumeration<String> enumerateKeys() {
+                    HttpSession session = pageContext.getSession();
+                    if (session == null) {
+                        return Collections.emptyEnumeration();
+                    }
+                    return session.getAttributeNames();
+                }
+
+                @Override
+                Object getValue(String key) {
+                    HttpSession session = pageContext.getSession();
+                    if (session == null) {
+                        return null;
+                    }
+                    return session.getAttribute(key);
+                }
+            };
+        }
+        return sessionScope;
+    }
+
+    public Map<String, Object> getApplicationScope() {
+        if (applicationScope == null) {
+            final ServletContext context = pageContext.getServletContext();
+            applicationScope = new EnumeratedMap<Object>(true) {
+                @Override
+                Enumeration<String> enumerateKeys() {
+                    return context.getAttributeNames();
+                }
+
+                @Override
+                Object getValue(String key) {
+                    return context.getAttribute(key);
+                }
+            };
+        }
+        return applicationScope;
+    }
+
+    public Map<String, String> getParam() {
+        if (param == null) {
+            final ServletRequest request = pageContext.getRequest();
+            param = new EnumeratedMap<String>(false) {
+                @Override
+                Enumeration<String> enumerateKeys() {
+                    return request.getParameterNames();
+                }
+
+                @Override
+                String getValue(String key) {
+                    return request.getParameter(key);
+                }
+            };
+        }
+        return param;
+    }
+
+    public Map<String, String[]> getParamValues() {
+        if (paramValues == null) {
+            final ServletRequest request = pageContext.getRequest();
+            paramValues = new EnumeratedMap<String[]>(false) {
+                @Override
+                Enumeration<String> enumerateKeys() {
+                    return request.getParameterNames();
+                }
+
+                @Override
+                String[] getValue(String key) {
+                    return request.getParameterValues(key);
+                }
+            };
+        }
+        return paramValues;
+    }
+
+    public Map<String, String> getHeader() {
+        if (header == null) {
+            final HttpServletRequest request = (HttpServletRequest) pageContext.getRequest();
+            header = new EnumeratedMap<String>(false) {
+                @Override
+                Enumeration<String> enumerateKeys() {
+                    return request.getHeaderNames();
+                }
+
+                @Override
+                String getValue(String key) {
+                    return request.getHeader(key);
+                }
+            };
+        }
+        return header;
+    }
+
+    public Map<String, String[]> getHeaderValues() {
+        if (headerValues == null) {
+            final HttpServletRequest request = (HttpServletRequest) pageContext.getRequest();
+            headerValues = new EnumeratedMap<String[]>(false) {
+                @Override
+                Enumeration<String> enumerateKeys() {
+                    return request.getHeaderNames();
+                }
+
+                @Override
+                String[] getValue(String key) {
+                    Enumeration<String> values = request.getHeaders(key);
+                    if (values == null || !values.hasMoreElements()) {
+                        return null;
+                    }
+                    return Collections.list(values).toArray(new String[0]);
+                }
+            };
+        }
+        return headerValues;
+    }
+
+    public Map<String, String> getInitParam() {
+        if (initParam == null) {
+            final ServletContext context = pageContext.getServletContext();
+            initParam = new EnumeratedMap<String>(false) {
+                @Override
+                Enumeration<String> enumerateKeys() {
+                    return context.getInitParameterNames();
+                }
+
+                @Override
+                String getValue(String key) {
+                    return context.getInitParameter(key);
+                }
+            };
+        }
+        return initParam;
+    }
+
+    public Map<String, Cookie> getCookie() {
+        if (cookie == null) {
+            // The first cookie of a given name is returned
+            Map<String, Cookie> cookies = new HashMap<>();
+            Cookie[] array = ((HttpServletRequest) pageContext.getRequest()).getCookies();
+            if (array != null) {
+                for (Cookie c : array) {
+                    cookies.putIfAbsent(c.getName(), c);
+                }
+            }
+            cookie = cookies;
+        }
+        return cookie;
+    }
+
+    /*
+     * A read-only map looking up the values of its keys on access. The
+     * other operations go through a copy of the map, which is kept unless
+     * the underlying data may change.
+     */
+    private abstract static class EnumeratedMap<V> extends AbstractMap<String, V> {
+
+        private final boolean mutable;
+        private Map<String, V> map;
+
+        EnumeratedMap(boolean mutable) {
+            this.mutable = mutable;
+        }
+
+        abstract Enumeration<String> enumerateKeys();
+
+        abstract V getValue(String key);
+
+        @Override
+        public V get(Object key) {
+            if (key instanceof String) {
+                return getValue((String) key);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !enumerateKeys().hasMoreElements();
+        }
+
+        @Override
+        public Set<Map.Entry<String, V>> entrySet() {
+            return getAsMap().entrySet();
+        }
+
+        private Map<String, V> getAsMap() {
+            Map<String, V> result = map;
+            if (result == null) {
+                result = new HashMap<>();
+                Enumeration<String> keys = enumerateKeys();
+                while (keys.hasMoreElements()) {
+                    String key = keys.nextElement();
+                    V value = getValue(key);
+                    if (value != null) {
+                        result.put(key, value);
+                    }
+                }
+                result = Collections.unmodifiableMap(result);
+                if (!mutable) {
+                    map = result;
+                }
+            }
+            return result;
+        }
+
+    }
+
+}
@@ -54,6 +54,9 @@ public class JspApplicationContextImpl implements JspApplicationContext {
 
     private final List<ELResolver> resolvers = new ArrayList<>();
 
+    // Whether all the resolvers were added as never resolving identifiers
+    private boolean propertyResolversOnly = true;
+
     private boolean instantiated = false;
 
     private ELResolver resolver;
@@ -104,6 +107,25 @@ public class JspApplicationContextImpl implements JspApplicationContext {
         return ctx;
     }
 
+    /**
+     * Get an EL context for a page context, reusing the context of a
+     * previous request when it was created by this application and no
+     * listener has to be told about a new context.
+     *
+     * @param context The page context
+     * @param recycled The EL context recycled with the page context, may be
+     *            <code>null</code>
+     * @return the EL context
+     */
+    public ELContextImpl createELContext(JspContext context, ELContextImpl recycled) {
+        if (recycled != null && this.contextListeners.isEmpty()
+                && recycled.getELResolver() == this.resolver
+                && recycled.getContext(JspContext.class) == context) {
+            return recycled;
+        }
+        return createELContext(context);
+    }
+
     protected void fireListeners(ELContext elContext) {
         ELContextEvent event = new ELContextEvent(elContext);
         for (ELContextListener contextListener : this.contextListeners) {
@@ -115,7 +137,8 @@ public class JspApplicationContextImpl implements JspApplicationContext {
         this.instantiated = true;
         if (this.resolver == null) {
             CompositeELResolver r = new JasperELResolver(this.resolvers,
-                    expressionFactory.getStreamELResolver());
+                    expressionFactory.getStreamELResolver(),
+                    propertyResolversOnly);
             this.resolver = r;
         }
         return this.resolver;
@@ -130,6 +153,27 @@ public class JspApplicationContextImpl implements JspApplicationContext {
             throw MESSAGES.cannotAddElResolver();
         }
         this.resolvers.add(resolver);
+        this.propertyResolversOnly = false;
+    }
+
+    /**
+     * Add a resolver that never resolves identifiers, only properties of a
+     * base object. Identifiers keep being looked up directly in the scoped
+     * attributes, which resolvers added with
+     * {@link #addELResolver(ELResolver)} prevent, as they could resolve
+     * them.
+     *
+     * @param resolver The resolver
+     * @throws IllegalStateException if EL contexts were already created
+     */
+    public void addPropertyELResolver(ELResolver resolver) throws IllegalStateException {
+        if (resolver == null) {
+            throw MESSAGES.nullElResolver();
+        }
+        if (this.instantiated) {
+            throw MESSAGES.cannotAddElResolver();
+        }
+        this.resolvers.add(resolver);
     }
 
     @Override
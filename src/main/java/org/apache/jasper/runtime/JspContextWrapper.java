@@ -95,6 +95,8 @@ public class JspContextWrapper extends PageContext implements VariableResolver {
 
     private ELContext elContext = null;
 
+    private ImplicitObjects implicitObjects = null;
+
     private final PageContext rootJspCtxt;
 
     public JspContextWrapper(JspTag jspTag, JspContext jspContext,
@@ -514,6 +516,13 @@ public class JspContextWrapper extends PageContext implements VariableResolver {
     }
 
 
+    ImplicitObjects getImplicitObjects() {
+        if (implicitObjects == null) {
+            implicitObjects = new ImplicitObjects(this);
+        }
+        return implicitObjects;
+    }
+
     static class ELContextWrapper extends ELContext {
 
         private final ELContext wrapped;
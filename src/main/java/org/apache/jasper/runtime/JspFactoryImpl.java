@@ -19,6 +19,10 @@ package org.apache.jasper.runtime;
 import java.io.IOException;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
 import jakarta.servlet.Servlet;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletRequest;
@@ -34,6 +38,14 @@ import org.apache.jasper.JasperLogger;
 /**
  * Implementation of JspFactory.
  *
+ * Page contexts are pooled, by default in a pool per thread. As threads
+ * that are created per request, such as virtual threads, would never reuse
+ * them, the pool can instead be shared by all threads, or split in stripes
+ * picked from the current thread, by setting the
+ * <code>org.apache.jasper.runtime.JspFactoryImpl.POOL_STRATEGY</code>
+ * system property to <code>thread</code>, <code>shared</code> or
+ * <code>striped</code>.
+ *
  * @author Anil K. Vijendran
  */
 public class JspFactoryImpl extends JspFactory {
@@ -44,7 +56,41 @@ public class JspFactoryImpl extends JspFactory {
     private static final int POOL_SIZE =
         Integer.valueOf(System.getProperty("org.apache.jasper.runtime.JspFactoryImpl.POOL_SIZE", "8")).intValue();
 
-    private final ThreadLocal<PageContextPool> localPool = new ThreadLocal<>();
+    private static final String POOL_STRATEGY =
+        System.getProperty("org.apache.jasper.runtime.JspFactoryImpl.POOL_STRATEGY", "thread");
+
+    private final PageContextPool pool = USE_POOL ? createPool(POOL_STRATEGY) : null;
+    private final LongAdder poolHits = new LongAdder();
+    private final LongAdder poolMisses = new LongAdder();
+
+    private static PageContextPool createPool(String strategy) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        if ("shared".equals(strategy)) {
+            return new SharedPool(POOL_SIZE * processors);
+        } else if ("striped".equals(strategy)) {
+            return new StripedPool(processors);
+        } else {
+            if (!"thread".equals(strategy)) {
+                JasperLogger.ROOT_LOGGER.invalidPoolStrategy(strategy);
+            }
+            return new ThreadLocalPool();
+        }
+    }
+
+    /**
+     * @return the number of page contexts that were taken from the pool
+     */
+    public long getPoolHits() {
+        return poolHits.sum();
+    }
+
+    /**
+     * @return the number of page contexts that had to be created, as none
+     *         was available in the pool
+     */
+    public long getPoolMisses() {
+        return poolMisses.sum();
+    }
 
     @Override
     public PageContext getPageContext(Servlet servlet, ServletRequest request,
@@ -92,14 +138,12 @@ public class JspFactoryImpl extends JspFactory {
 
             PageContext pc;
             if (USE_POOL) {
-                PageContextPool pool = localPool.get();
-                if (pool == null) {
-                    pool = new PageContextPool();
-                    localPool.set(pool);
-                }
                 pc = pool.get();
                 if (pc == null) {
+                    poolMisses.increment();
                     pc = new PageContextImpl();
+                } else {
+                    poolHits.increment();
                 }
             } else {
                 pc = new PageContextImpl();
@@ -120,7 +164,7 @@ public class JspFactoryImpl extends JspFactory {
     private void internalReleasePageContext(PageContext pc) {
         pc.release();
         if (USE_POOL && (pc instanceof PageContextImpl)) {
-            localPool.get().put(pc);
+            pool.put(pc);
         }
     }
 
@@ -175,27 +219,69 @@ public class JspFactoryImpl extends JspFactory {
         }
     }
 
-    private static final class PageContextPool  {
+    private interface PageContextPool {
+
+        /**
+         * @return a released page context, or <code>null</code>
+         */
+        PageContext get();
+
+        /**
+         * Keep a released page context, unless the pool is full.
+         */
+        void put(PageContext o);
+
+    }
+
+    /**
+     * One stack per thread, not shared with other threads.
+     */
+    private static final class ThreadLocalPool implements PageContextPool {
+
+        private final ThreadLocal<Stack> localPool = new ThreadLocal<>();
+
+        @Override
+        public PageContext get() {
+            Stack stack = localPool.get();
+            if (stack == null) {
+                stack = new Stack();
+                localPool.set(stack);
+            }
+            return stack.get();
+        }
+
+        @Override
+        public void put(PageContext o) {
+            Stack stack = localPool.get();
+            if (stack != null) {
+                stack.put(o);
+            }
+        }
+
+    }
+
+    private static final class Stack {
 
         private final PageContext[] pool;
 
         private int current = -1;
 
-        public PageContextPool() {
+        Stack() {
             this.pool = new PageContext[POOL_SIZE];
         }
 
-        public void put(PageContext o) {
+        void put(PageContext o) {
             if (current < (POOL_SIZE - 1)) {
                 current++;
                 pool[current] = o;
             }
         }
 
-        public PageContext get() {
+        PageContext get() {
             PageContext item = null;
             if (current >= 0) {
                 item = pool[current];
+                pool[current] = null;
                 current--;
             }
             return item;
@@ -203,6 +289,89 @@ public class JspFactoryImpl extends JspFactory {
 
     }
 
+    /**
+     * Bounded pool that any thread can use without locking. Page contexts
+     * are kept in slots that are taken and filled by compare and set, the
+     * scan starting from a random slot so that threads do not all contend
+     * on the first ones.
+     */
+    private static final class SharedPool implements PageContextPool {
+
+        private final AtomicReferenceArray<PageContext> slots;
+
+        SharedPool(int size) {
+            this.slots = new AtomicReferenceArray<>(Math.max(size, 1));
+        }
+
+        @Override
+        public PageContext get() {
+            return get(ThreadLocalRandom.current().nextInt(slots.length()));
+        }
+
+        PageContext get(int start) {
+            int length = slots.length();
+            for (int i = 0, j = start; i < length; i++, j = (j + 1 == length) ? 0 : j + 1) {
+                PageContext item = slots.get(j);
+                if (item != null && slots.compareAndSet(j, item, null)) {
+                    return item;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void put(PageContext o) {
+            put(o, ThreadLocalRandom.current().nextInt(slots.length()));
+        }
+
+        void put(PageContext o, int start) {
+            int length = slots.length();
+            for (int i = 0, j = start; i < length; i++, j = (j + 1 == length) ? 0 : j + 1) {
+                if (slots.get(j) == null && slots.compareAndSet(j, null, o)) {
+                    return;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Shared pools, one per processor, picked from the identifier of the
+     * current thread. The scan of a stripe starts at its first slot, so
+     * that a thread mostly gets back the page context it released.
+     */
+    private static final class StripedPool implements PageContextPool {
+
+        private final SharedPool[] stripes;
+        private final int mask;
+
+        StripedPool(int processors) {
+            int count = Integer.highestOneBit(Math.max(processors, 1) * 2 - 1);
+            this.stripes = new SharedPool[count];
+            for (int i = 0; i < count; i++) {
+                stripes[i] = new SharedPool(POOL_SIZE);
+            }
+            this.mask = count - 1;
+        }
+
+        private SharedPool stripe() {
+            long id = Thread.currentThread().getId();
+            int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+            return stripes[(h ^ (h >>> 16)) & mask];
+        }
+
+        @Override
+        public PageContext get() {
+            return stripe().get(0);
+        }
+
+        @Override
+        public void put(PageContext o) {
+            stripe().put(o, 0);
+        }
+
+    }
+
     @Override
     public JspApplicationContext getJspApplicationContext(
             final ServletContext context) {
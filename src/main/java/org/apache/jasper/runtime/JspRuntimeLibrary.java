@@ -876,6 +876,45 @@ public class JspRuntimeLibrary {
     }
 
 
+    /**
+     * Write a segment of pre-encoded template text. Only the page's own
+     * {@link JspWriterImpl} can make use of the encoded bytes, any other
+     * writer (body content, include wrappers) gets the characters.
+     *
+     * @param out The Writer to whom we are currently writing
+     * @param text The pre-encoded text
+     *
+     * @exception IOException if an I/O error occurs
+     */
+    public static void write(JspWriter out, PreEncodedText text)
+        throws IOException {
+        if (out instanceof JspWriterImpl) {
+            ((JspWriterImpl) out).write(text);
+        } else {
+            out.write(text.getChars());
+        }
+    }
+
+    /**
+     * Write out the output of the page so far, unless the response has
+     * already been committed or the page writer does not allow it, as the
+     * deployment declares error pages, which could no longer be forwarded to
+     * if the page failed afterwards. Called by pages compiled to flush after
+     * their document head, the flush is never deferred.
+     *
+     * @param out The Writer to whom we are currently writing
+     * @param response The servlet response we are processing
+     *
+     * @exception IOException if an I/O error occurs
+     */
+    public static void flushEarly(JspWriter out, ServletResponse response)
+        throws IOException {
+        if (out instanceof JspWriterImpl && ((JspWriterImpl) out).isFlushEarly()
+                && !response.isCommitted()) {
+            ((JspWriterImpl) out).flushOut();
+        }
+    }
+
     /**
      * Perform a RequestDispatcher.include() operation, with optional flushing
      * of the response beforehand.
@@ -21,7 +21,15 @@ import static org.apache.jasper.JasperMessages.MESSAGES;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.ServletResponse;
+import jakarta.servlet.ServletResponseWrapper;
 import jakarta.servlet.jsp.JspWriter;
 
 import org.apache.jasper.Constants;
@@ -48,6 +56,45 @@ public class JspWriterImpl extends JspWriter {
     private boolean flushed = false;
     private boolean closed = false;
 
+    /*
+     * Byte output, used once pre-encoded template text has been written and
+     * the response charset matches the one the text was encoded with. The
+     * buffered content is then bb[0..nextByte) followed by cb[0..nextChar),
+     * which is also the case until the next flush once output falls back
+     * to characters.
+     */
+    private static final int OUTPUT_UNDECIDED = 0;
+    private static final int OUTPUT_CHARS = 1;
+    private static final int OUTPUT_BYTES = 2;
+    private int outputMode = OUTPUT_UNDECIDED;
+    private ServletOutputStream os;
+    private CharsetEncoder encoder;
+    private byte bb[];
+    private int nextByte;
+
+    /*
+     * Characters, or bytes, written out so far.
+     */
+    private long outputSize;
+
+    /*
+     * Flushes requested by the page are deferred while less than
+     * flushCoalescingSize has been output since the last one that reached
+     * the response, at flushedSize. Disabled when flushCoalescingSize is 0.
+     */
+    private int flushCoalescingSize;
+    private long flushedSize;
+
+    /*
+     * Whether the page may be flushed after its document head.
+     */
+    private boolean flushEarly;
+
+    /*
+     * Numbers are formatted here rather than into a String.
+     */
+    private final char[] number = new char[DecimalChars.MAX_CHARS];
+
     public JspWriterImpl() {
         super( Constants.DEFAULT_BUFFER_SIZE, true );
     }
@@ -86,24 +133,170 @@ public class JspWriterImpl extends JspWriter {
         flushed = false;
         closed = false;
         out = null;
+        os = null;
+        outputMode = OUTPUT_UNDECIDED;
         nextChar = 0;
+        nextByte = 0;
+        outputSize = 0;
+        flushCoalescingSize = 0;
+        flushEarly = false;
         response = null;
     }
 
+    /**
+     * Defer the flushes requested by the page until the given amount of
+     * output has been written since the last flush that reached the
+     * response. Deferred flushes are not made on their own later on: the
+     * output is written out by the next flush that is not deferred, when
+     * the buffer fills up, or at the end of the page.
+     *
+     * @param size The output size, 0 to have every flush reach the response
+     */
+    void setFlushCoalescingSize(int size) {
+        this.flushCoalescingSize = size;
+        this.flushedSize = 0;
+    }
+
+    /**
+     * Allow the page to write out its output after its document head, see
+     * {@link JspRuntimeLibrary#flushEarly(JspWriter, ServletResponse)}.
+     */
+    void setFlushEarly(boolean flushEarly) {
+        this.flushEarly = flushEarly;
+    }
+
+    final boolean isFlushEarly() {
+        return flushEarly;
+    }
+
+    /**
+     * Whether a flush requested by the page is to be deferred. The buffer is
+     * then considered as flushed, so that it can no longer be cleared.
+     */
+    final boolean deferFlush() {
+        if (flushCoalescingSize <= 0) {
+            return false;
+        }
+        long size = getOutputSize();
+        if (size - flushedSize < flushCoalescingSize) {
+            return true;
+        }
+        flushedSize = size;
+        return false;
+    }
+
+    /**
+     * @return the amount of output written by the page, flushed or still
+     *         buffered
+     */
+    long getOutputSize() {
+        return outputSize + nextChar + nextByte;
+    }
+
+    /*
+     * State shared with the subclasses writing the output their own way.
+     */
+
+    protected final ServletResponse getResponse() {
+        return response;
+    }
+
+    protected final void markFlushed() {
+        flushed = true;
+    }
+
+    protected final void addOutputSize(long size) {
+        outputSize += size;
+    }
+
+    /**
+     * Take the characters buffered, which are no longer counted in the
+     * buffer. They are only valid until the next write.
+     *
+     * @return the characters, or <code>null</code> when none are buffered
+     */
+    protected final CharBuffer takeChars() {
+        if (nextChar == 0) {
+            return null;
+        }
+        CharBuffer chars = CharBuffer.wrap(cb, 0, nextChar);
+        nextChar = 0;
+        return chars;
+    }
+
+    /**
+     * Obtain the output stream of the response, unless a writer is already
+     * in use for it.
+     *
+     * @return the output stream, or <code>null</code> when the writer has
+     *         to be used instead
+     */
+    protected final ServletOutputStream openStream() throws IOException {
+        if (os == null && out == null) {
+            try {
+                os = response.getOutputStream();
+            } catch (IllegalStateException e) {
+                initOut();
+            }
+        }
+        return os;
+    }
+
+    protected final Writer openWriter() throws IOException {
+        initOut();
+        return out;
+    }
+
+    /**
+     * Write characters at least as large as the buffer, once it has been
+     * flushed.
+     */
+    void writeThrough(char cbuf[], int off, int len) throws IOException {
+        initOut();
+        out.write(cbuf, off, len);
+        outputSize += len;
+    }
+
+    /**
+     * Flush the buffer at the end of the output of the page, where a high
+     * surrogate can no longer be completed and is written as the
+     * replacement of the encoder.
+     */
+    void finishBuffer() throws IOException {
+        flushBuffer(true);
+    }
+
     /**
      * Flush the output buffer to the underlying character stream, without
      * flushing the stream itself.  This method is non-private only so that it
      * may be invoked by PrintStream.
      */
-    protected final void flushBuffer() throws IOException {
+    protected void flushBuffer() throws IOException {
+        flushBuffer(false);
+    }
+
+    private void flushBuffer(boolean endOfInput) throws IOException {
         if (bufferSize == 0)
             return;
         flushed = true;
         ensureOpen();
+        if (outputMode == OUTPUT_BYTES && checkCharset()) {
+            encodeChars(endOfInput);
+            if (outputMode == OUTPUT_BYTES) {
+                writeBytes();
+            }
+            if (outputMode == OUTPUT_BYTES) {
+                return;
+            }
+        }
+        if (nextByte > 0) {
+            writeDecodedBytes();
+        }
         if (nextChar == 0)
             return;
         initOut();
         out.write(cb, 0, nextChar);
+        outputSize += nextChar;
         nextChar = 0;
     }
 
@@ -113,11 +306,215 @@ public class JspWriterImpl extends JspWriter {
         }
     }
 
+    /**
+     * Write pre-encoded template text. The bytes are used as is when the
+     * response is written as bytes in the same charset, otherwise the
+     * characters are written as usual.
+     *
+     * @param text The pre-encoded text
+     */
+    public void write(PreEncodedText text) throws IOException {
+        ensureOpen();
+        if (outputMode == OUTPUT_UNDECIDED) {
+            outputMode = canWriteBytes(text.getCharset()) ? OUTPUT_BYTES : OUTPUT_CHARS;
+        }
+        if (outputMode == OUTPUT_BYTES && text.getBytes() != null
+                && text.getCharset().equals(encoder.charset())) {
+            // A high surrogate followed by the bytes can no longer be completed
+            encodeChars(true);
+            byte[] bytes = text.getBytes();
+            if (outputMode == OUTPUT_BYTES && bytes.length > bb.length - nextByte) {
+                flushBuffer();
+                if (outputMode == OUTPUT_BYTES && bytes.length >= bb.length) {
+                    if (initStream()) {
+                        os.write(bytes, 0, bytes.length);
+                        outputSize += bytes.length;
+                        return;
+                    }
+                }
+            }
+            if (outputMode == OUTPUT_BYTES) {
+                System.arraycopy(bytes, 0, bb, nextByte, bytes.length);
+                nextByte += bytes.length;
+                return;
+            }
+        }
+        write(text.getChars());
+    }
+
+    /*
+     * Only buffered, auto flushed output is switched to bytes, so that the
+     * byte buffer may always be written out when it fills up. The response
+     * must not be wrapped (filters, includes) and no writer may have been
+     * obtained yet for this page.
+     */
+    private boolean canWriteBytes(Charset charset) {
+        if (bufferSize == 0 || !autoFlush || out != null || flushed
+                || response instanceof ServletResponseWrapper) {
+            return false;
+        }
+        if (!isCharset(response.getCharacterEncoding(), charset)) {
+            return false;
+        }
+        if (encoder == null || !encoder.charset().equals(charset)) {
+            encoder = charset.newEncoder();
+        } else {
+            encoder.reset();
+        }
+        // Nothing is replaced until the charset is fixed, see checkCharset()
+        encoder.onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        if (bb == null || bb.length < bufferSize) {
+            bb = new byte[bufferSize];
+        }
+        nextByte = 0;
+        return true;
+    }
+
+    private static boolean isCharset(String enc, Charset charset) {
+        if (enc == null) {
+            return false;
+        }
+        if (!enc.equalsIgnoreCase(charset.name())) {
+            try {
+                return charset.equals(Charset.forName(enc));
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keep the charset of the response the one the output is written in,
+     * as the charset is kept once the writer of the response is obtained.
+     *
+     * @param charset The charset of the bytes written out
+     */
+    protected final void keepCharset(Charset charset) {
+        if (!response.isCommitted()
+                && !isCharset(response.getCharacterEncoding(), charset)) {
+            response.setCharacterEncoding(charset.name());
+        }
+    }
+
+    /*
+     * Until the buffer is first flushed the page may still change the
+     * charset of the response, as it may until the writer of the response
+     * is obtained. The buffered bytes are then decoded and output carries
+     * on with characters; nothing was replaced while encoding them, so
+     * nothing is lost. Once flushed the charset is fixed.
+     */
+    private boolean checkCharset() {
+        if (os != null) {
+            keepCharset(encoder.charset());
+            return true;
+        }
+        if (!isCharset(response.getCharacterEncoding(), encoder.charset())) {
+            outputMode = OUTPUT_CHARS;
+            return false;
+        }
+        // Fixed by this flush, as it is when the writer is obtained
+        replaceUnmappable();
+        return true;
+    }
+
+    private void replaceUnmappable() {
+        encoder.onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /*
+     * The output stream is only obtained when bytes are first written out,
+     * so that a forward before that point is unaffected. Should a writer
+     * already be in use for the response, the buffered bytes are decoded
+     * and output carries on with characters.
+     */
+    private boolean initStream() throws IOException {
+        if (os != null) {
+            return true;
+        }
+        if (openStream() == null) {
+            writeDecodedBytes();
+            outputMode = OUTPUT_CHARS;
+            return false;
+        }
+        replaceUnmappable();
+        return true;
+    }
+
+    private void writeDecodedBytes() throws IOException {
+        initOut();
+        out.write(new String(bb, 0, nextByte, encoder.charset()));
+        outputSize += nextByte;
+        nextByte = 0;
+    }
+
+    /*
+     * Encode the buffered characters after the buffered bytes, writing the
+     * byte buffer out whenever it fills up. A trailing high surrogate is kept
+     * in the character buffer until its pair arrives, unless this is the end
+     * of the input. Characters that cannot be encoded before the charset is
+     * fixed are left buffered, and output carries on with characters.
+     */
+    private void encodeChars(boolean endOfInput) throws IOException {
+        if (nextChar == 0) {
+            return;
+        }
+        CharBuffer chars = CharBuffer.wrap(cb, 0, nextChar);
+        ByteBuffer bytes = ByteBuffer.wrap(bb, nextByte, bb.length - nextByte);
+        boolean flushing = false;
+        while (true) {
+            CoderResult result = flushing ? encoder.flush(bytes)
+                    : encoder.encode(chars, bytes, endOfInput);
+            if (endOfInput && !flushing && result.isUnderflow()) {
+                flushing = true;
+                result = encoder.flush(bytes);
+            }
+            nextByte = bytes.position();
+            if (result.isError()) {
+                outputMode = OUTPUT_CHARS;
+                break;
+            }
+            if (!result.isOverflow()) {
+                if (endOfInput) {
+                    encoder.reset();
+                }
+                break;
+            }
+            writeBytes();
+            if (outputMode != OUTPUT_BYTES) {
+                out.write(cb, chars.position(), chars.remaining());
+                outputSize += chars.remaining();
+                nextChar = 0;
+                return;
+            }
+            bytes = ByteBuffer.wrap(bb, 0, bb.length);
+        }
+        int remaining = chars.remaining();
+        if (remaining > 0) {
+            System.arraycopy(cb, chars.position(), cb, 0, remaining);
+        }
+        nextChar = remaining;
+    }
+
+    private void writeBytes() throws IOException {
+        flushed = true;
+        if (nextByte == 0) {
+            return;
+        }
+        if (initStream()) {
+            os.write(bb, 0, nextByte);
+            outputSize += nextByte;
+            nextByte = 0;
+        }
+    }
+
     /**
      * Discard the output buffer.
      */
     @Override
-    public final void clear() throws IOException {
+    public void clear() throws IOException {
         if ((bufferSize == 0) && (out != null))
             // clear() is illegal after any unbuffered output (JSP.5.5)
             throw MESSAGES.cannotClearWithNoBuffer();
@@ -125,6 +522,7 @@ public class JspWriterImpl extends JspWriter {
             throw MESSAGES.cannotClearAfterFlush();
         ensureOpen();
         nextChar = 0;
+        nextByte = 0;
     }
 
     @Override
@@ -133,6 +531,7 @@ public class JspWriterImpl extends JspWriter {
             throw MESSAGES.cannotClearWithNoBuffer();
         ensureOpen();
         nextChar = 0;
+        nextByte = 0;
     }
     
     private final void bufferOverflow() throws IOException {
@@ -145,7 +544,21 @@ public class JspWriterImpl extends JspWriter {
      */
     @Override
     public void flush()  throws IOException {
+        if (deferFlush()) {
+            flushed = true;
+            return;
+        }
+        flushOut();
+    }
+
+    /**
+     * Flush the buffer and the stream, ignoring flush coalescing.
+     */
+    void flushOut() throws IOException {
         flushBuffer();
+        if (os != null) {
+            os.flush();
+        }
         if (out != null) {
             out.flush();
         }
@@ -160,10 +573,16 @@ public class JspWriterImpl extends JspWriter {
         if (response == null || closed)
             // multiple calls to close is OK
             return;
+        // Nothing is deferred past the end of the output
+        setFlushCoalescingSize(0);
+        finishBuffer();
         flush();
+        if (os != null)
+            os.close();
         if (out != null)
             out.close();
         out = null;
+        os = null;
         closed = true;
     }
 
@@ -172,11 +591,12 @@ public class JspWriterImpl extends JspWriter {
      */
     @Override
     public int getRemaining() {
-        return bufferSize - nextChar;
+        int remaining = bufferSize - nextChar - nextByte;
+        return remaining < 0 ? 0 : remaining;
     }
 
     /** check to make sure that the stream has not been closed */
-    private void ensureOpen() throws IOException {
+    protected final void ensureOpen() throws IOException {
         if (response == null || closed)
             throw new IOException(MESSAGES.streamClosed());
     }
@@ -244,7 +664,7 @@ public class JspWriterImpl extends JspWriter {
             return;
         }
 
-        if (len >= bufferSize) {
+        if (len >= bufferSize && outputMode != OUTPUT_BYTES) {
             /* If the request length exceeds the size of the output buffer,
              flush the buffer and then write the data directly.  In this
              way buffered streams will cascade harmlessly. */
@@ -252,8 +672,7 @@ public class JspWriterImpl extends JspWriter {
                 flushBuffer();
             else
                 bufferOverflow();
-            initOut();
-            out.write(cbuf, off, len);
+            writeThrough(cbuf, off, len);
             return;
         }
 
@@ -351,7 +770,7 @@ public class JspWriterImpl extends JspWriter {
      */
     @Override
     public void print(char c) throws IOException {
-        write(String.valueOf(c));
+        write(c);
     }
 
     /**
@@ -365,7 +784,7 @@ public class JspWriterImpl extends JspWriter {
      */
     @Override
     public void print(int i) throws IOException {
-        write(String.valueOf(i));
+        print((long) i);
     }
 
     /**
@@ -379,7 +798,8 @@ public class JspWriterImpl extends JspWriter {
      */
     @Override
     public void print(long l) throws IOException {
-        write(String.valueOf(l));
+        int start = DecimalChars.getChars(l, number);
+        write(number, start, number.length - start);
     }
 
     /**
@@ -393,7 +813,12 @@ public class JspWriterImpl extends JspWriter {
      */
     @Override
     public void print(float f) throws IOException {
-        write(String.valueOf(f));
+        int start = DecimalChars.getChars(f, number);
+        if (start < 0) {
+            write(String.valueOf(f));
+        } else {
+            write(number, start, number.length - start);
+        }
     }
 
     /**
@@ -407,7 +832,12 @@ public class JspWriterImpl extends JspWriter {
      */
     @Override
     public void print(double d) throws IOException {
-        write(String.valueOf(d));
+        int start = DecimalChars.getChars(d, number);
+        if (start < 0) {
+            write(String.valueOf(d));
+        } else {
+            write(number, start, number.length - start);
+        }
     }
 
     /**
@@ -25,9 +25,11 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
 
 import jakarta.el.ELContext;
@@ -100,6 +102,11 @@ public class PageContextImpl extends PageContext {
 
 	private transient ELContextImpl elContext;
 
+	// EL context of the previous request, reused if possible
+	private transient ELContextImpl recycledELContext;
+
+	private final transient ImplicitObjects implicitObjects;
+
 	private boolean isIncluded;
 
 
@@ -108,12 +115,22 @@ public class PageContextImpl extends PageContext {
 
 	private transient JspWriterImpl baseOut;
 
+	private transient JspWriterImpl charOut;
+
+	private transient PooledBufferJspWriter pooledOut;
+
+	private transient ResponseSizeHistogram responseSizes;
+
+	// Arrays kept for reuse by the bodies of the page
+	private final transient List<char[]> bodyArrays = new ArrayList<>();
+
 	/*
 	 * Constructor.
 	 */
 	PageContextImpl() {
 		this.outs = new BodyContentImpl[0];
         this.attributes = new HashMap<>(16);
+		this.implicitObjects = new ImplicitObjects(this);
 		this.depth = -1;
 	}
 
@@ -142,13 +159,46 @@ public class PageContextImpl extends PageContext {
 
 		// initialize the initial out ...
 		depth = -1;
+		// Unbuffered pages and pages that must not flush keep their size
+		if (bufferSize != 0 && autoFlush && servlet instanceof HttpJspBase) {
+			this.responseSizes = ((HttpJspBase) servlet).getResponseSizes();
+		}
+		int adaptedSize = responseSizes == null ? 0 : responseSizes.getBufferSize();
         if (bufferSize == JspWriter.DEFAULT_BUFFER) {
-            bufferSize = Constants.DEFAULT_BUFFER_SIZE;
+            bufferSize = adaptedSize > 0 ? adaptedSize : Constants.DEFAULT_BUFFER_SIZE;
+        } else if (adaptedSize > bufferSize) {
+            bufferSize = adaptedSize;
         }
-		if (this.baseOut == null) {
-			this.baseOut = new JspWriterImpl(response, bufferSize, autoFlush);
+		// Pages rendered asynchronously, or forwarded to from one, always
+		// hand pooled buffers to the non-blocking output
+		AsyncPageOutput asyncOutput = PooledBufferJspWriter.canWrite(response)
+				? AsyncPageOutput.get(request) : null;
+		if (asyncOutput != null) {
+			if (this.pooledOut == null) {
+				this.pooledOut = new PooledBufferJspWriter();
+			}
+			this.pooledOut.init(response, Math.max(bufferSize, 1), autoFlush, asyncOutput);
+			this.baseOut = this.pooledOut;
+		} else if (bufferSize > 0 && servlet instanceof HttpJspBase
+				&& ((HttpJspBase) servlet).isPooledBufferWriter()
+				&& PooledBufferJspWriter.canWrite(response)) {
+			if (this.pooledOut == null) {
+				this.pooledOut = new PooledBufferJspWriter();
+			}
+			this.pooledOut.init(response, bufferSize, autoFlush);
+			this.baseOut = this.pooledOut;
 		} else {
-			this.baseOut.init(response, bufferSize, autoFlush);
+			if (this.charOut == null) {
+				this.charOut = new JspWriterImpl(response, bufferSize, autoFlush);
+			} else {
+				this.charOut.init(response, bufferSize, autoFlush);
+			}
+			this.baseOut = this.charOut;
+		}
+		if (servlet instanceof HttpJspBase) {
+			baseOut.setFlushCoalescingSize(
+					((HttpJspBase) servlet).getFlushCoalescingSize());
+			baseOut.setFlushEarly(((HttpJspBase) servlet).isFlushEarly());
 		}
 		this.out = baseOut;
 
@@ -182,7 +232,10 @@ public class PageContextImpl extends PageContext {
 				// Do not flush the buffer even if we're not included (i.e.
 				// we are the main page. The servlet will flush it and close
 				// the stream.
-				((JspWriterImpl) out).flushBuffer();
+				((JspWriterImpl) out).finishBuffer();
+			}
+			if (responseSizes != null) {
+				responseSizes.record(baseOut.getOutputSize());
 			}
 		} catch (IOException ex) {
             throw MESSAGES.errorFlushingData(ex);
@@ -191,14 +244,19 @@ public class PageContextImpl extends PageContext {
 		    config = null;
 		    context = null;
 		    applicationContext = null;
+		    if (elContext != null && elContext.recycle()) {
+		        recycledELContext = elContext;
+		    }
 		    elContext = null;
 		    errorPageURL = null;
 		    request = null;
 		    response = null;
 		    depth = -1;
+		    responseSizes = null;
 		    baseOut.recycle();
 		    session = null;
 		    attributes.clear();
+		    implicitObjects.recycle();
             for (BodyContentImpl body: outs) {
                 body.recycle();
             }
@@ -742,7 +800,7 @@ public class PageContextImpl extends PageContext {
 			for (int i = 0; i < outs.length; i++) {
 				newOuts[i] = outs[i];
 			}
-			newOuts[depth] = new BodyContentImpl(out);
+			newOuts[depth] = new BodyContentImpl(out, bodyArrays);
 			outs = newOuts;
 		}
 
@@ -914,27 +972,36 @@ public class PageContextImpl extends PageContext {
 			throws ELException {
         final ExpressionFactory exprFactory = jspf.getJspApplicationContext(pageContext.getServletContext()).getExpressionFactory();
         ELContext ctx = pageContext.getELContext();
-        ELContextImpl ctxImpl;
-        if (ctx instanceof ELContextWrapper) {
-            ctxImpl = (ELContextImpl) ((ELContextWrapper) ctx).getWrappedELContext();
-        } else {
-            ctxImpl = (ELContextImpl) ctx;
-        }
+        ELContextImpl ctxImpl = getELContextImpl(ctx);
         ctxImpl.setFunctionMapper(functionMap);
 		ValueExpression ve = exprFactory.createValueExpression(ctx, expression, expectedType);
         return ve.getValue(ctx);
 	}
 
+    ImplicitObjects getImplicitObjects() {
+        return implicitObjects;
+    }
+
+    static ELContextImpl getELContextImpl(ELContext ctx) {
+        if (ctx instanceof ELContextWrapper) {
+            return (ELContextImpl) ((ELContextWrapper) ctx).getWrappedELContext();
+        }
+        return (ELContextImpl) ctx;
+    }
+
     @Override
     public ELContext getELContext() {
         if (elContext == null) {
-            elContext = applicationContext.createELContext(this);
-            if (servlet instanceof JspSourceDirectives) {
-                if (((JspSourceDirectives) servlet).getErrorOnELNotFound()) {
-                    elContext.putContext(NotFoundELResolver.class, Boolean.TRUE);
-                }
-            }
-            if (servlet instanceof JspSourceImports) {
+            elContext = applicationContext.createELContext(this, recycledELContext);
+            recycledELContext = null;
+            boolean errorOnELNotFound = servlet instanceof JspSourceDirectives
+                    && ((JspSourceDirectives) servlet).getErrorOnELNotFound();
+            elContext.putContext(NotFoundELResolver.class, Boolean.valueOf(errorOnELNotFound));
+            PageImports imports = servlet instanceof HttpJspBase
+                    ? ((HttpJspBase) servlet).getImports() : null;
+            if (imports != null) {
+                elContext.setImportHandler(imports.newImportHandler());
+            } else if (servlet instanceof JspSourceImports) {
                 ImportHandler ih = elContext.getImportHandler();
                 Set<String> packageImports = ((JspSourceImports) servlet).getPackageImports();
                 if (packageImports != null) {
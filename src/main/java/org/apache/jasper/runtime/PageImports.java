@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.runtime;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jakarta.el.ImportHandler;
+
+/**
+ * The imports of a page, and the classes they resolve to.
+ *
+ * Each request still gets its own import handler, but the names resolved
+ * by any of them are shared by all the requests of the page, so that
+ * classes are only looked up once instead of once per request. A handler
+ * stops using the shared names once something is imported into it.
+ */
+final class PageImports {
+
+    private static final Object NOT_FOUND = new Object();
+
+    private final Set<String> packageImports;
+    private final Set<String> classImports;
+
+    private final ConcurrentMap<String, Object> classes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Object> statics = new ConcurrentHashMap<>();
+
+    PageImports(JspSourceImports page) {
+        this.packageImports = page.getPackageImports();
+        this.classImports = page.getClassImports();
+    }
+
+    ImportHandler newImportHandler() {
+        Handler handler = new Handler();
+        if (packageImports != null) {
+            for (String packageImport : packageImports) {
+                handler.importPackage(packageImport);
+            }
+        }
+        if (classImports != null) {
+            for (String classImport : classImports) {
+                handler.importClass(classImport);
+            }
+        }
+        handler.shared = true;
+        return handler;
+    }
+
+    private static Class<?> toClass(Object value) {
+        return value == NOT_FOUND ? null : (Class<?>) value;
+    }
+
+    private static Object toValue(Class<?> clazz) {
+        return clazz == null ? NOT_FOUND : clazz;
+    }
+
+    private final class Handler extends ImportHandler {
+
+        private boolean shared;
+
+        @Override
+        public void importStatic(String name) {
+            shared = false;
+            super.importStatic(name);
+        }
+
+        @Override
+        public void importClass(String name) {
+            shared = false;
+            super.importClass(name);
+        }
+
+        @Override
+        public void importPackage(String name) {
+            shared = false;
+            super.importPackage(name);
+        }
+
+        @Override
+        public Class<?> resolveClass(String name) {
+            if (!shared) {
+                return super.resolveClass(name);
+            }
+            Object value = classes.get(name);
+            if (value == null) {
+                Class<?> clazz = super.resolveClass(name);
+                classes.putIfAbsent(name, toValue(clazz));
+                return clazz;
+            }
+            return toClass(value);
+        }
+
+        @Override
+        public Class<?> resolveStatic(String name) {
+            if (!shared) {
+                return super.resolveStatic(name);
+            }
+            Object value = statics.get(name);
+            if (value == null) {
+                Class<?> clazz = super.resolveStatic(name);
+                statics.putIfAbsent(name, toValue(clazz));
+                return clazz;
+            }
+            return toClass(value);
+        }
+
+    }
+
+}
@@ -0,0 +1,466 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.runtime;
+
+import static org.apache.jasper.JasperMessages.MESSAGES;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+
+import io.undertow.connector.ByteBufferPool;
+import io.undertow.connector.PooledByteBuffer;
+import io.undertow.io.BufferWritableOutputStream;
+import io.undertow.servlet.spec.HttpServletResponseImpl;
+
+/**
+ * JspWriter that encodes the page output straight into buffers borrowed
+ * from the byte buffer pool of the connection, and hands them to the
+ * servlet output stream when they have to be flushed. Once the buffer has
+ * first been flushed, characters are copied only once, by the charset
+ * encoder, instead of going through the char buffer of
+ * {@link JspWriterImpl} and then the servlet writer.
+ *
+ * Until then the page may still change the charset of the response, by
+ * setLocale or setContentType for instance, so the output is buffered as
+ * characters by {@link JspWriterImpl} and only encoded when the charset is
+ * fixed, by the first flush.
+ *
+ * The JSP buffer size is honoured in bytes, rounded up to a whole number
+ * of pooled buffers so that full buffers can be written to the connection
+ * without being copied again by the servlet output stream.
+ * Only unwrapped Undertow responses can be written this way, see
+ * {@link #canWrite(ServletResponse)}. For pages rendered asynchronously the
+ * flushed buffers are handed over to the {@link AsyncPageOutput} of the
+ * request rather than written by the page thread.
+ */
+public class PooledBufferJspWriter extends JspWriterImpl {
+
+    private ByteBufferPool pool;
+    private AsyncPageOutput output;
+
+    private CharsetEncoder encoder;
+    private String encoding;
+    private boolean charsetFixed = false;
+
+    /*
+     * The buffered content is buffers[0..current], bytes before the
+     * current buffer are counted in filled. Buffers written out while
+     * the characters buffered before the charset was fixed are encoded
+     * do not overflow.
+     */
+    private PooledByteBuffer[] pooled = new PooledByteBuffer[2];
+    private ByteBuffer[] buffers = new ByteBuffer[2];
+    private int current = -1;
+    private int filled;
+    private int maxBuffers;
+    private boolean draining;
+
+    /*
+     * Arrays of each length below the number of buffers, to write part of
+     * them without allocating.
+     */
+    private ByteBuffer[][] partial = new ByteBuffer[2][];
+
+    /*
+     * High surrogate left over at the end of a write, waiting for the
+     * low surrogate that completes it.
+     */
+    private final CharBuffer pair = CharBuffer.allocate(2);
+    private boolean pendingSurrogate;
+
+    private final char[] single = new char[1];
+
+    public PooledBufferJspWriter() {
+        super();
+    }
+
+    /**
+     * Whether output for the given response can be written to pooled
+     * buffers. Wrapped responses (filters, included pages) go through
+     * {@link JspWriterImpl} instead.
+     *
+     * @param response The response of the page
+     * @return <code>true</code> for an unwrapped Undertow response
+     */
+    public static boolean canWrite(ServletResponse response) {
+        return response instanceof HttpServletResponseImpl;
+    }
+
+    @Override
+    void init(ServletResponse response, int sz, boolean autoFlush) {
+        init(response, sz, autoFlush, null);
+    }
+
+    /**
+     * @param output The non-blocking output the buffers are handed to when
+     *        flushed, or <code>null</code> to write them to the response
+     */
+    void init(ServletResponse response, int sz, boolean autoFlush,
+            AsyncPageOutput output) {
+        this.output = output;
+        this.pool = ((HttpServletResponseImpl) response).getExchange()
+                .getConnection().getByteBufferPool();
+        int poolBufferSize = pool.getBufferSize();
+        this.maxBuffers = (sz + poolBufferSize - 1) / poolBufferSize;
+        if (pooled.length < maxBuffers) {
+            pooled = new PooledByteBuffer[maxBuffers];
+            buffers = new ByteBuffer[maxBuffers];
+            partial = new ByteBuffer[maxBuffers][];
+        }
+        super.init(response, maxBuffers * poolBufferSize, autoFlush);
+    }
+
+    @Override
+    void recycle() {
+        super.recycle();
+        output = null;
+        current = -1;
+        filled = 0;
+        charsetFixed = false;
+        pendingSurrogate = false;
+        pair.clear();
+        for (int i = 0; i < pooled.length; i++) {
+            if (pooled[i] != null) {
+                pooled[i].close();
+                pooled[i] = null;
+                buffers[i] = null;
+            }
+        }
+        pool = null;
+    }
+
+    @Override
+    long getOutputSize() {
+        long size = super.getOutputSize() + filled;
+        if (current >= 0) {
+            size += buffers[current].position();
+        }
+        return size;
+    }
+
+    @Override
+    protected void flushBuffer() throws IOException {
+        markFlushed();
+        ensureOpen();
+        CharBuffer chars = takeChars();
+        if (chars == null && current < 0) {
+            return;
+        }
+        if (charsetFixed) {
+            keepCharset(encoder.charset());
+        } else {
+            fixCharset();
+        }
+        if (chars != null) {
+            draining = true;
+            try {
+                encode(chars);
+            } finally {
+                draining = false;
+            }
+        }
+        writeBuffers();
+    }
+
+    @Override
+    void finishBuffer() throws IOException {
+        flushBuffer();
+        if (pendingSurrogate) {
+            endSurrogate();
+            writeBuffers();
+        }
+    }
+
+    private void writeBuffers() throws IOException {
+        markFlushed();
+        if (current < 0) {
+            return;
+        }
+        addOutputSize(filled + buffers[current].position());
+        int count = buffers[current].position() == 0 ? current : current + 1;
+        for (int i = 0; i < count; i++) {
+            buffers[i].flip();
+        }
+        if (count > 0 && initOutput()) {
+            output.write(pooled, count);
+            for (int i = 0; i < count; i++) {
+                buffers[i] = null;
+            }
+        } else if (count > 0) {
+            ServletOutputStream os = openStream();
+            if (os == null) {
+                openWriter().write(decode(count));
+            } else if (count == buffers.length) {
+                ((BufferWritableOutputStream) os).write(buffers);
+            } else {
+                ByteBuffer[] part = partial[count];
+                if (part == null) {
+                    part = partial[count] = new ByteBuffer[count];
+                }
+                System.arraycopy(buffers, 0, part, 0, count);
+                try {
+                    ((BufferWritableOutputStream) os).write(part);
+                } finally {
+                    Arrays.fill(part, null);
+                }
+            }
+        }
+        current = -1;
+        filled = 0;
+    }
+
+    private boolean initOutput() {
+        if (output != null && !output.open()) {
+            output = null;
+        }
+        return output != null;
+    }
+
+    private String decode(int count) {
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            length += buffers[i].remaining();
+        }
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            int remaining = buffers[i].remaining();
+            buffers[i].get(bytes, offset, remaining);
+            offset += remaining;
+        }
+        return new String(bytes, encoder.charset());
+    }
+
+    /*
+     * Move to the next buffer, borrowing it from the pool when needed. Once
+     * the last one is full the buffers are written out, or overflow when
+     * auto flush is off.
+     */
+    private ByteBuffer nextBuffer() throws IOException {
+        if (current + 1 == maxBuffers) {
+            if (autoFlush || draining) {
+                writeBuffers();
+            } else {
+                throw MESSAGES.bufferOverflow();
+            }
+        } else if (current >= 0) {
+            filled += buffers[current].position();
+        }
+        current++;
+        if (pooled[current] == null) {
+            pooled[current] = pool.allocate();
+            buffers[current] = pooled[current].getBuffer();
+        }
+        ByteBuffer buffer = buffers[current];
+        buffer.clear();
+        return buffer;
+    }
+
+    private ByteBuffer buffer() throws IOException {
+        if (current >= 0 && buffers[current].hasRemaining()) {
+            return buffers[current];
+        }
+        return nextBuffer();
+    }
+
+    /*
+     * The charset is fixed by the first flush, the encoder of the previous
+     * request being reused when it is the same.
+     */
+    private void fixCharset() throws IOException {
+        String enc = getResponse().getCharacterEncoding();
+        if (encoder != null && enc != null && enc.equalsIgnoreCase(encoding)) {
+            encoder.reset();
+        } else {
+            try {
+                encoder = Charset.forName(enc).newEncoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            } catch (IllegalArgumentException e) {
+                throw new UnsupportedEncodingException(enc);
+            }
+            encoding = enc;
+        }
+        charsetFixed = true;
+    }
+
+    /*
+     * Characters a write that flushed the buffer left in the char buffer
+     * come before anything written next.
+     */
+    private void encodeBuffered() throws IOException {
+        CharBuffer chars = takeChars();
+        if (chars != null) {
+            encode(chars);
+        }
+    }
+
+    private void encode(CharBuffer chars) throws IOException {
+        while (pendingSurrogate && chars.hasRemaining()) {
+            pair.put(chars.get());
+            pair.flip();
+            encodeLoop(pair);
+            pendingSurrogate = pair.hasRemaining();
+            pair.compact();
+        }
+        if (!pendingSurrogate) {
+            encodeLoop(chars);
+            if (chars.hasRemaining()) {
+                pair.put(chars.get());
+                pendingSurrogate = true;
+            }
+        }
+    }
+
+    private void encodeLoop(CharBuffer chars) throws IOException {
+        ByteBuffer buffer = buffer();
+        while (encoder.encode(chars, buffer, false).isOverflow()) {
+            buffer = nextBuffer();
+        }
+    }
+
+    /*
+     * A high surrogate followed by pre-encoded bytes, or by the end of the
+     * output, cannot be completed any more, so it is written as the
+     * replacement of the encoder.
+     */
+    private void endSurrogate() throws IOException {
+        pendingSurrogate = false;
+        pair.flip();
+        ByteBuffer buffer = buffer();
+        while (encoder.encode(pair, buffer, true).isOverflow()) {
+            buffer = nextBuffer();
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            buffer = nextBuffer();
+        }
+        pair.clear();
+        encoder.reset();
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        int off = 0;
+        while (off < bytes.length) {
+            ByteBuffer buffer = buffer();
+            int len = Math.min(buffer.remaining(), bytes.length - off);
+            buffer.put(bytes, off, len);
+            off += len;
+        }
+    }
+
+    @Override
+    public void write(PreEncodedText text) throws IOException {
+        if (!charsetFixed || text.getBytes() == null
+                || !text.getCharset().equals(encoder.charset())) {
+            write(text.getChars());
+            return;
+        }
+        ensureOpen();
+        encodeBuffered();
+        if (pendingSurrogate) {
+            endSurrogate();
+        }
+        put(text.getBytes());
+    }
+
+    @Override
+    public void clear() throws IOException {
+        super.clear();
+        discard();
+    }
+
+    @Override
+    public void clearBuffer() throws IOException {
+        super.clearBuffer();
+        discard();
+    }
+
+    private void discard() {
+        current = -1;
+        filled = 0;
+        pendingSurrogate = false;
+        pair.clear();
+    }
+
+    @Override
+    public int getRemaining() {
+        int remaining = super.getRemaining() - filled;
+        if (current >= 0) {
+            remaining -= buffers[current].position();
+        }
+        return remaining < 0 ? 0 : remaining;
+    }
+
+    @Override
+    void writeThrough(char cbuf[], int off, int len) throws IOException {
+        encode(CharBuffer.wrap(cbuf, off, len));
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (!charsetFixed) {
+            super.write(c);
+            return;
+        }
+        ensureOpen();
+        encodeBuffered();
+        single[0] = (char) c;
+        encode(CharBuffer.wrap(single));
+    }
+
+    @Override
+    public void write(char cbuf[], int off, int len) throws IOException {
+        if (!charsetFixed) {
+            super.write(cbuf, off, len);
+            return;
+        }
+        ensureOpen();
+        if ((off < 0) || (off > cbuf.length) || (len < 0) ||
+                ((off + len) > cbuf.length) || ((off + len) < 0)) {
+            throw new IndexOutOfBoundsException();
+        } else if (len == 0) {
+            return;
+        }
+        encodeBuffered();
+        encode(CharBuffer.wrap(cbuf, off, len));
+    }
+
+    @Override
+    public void write(String s, int off, int len) throws IOException {
+        if (!charsetFixed) {
+            super.write(s, off, len);
+            return;
+        }
+        ensureOpen();
+        if (len == 0) {
+            return;
+        }
+        encodeBuffered();
+        encode(CharBuffer.wrap(s, off, off + len));
+    }
+
+}
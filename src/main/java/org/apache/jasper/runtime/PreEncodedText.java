@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.runtime;
+
+import java.nio.charset.Charset;
+
+/**
+ * A segment of static template text, encoded once into the response charset
+ * of the page when the generated servlet class is initialized.
+ *
+ * The characters are kept alongside the bytes so the text can still be
+ * written to writers that cannot accept bytes (body content, included pages,
+ * responses whose charset was changed at runtime). Text the charset cannot
+ * represent is not encoded, so that the bytes always decode back to it.
+ */
+public final class PreEncodedText {
+
+    private final char[] chars;
+    private final byte[] bytes;
+    private final Charset charset;
+
+    public PreEncodedText(String text, String charset) {
+        this.charset = Charset.forName(charset);
+        this.chars = text.toCharArray();
+        this.bytes = this.charset.newEncoder().canEncode(text)
+                ? text.getBytes(this.charset) : null;
+    }
+
+    public char[] getChars() {
+        return chars;
+    }
+
+    /**
+     * @return the encoded text, or <code>null</code> when the charset
+     *         cannot represent it
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.runtime;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Approximate histogram of the output sizes of a page, used to pick the
+ * buffer size of its next requests.
+ *
+ * Sizes are counted in power of two buckets, from 512 up to the maximum
+ * buffer size. Every {@link #SAMPLES} responses the buffer size is set to
+ * the upper bound of the bucket holding the 90th percentile, and once
+ * {@link #DECAY} responses have been counted all buckets are halved so
+ * that the histogram follows changes in the page output. Updates are not
+ * synchronized with each other, the odd lost count does not matter here.
+ */
+public final class ResponseSizeHistogram {
+
+    private static final int MIN_SHIFT = 9;
+    private static final int SAMPLES = 64;
+    private static final int DECAY = 1024;
+    private static final int PERCENTILE = 90;
+
+    private final int maxSize;
+    private final AtomicIntegerArray buckets;
+    private final AtomicInteger samples = new AtomicInteger();
+    private volatile int bufferSize = 0;
+
+    /**
+     * @param maxSize The largest buffer size that may be suggested
+     */
+    public ResponseSizeHistogram(int maxSize) {
+        this.maxSize = maxSize;
+        this.buckets = new AtomicIntegerArray(index(maxSize) + 1);
+    }
+
+    private static int index(long size) {
+        if (size <= (1 << MIN_SHIFT)) {
+            return 0;
+        }
+        return 64 - Long.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+    }
+
+    /**
+     * Count the output size of a response of the page.
+     *
+     * @param size The number of characters, or bytes, written by the page
+     */
+    public void record(long size) {
+        buckets.incrementAndGet(Math.min(index(size), buckets.length() - 1));
+        int count = samples.incrementAndGet();
+        if (count % SAMPLES == 0) {
+            update(count);
+        }
+    }
+
+    private void update(int count) {
+        int length = buckets.length();
+        long total = 0;
+        for (int i = 0; i < length; i++) {
+            total += buckets.get(i);
+        }
+        long threshold = (total * PERCENTILE + 99) / 100;
+        long cumulative = 0;
+        int i = 0;
+        for (; i < length - 1; i++) {
+            cumulative += buckets.get(i);
+            if (cumulative >= threshold) {
+                break;
+            }
+        }
+        bufferSize = Math.min(1 << (i + MIN_SHIFT), maxSize);
+        if (count >= DECAY) {
+            for (int j = 0; j < length; j++) {
+                buckets.getAndUpdate(j, c -> c >> 1);
+            }
+            samples.set(0);
+        }
+    }
+
+    /**
+     * @return the buffer size for the next request, or 0 until enough
+     *         responses have been counted
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+}
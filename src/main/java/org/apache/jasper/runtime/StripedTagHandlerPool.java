@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.runtime;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.jsp.JspException;
+import jakarta.servlet.jsp.tagext.Tag;
+
+/**
+ * Tag handler pool that does not lock. The pool is split in stripes, one
+ * per processor, each allocated when its threads first give a handler
+ * back. A thread uses the stripe picked from its identifier, whose slots
+ * are taken and filled by compare and set, so that threads rendering the
+ * same page do not contend on a single monitor.
+ *
+ * The pool holds no more handlers than its capacity, as
+ * {@link TagHandlerPool} does, and grants slots to the stripes as their
+ * threads need them. A handler given back to a full stripe makes it grow
+ * by one slot while the pool has slots left, so that a stripe ends up
+ * with as many slots as its threads held handlers at once, instead of
+ * the handler being dropped. Stripes are trimmed from the background
+ * processing: a stripe that was not used since the last {@link #trim()}
+ * halves its slots, down to none, while one that was used without ever
+ * missing a handler gives one slot back, the slots returning to the pool.
+ *
+ * Selected with the <code>tagpoolClassName</code> option set to
+ * <code>org.apache.jasper.runtime.StripedTagHandlerPool</code>.
+ */
+public class StripedTagHandlerPool extends TagHandlerPool {
+
+    private static final int STRIPES =
+        Integer.highestOneBit(Math.min(Runtime.getRuntime().availableProcessors(), 64) * 2 - 1);
+
+    private static final int USED = 1;
+    private static final int MISSED = 2;
+
+    private static final class Stripe {
+
+        private final AtomicReferenceArray<Tag> slots;
+        private final AtomicInteger limit = new AtomicInteger();
+        private final AtomicInteger activity = new AtomicInteger();
+
+        Stripe(int capacity) {
+            slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        void mark(int flag) {
+            int current = activity.get();
+            if ((current & flag) == 0) {
+                activity.compareAndSet(current, current | flag);
+            }
+        }
+
+    }
+
+    private AtomicReferenceArray<Stripe> stripes;
+    private int capacity;
+    // Slots granted to the stripes, at most the capacity
+    private final AtomicInteger granted = new AtomicInteger();
+    private TagHandlerPoolRegistry registry;
+
+    @Override
+    protected void init(ServletConfig config) {
+        capacity = getMaxSize(config);
+        stripes = new AtomicReferenceArray<>(STRIPES);
+        instanceManager = InstanceManagerFactory.getInstanceManager(config);
+        registry = TagHandlerPoolRegistry.getInstance(config.getServletContext());
+        registry.register(this);
+    }
+
+    private static int index() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    @Override
+    public Tag get(Class<? extends Tag> handlerClass) throws JspException {
+        Stripe stripe = stripes.get(index());
+        if (stripe != null) {
+            for (int i = stripe.limit.get() - 1; i >= 0; i--) {
+                Tag handler = stripe.slots.get(i);
+                if (handler != null && stripe.slots.compareAndSet(i, handler, null)) {
+                    stripe.mark(USED);
+                    return handler;
+                }
+            }
+            stripe.mark(MISSED);
+        }
+        return newHandler(handlerClass);
+    }
+
+    @Override
+    public void reuse(Tag handler) {
+        if (capacity == 0) {
+            // Pooling is disabled
+            destroyHandler(handler);
+            return;
+        }
+        int index = index();
+        Stripe stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new Stripe(capacity));
+            stripe = stripes.get(index);
+        }
+        int limit = stripe.limit.get();
+        for (int i = 0; i < limit; i++) {
+            if (stripe.slots.get(i) == null && stripe.slots.compareAndSet(i, null, handler)) {
+                return;
+            }
+        }
+        // The stripe is full: its threads use more handlers than it holds
+        if (grant()) {
+            if (stripe.limit.compareAndSet(limit, limit + 1)) {
+                if (stripe.slots.compareAndSet(limit, null, handler)) {
+                    return;
+                }
+            } else {
+                granted.decrementAndGet();
+            }
+        }
+        destroyHandler(handler);
+    }
+
+    private boolean grant() {
+        while (true) {
+            int current = granted.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (granted.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void trim() {
+        for (int index = 0; index < STRIPES; index++) {
+            Stripe stripe = stripes.get(index);
+            if (stripe == null) {
+                continue;
+            }
+            int flags = stripe.activity.getAndSet(0);
+            int limit = stripe.limit.get();
+            int keep;
+            if (flags == 0) {
+                keep = limit / 2;
+            } else if (flags == USED && limit > 1) {
+                keep = limit - 1;
+            } else {
+                keep = limit;
+            }
+            if (keep < limit && stripe.limit.compareAndSet(limit, keep)) {
+                granted.addAndGet(keep - limit);
+            } else {
+                keep = stripe.limit.get();
+            }
+            // Also drops handlers put beyond the limit while it shrank
+            for (int i = keep; i < capacity; i++) {
+                if (stripe.slots.get(i) != null) {
+                    Tag handler = stripe.slots.getAndSet(i, null);
+                    if (handler != null) {
+                        destroyHandler(handler);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void release() {
+        registry.unregister(this);
+        for (int index = 0; index < STRIPES; index++) {
+            Stripe stripe = stripes.get(index);
+            if (stripe == null) {
+                continue;
+            }
+            for (int i = 0; i < capacity; i++) {
+                Tag handler = stripe.slots.getAndSet(i, null);
+                if (handler != null) {
+                    destroyHandler(handler);
+                }
+            }
+        }
+    }
+
+}
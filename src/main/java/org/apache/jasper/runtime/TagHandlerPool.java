@@ -65,7 +65,32 @@ public class TagHandlerPool {
         return result;
     }
 
+    /**
+     * Gets the pool of the web application for tag handlers of the given
+     * key, shared with the other pages using the same handler class with
+     * the same attributes. The release() method of the returned pool only
+     * drops the reference of the page.
+     *
+     * @param config The configuration of the page
+     * @param key The handler class name followed by the attribute names
+     * @return The tag handler pool for the page
+     */
+    public static TagHandlerPool getTagHandlerPool(ServletConfig config, String key) {
+        return TagHandlerPoolRegistry.getInstance(config.getServletContext())
+                .acquire(config, key);
+    }
+
     protected void init(ServletConfig config) {
+        this.handlers = new Tag[getMaxSize(config)];
+        this.current = -1;
+        instanceManager = InstanceManagerFactory.getInstanceManager(config);
+    }
+
+    /**
+     * @param config The configuration of the page
+     * @return the capacity of the pools of the page
+     */
+    protected static int getMaxSize(ServletConfig config) {
         int maxSize = -1;
         String maxSizeS = getOption(config, OPTION_MAXSIZE, null);
         if (maxSizeS != null) {
@@ -78,9 +103,7 @@ public class TagHandlerPool {
         if (maxSize < 0) {
             maxSize = Constants.MAX_POOL_SIZE;
         }
-        this.handlers = new Tag[maxSize];
-        this.current = -1;
-        instanceManager = InstanceManagerFactory.getInstanceManager(config);
+        return maxSize;
     }
 
     /**
@@ -112,15 +135,28 @@ public class TagHandlerPool {
 
         // Out of sync block - there is no need for other threads to
         // wait for us to construct a tag for this thread.
+        return newHandler(handlerClass);
+    }
+
+    /**
+     * Instantiates a tag handler, through the instance manager.
+     *
+     * @param handlerClass
+     *            Tag handler class
+     * @return The new tag handler
+     * @throws JspException
+     *             if a tag handler cannot be instantiated
+     */
+    protected Tag newHandler(Class<? extends Tag> handlerClass) throws JspException {
         try {
-        	if (Constants.USE_INSTANCE_MANAGER_FOR_TAGS) {
+            if (Constants.USE_INSTANCE_MANAGER_FOR_TAGS) {
                 return (Tag) instanceManager.newInstance(
                         handlerClass.getName(), handlerClass.getClassLoader());
-        	} else {
+            } else {
                 Tag instance = handlerClass.newInstance();
-                    instanceManager.newInstance(instance);
+                instanceManager.newInstance(instance);
                 return instance;
-        	}
+            }
         } catch (Exception e) {
             Throwable t = ExceptionUtils.unwrapInvocationTargetException(e);
             ExceptionUtils.handleThrowable(t);
@@ -144,10 +180,21 @@ public class TagHandlerPool {
             }
         }
         // There is no need for other threads to wait for us to release
+        destroyHandler(handler);
+    }
+
+    /**
+     * Calls the release() method of a tag handler that is dropped, and
+     * the preDestroy callbacks of the instance manager.
+     *
+     * @param handler
+     *            Tag handler to destroy
+     */
+    protected void destroyHandler(Tag handler) {
         handler.release();
-            try {
-                instanceManager.destroyInstance(handler);
-            } catch (Exception e) {
+        try {
+            instanceManager.destroyInstance(handler);
+        } catch (Exception e) {
             Throwable t = ExceptionUtils.unwrapInvocationTargetException(e);
             ExceptionUtils.handleThrowable(t);
             log.warn("Error processing preDestroy on tag instance of " +
@@ -161,19 +208,18 @@ public class TagHandlerPool {
      */
     public synchronized void release() {
         for (int i = current; i >= 0; i--) {
-            Tag handler = handlers[i];
-            handler.release();
-                try {
-                instanceManager.destroyInstance(handler);
-                } catch (Exception e) {
-                Throwable t = ExceptionUtils.unwrapInvocationTargetException(e);
-                ExceptionUtils.handleThrowable(t);
-                log.warn("Error processing preDestroy on tag instance of "
-                        + handler.getClass().getName(), t);
-            }
+            destroyHandler(handlers[i]);
         }
     }
 
+    /**
+     * Drops the tag handlers that are no longer needed. Called from the
+     * background processing of the JSP servlet, nothing is done for pools
+     * of a fixed capacity.
+     */
+    public void trim() {
+    }
+
     protected static String getOption(ServletConfig config, String name,
             String defaultV) {
         if (config == null)
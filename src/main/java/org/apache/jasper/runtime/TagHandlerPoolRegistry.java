@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.runtime;
+
+import static org.apache.jasper.JasperMessages.MESSAGES;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.jsp.JspException;
+import jakarta.servlet.jsp.tagext.Tag;
+
+/**
+ * The tag handler pools of the pages of a web application, so that the
+ * background processing of the JSP servlet can trim them.
+ *
+ * Pools are also shared between pages, keyed by handler class and
+ * attribute names, so that an application with many pages using the same
+ * tags keeps one pool, and one set of idle handlers, per tag shape. Each
+ * page gets a reference to the shared pool, and the pool is released once
+ * the last page using it has been destroyed.
+ */
+public final class TagHandlerPoolRegistry {
+
+    private static final String KEY = TagHandlerPoolRegistry.class.getName();
+
+    private final Set<TagHandlerPool> pools = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Shared> shared = new HashMap<>();
+
+    private TagHandlerPoolRegistry() {
+    }
+
+    /**
+     * @param context The context of the web application
+     * @return the registry of the web application
+     */
+    public static TagHandlerPoolRegistry getInstance(ServletContext context) {
+        if (context == null) {
+            throw MESSAGES.nullServletContext();
+        }
+        synchronized (context) {
+            TagHandlerPoolRegistry registry = (TagHandlerPoolRegistry) context.getAttribute(KEY);
+            if (registry == null) {
+                registry = new TagHandlerPoolRegistry();
+                context.setAttribute(KEY, registry);
+            }
+            return registry;
+        }
+    }
+
+    void register(TagHandlerPool pool) {
+        pools.add(pool);
+    }
+
+    void unregister(TagHandlerPool pool) {
+        pools.remove(pool);
+    }
+
+    /**
+     * @return the number of pools shared by the pages of the web application
+     */
+    public synchronized int getSharedPoolCount() {
+        return shared.size();
+    }
+
+    synchronized TagHandlerPool acquire(ServletConfig config, String key) {
+        Shared entry = shared.get(key);
+        if (entry == null) {
+            entry = new Shared(TagHandlerPool.getTagHandlerPool(config));
+            shared.put(key, entry);
+        }
+        entry.references++;
+        return new Reference(key, entry.pool);
+    }
+
+    private void release(String key) {
+        TagHandlerPool pool = null;
+        synchronized (this) {
+            Shared entry = shared.get(key);
+            if (entry != null && --entry.references == 0) {
+                shared.remove(key);
+                pool = entry.pool;
+            }
+        }
+        if (pool != null) {
+            pool.release();
+        }
+    }
+
+    private static final class Shared {
+
+        private final TagHandlerPool pool;
+        private int references;
+
+        Shared(TagHandlerPool pool) {
+            this.pool = pool;
+        }
+
+    }
+
+    /**
+     * The shared pool as seen by a page.
+     */
+    private final class Reference extends TagHandlerPool {
+
+        private final String key;
+        private final TagHandlerPool pool;
+        private boolean released;
+
+        Reference(String key, TagHandlerPool pool) {
+            this.key = key;
+            this.pool = pool;
+        }
+
+        @Override
+        public Tag get(Class<? extends Tag> handlerClass) throws JspException {
+            return pool.get(handlerClass);
+        }
+
+        @Override
+        public void reuse(Tag handler) {
+            pool.reuse(handler);
+        }
+
+        @Override
+        public synchronized void release() {
+            if (!released) {
+                released = true;
+                TagHandlerPoolRegistry.this.release(key);
+            }
+        }
+
+    }
+
+    /**
+     * Trim all the pools of the web application, see
+     * {@link TagHandlerPool#trim()}.
+     */
+    public void trim() {
+        for (TagHandlerPool pool : pools) {
+            pool.trim();
+        }
+    }
+
+}
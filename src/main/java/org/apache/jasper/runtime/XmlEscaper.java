@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.runtime;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escaping of the XML special characters in page output, as done by the
+ * JSTL <code>c:out</code> tag:
+ *
+ *    &amp; -&gt; &amp;amp;
+ *    &lt; -&gt; &amp;lt;
+ *    &gt; -&gt; &amp;gt;
+ *    " -&gt; &amp;#034;
+ *    ' -&gt; &amp;#039;
+ *
+ * All special characters are below 64, so a character is tested against a
+ * single bit mask instead of a chain of comparisons. Text is written to the
+ * writer in runs between special characters, and nothing is allocated when
+ * there is nothing to escape.
+ */
+public final class XmlEscaper {
+
+    private static final long SPECIAL = (1L << '&') | (1L << '<')
+            | (1L << '>') | (1L << '"') | (1L << '\'');
+
+    private static final String[] REPRESENTATION = new String['>' + 1];
+
+    static {
+        REPRESENTATION['&'] = "&amp;";
+        REPRESENTATION['<'] = "&lt;";
+        REPRESENTATION['>'] = "&gt;";
+        REPRESENTATION['"'] = "&#034;";
+        REPRESENTATION['\''] = "&#039;";
+    }
+
+    private XmlEscaper() {
+    }
+
+    private static boolean isSpecial(char c) {
+        return c < 64 && ((SPECIAL >>> c) & 1L) != 0;
+    }
+
+    /**
+     * @param s The text to scan
+     * @param from The index to start from
+     * @return the index of the first character to escape, or -1
+     */
+    public static int indexOfSpecial(String s, int from) {
+        for (int i = from, length = s.length(); i < length; i++) {
+            if (isSpecial(s.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param buf The text to scan
+     * @param from The index to start from
+     * @param to The index to stop at, exclusive
+     * @return the index of the first character to escape, or -1
+     */
+    public static int indexOfSpecial(char[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (isSpecial(buf[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param s The text to escape
+     * @return the escaped text, the same instance when there was nothing to
+     *         escape
+     */
+    public static String escape(String s) {
+        int i = indexOfSpecial(s, 0);
+        if (i < 0) {
+            return s;
+        }
+        int length = s.length();
+        StringBuilder sb = new StringBuilder(length + 16);
+        int start = 0;
+        do {
+            sb.append(s, start, i).append(REPRESENTATION[s.charAt(i)]);
+            start = i + 1;
+            i = indexOfSpecial(s, start);
+        } while (i >= 0);
+        return sb.append(s, start, length).toString();
+    }
+
+    /**
+     * @param buf The text to escape
+     * @param off The index of the first character
+     * @param len The number of characters
+     * @return the escaped text, or <code>null</code> when there was nothing
+     *         to escape
+     */
+    public static String escape(char[] buf, int off, int len) {
+        int end = off + len;
+        int i = indexOfSpecial(buf, off, end);
+        if (i < 0) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(len + 16);
+        int start = off;
+        do {
+            sb.append(buf, start, i - start).append(REPRESENTATION[buf[i]]);
+            start = i + 1;
+            i = indexOfSpecial(buf, start, end);
+        } while (i >= 0);
+        return sb.append(buf, start, end - start).toString();
+    }
+
+    /**
+     * Write escaped text.
+     *
+     * @param s The text to escape
+     * @param out The writer to write to
+     * @throws IOException if writing failed
+     */
+    public static void escape(String s, Writer out) throws IOException {
+        int start = 0;
+        int i;
+        while ((i = indexOfSpecial(s, start)) >= 0) {
+            if (start < i) {
+                out.write(s, start, i - start);
+            }
+            out.write(REPRESENTATION[s.charAt(i)]);
+            start = i + 1;
+        }
+        if (start == 0) {
+            out.write(s);
+        } else if (start < s.length()) {
+            out.write(s, start, s.length() - start);
+        }
+    }
+
+    /**
+     * Write escaped text.
+     *
+     * @param buf The text to escape
+     * @param off The index of the first character
+     * @param len The number of characters
+     * @param out The writer to write to
+     * @throws IOException if writing failed
+     */
+    public static void escape(char[] buf, int off, int len, Writer out) throws IOException {
+        int end = off + len;
+        int start = off;
+        int i;
+        while ((i = indexOfSpecial(buf, start, end)) >= 0) {
+            if (start < i) {
+                out.write(buf, start, i - start);
+            }
+            out.write(REPRESENTATION[buf[i]]);
+            start = i + 1;
+        }
+        if (start < end) {
+            out.write(buf, start, end - start);
+        }
+    }
+
+}
@@ -50,11 +50,23 @@ public final class SecurityClassLoad {
                 "runtime.ServletResponseWrapperInclude");
             loader.loadClass( basePackage +
                 "runtime.TagHandlerPool");
+            loader.loadClass( basePackage +
+                "runtime.StripedTagHandlerPool");
+            loader.loadClass( basePackage +
+                "runtime.StripedTagHandlerPool$Stripe");
+            loader.loadClass( basePackage +
+                "runtime.TagHandlerPoolRegistry");
+            loader.loadClass( basePackage +
+                "runtime.TagHandlerPoolRegistry$Reference");
             loader.loadClass( basePackage +
                 "runtime.JspFragmentHelper");
 
             loader.loadClass( basePackage +
                 "runtime.ProtectedFunctionMapper");
+            loader.loadClass( basePackage +
+                "runtime.CachedValueExpression");
+            loader.loadClass( basePackage +
+                "runtime.CachedValueExpression$Compiled");
 
             loader.loadClass( basePackage +
                 "runtime.PageContextImpl");
@@ -85,6 +97,10 @@ public final class SecurityClassLoad {
 
             loader.loadClass( basePackage +
                 "runtime.JspContextWrapper");
+            loader.loadClass( basePackage +
+                "runtime.ImplicitObjects");
+            loader.loadClass( basePackage +
+                "runtime.ImplicitObjects$EnumeratedMap");
 
             // Trigger loading of class and reading of property
             SecurityUtil.isPackageProtectionEnabled();
@@ -19,6 +19,7 @@ package org.apache.jasper.servlet;
 
 import static org.apache.jasper.JasperMessages.MESSAGES;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -31,6 +32,7 @@ import java.security.PermissionCollection;
 import java.security.PrivilegedExceptionAction;
 
 import org.apache.jasper.Constants;
+import org.apache.jasper.compiler.CompiledClasses;
 
 /**
  * Class loader for loading servlet class files (corresponding to JSP files)
@@ -46,13 +48,25 @@ public class JasperLoader extends URLClassLoader {
     private final SecurityManager securityManager;
     private final CodeSource codeSource;
     private final AccessControlContext acc;
+    private final CompiledClasses compiledClasses;
 
     public JasperLoader(URL[] urls, ClassLoader parent,
                         PermissionCollection permissionCollection, CodeSource codeSource) {
+        this(urls, parent, permissionCollection, codeSource, null);
+    }
+
+    /**
+     * @param compiledClasses The classes compiled in memory, which are
+     *            looked up before the class files, may be <code>null</code>
+     */
+    public JasperLoader(URL[] urls, ClassLoader parent,
+                        PermissionCollection permissionCollection, CodeSource codeSource,
+                        CompiledClasses compiledClasses) {
 	super(urls, parent);
 	    this.permissionCollection = permissionCollection;
 	    this.parent = parent;
         this.codeSource = codeSource;
+        this.compiledClasses = compiledClasses;
         this.securityManager = System.getSecurityManager();
         this.acc = AccessController.getContext();
     }
@@ -144,6 +158,12 @@ public class JasperLoader extends URLClassLoader {
             return AccessController.doPrivileged(
                     new PrivilegedExceptionAction<Class>() {
                         public Class run() throws ClassNotFoundException {
+                            if (compiledClasses != null) {
+                                byte[] bytes = compiledClasses.getBytes(name);
+                                if (bytes != null) {
+                                    return defineClass(name, bytes, 0, bytes.length, codeSource);
+                                }
+                            }
                             String path = name.replace('.', '/').concat(".class");
                             URL res = findResource(path);
                             if (res != null) {
@@ -179,13 +199,21 @@ public class JasperLoader extends URLClassLoader {
     }
 
     /**
-     * Delegate to parent
+     * Delegate to parent, then serve the classes compiled in memory, so that
+     * the compiler finds them.
      *
      * @see java.lang.ClassLoader#getResourceAsStream(java.lang.String)
      */
     @Override
     public InputStream getResourceAsStream(String name) {
         InputStream is = parent.getResourceAsStream(name);
+        if (is == null && compiledClasses != null && name.endsWith(".class")) {
+            byte[] bytes = compiledClasses.getBytes(
+                    name.substring(0, name.length() - 6).replace('/', '.'));
+            if (bytes != null) {
+                return new ByteArrayInputStream(bytes);
+            }
+        }
         if (is == null) {
             URL url = findResource(name);
             if (url != null) {
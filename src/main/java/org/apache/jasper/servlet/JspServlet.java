@@ -24,10 +24,12 @@ import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.net.MalformedURLException;
 import java.security.AccessController;
+import java.security.PrivilegedAction;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.ServletConfig;
@@ -119,6 +121,9 @@ public class JspServlet extends HttpServlet implements PeriodicEventListener, Re
                 options = new EmbeddedServletOptions(config, context);
             }
         rctxt = new JspRuntimeContext(context, options);
+        if (options.getWarmUpParallelism() > 0) {
+            new JspWarmUp(this, context, options).run();
+        }
         if (config.getInitParameter("jspFile") != null) {
             jspFile = config.getInitParameter("jspFile");
             try {
@@ -372,6 +377,46 @@ public class JspServlet extends HttpServlet implements PeriodicEventListener, Re
     public void periodicEvent() {
         rctxt.checkUnload();
         rctxt.checkCompile();
+        rctxt.trimTagHandlerPools();
+    }
+
+    /*
+     * Compiles and loads a page without serving it, as done for a
+     * precompilation request.
+     */
+    void precompile(final String jspUri) throws ServletException, IOException {
+        if (SecurityUtil.isPackageProtectionEnabled()) {
+            try {
+                AccessController.doPrivileged(new PrivilegedExceptionAction<Object>() {
+                    @Override
+                    public Object run() throws IOException, ServletException {
+                        serviceJspFile(null, null, jspUri, true);
+                        return null;
+                    }
+                });
+            } catch (PrivilegedActionException e) {
+                Throwable t = e.getCause();
+                if (t instanceof ServletException) throw (ServletException) t;
+                throw (IOException) t;
+            }
+        } else {
+            serviceJspFile(null, null, jspUri, true);
+        }
+    }
+
+    /*
+     * Compiles pages in a batch, without loading them.
+     */
+    Map<String, Exception> precompile(final Collection<String> jspUris, final int parallelism) {
+        if (SecurityUtil.isPackageProtectionEnabled()) {
+            return AccessController.doPrivileged(new PrivilegedAction<Map<String, Exception>>() {
+                @Override
+                public Map<String, Exception> run() {
+                    return rctxt.compile(config, jspUris, parallelism);
+                }
+            });
+        }
+        return rctxt.compile(config, jspUris, parallelism);
     }
 
     // -------------------------------------------------------- Private Methods
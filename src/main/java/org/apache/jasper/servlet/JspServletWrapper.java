@@ -40,8 +40,11 @@ import org.apache.jasper.Options;
 import org.apache.jasper.compiler.ErrorDispatcher;
 import org.apache.jasper.compiler.JavacErrorDetail;
 import org.apache.jasper.compiler.JspRuntimeContext;
+import org.apache.jasper.compiler.JspUtil;
+import org.apache.jasper.runtime.HttpJspBase;
 import org.apache.jasper.runtime.InstanceManagerFactory;
 import org.apache.jasper.runtime.JspSourceDependent;
+import org.apache.jasper.runtime.ResponseSizeHistogram;
 import org.apache.jasper.util.ExceptionUtils;
 import org.apache.jasper.util.FastRemovalDequeue;
 import org.apache.tomcat.InstanceManager;
@@ -97,6 +100,7 @@ public class JspServletWrapper {
     private final boolean unloadAllowed;
     private final boolean unloadByCount;
     private final boolean unloadByIdle;
+    private final ResponseSizeHistogram responseSizes;
 
     /*
      * JspServletWrapper for JSP pages.
@@ -111,6 +115,8 @@ public class JspServletWrapper {
         unloadByCount = options.getMaxLoadedJsps() > 0 ? true : false;
         unloadByIdle = options.getJspIdleTimeout() > 0 ? true : false;
         unloadAllowed = unloadByCount || unloadByIdle ? true : false;
+        responseSizes = options.getMaxAdaptiveBufferSize() > 0
+                ? new ResponseSizeHistogram(options.getMaxAdaptiveBufferSize()) : null;
         ctxt = new JspCompilationContext(jspUri, options,
 					 config.getServletContext(),
 					 this, rctxt);
@@ -134,6 +140,7 @@ public class JspServletWrapper {
         unloadByCount = options.getMaxLoadedJsps() > 0 ? true : false;
         unloadByIdle = options.getJspIdleTimeout() > 0 ? true : false;
         unloadAllowed = unloadByCount || unloadByIdle ? true : false;
+        responseSizes = null;
         ctxt = new JspCompilationContext(jspUri, tagInfo, options,
 					 servletContext, this, rctxt,
                                          tagJar);
@@ -172,6 +179,16 @@ public class JspServletWrapper {
                     }
 
                     servlet.init(config);
+                    if (servlet instanceof HttpJspBase) {
+                        ((HttpJspBase) servlet).setPooledBufferWriter(options.isPooledBufferWriter());
+                        ((HttpJspBase) servlet).setResponseSizes(responseSizes);
+                        ((HttpJspBase) servlet).setAsyncOutput(isAsyncOutput());
+                        ((HttpJspBase) servlet).setFlushEarly(!options.hasErrorPages());
+                        if (options.getFlushCoalescingSize() > 0 && !isStrictFlush()) {
+                            ((HttpJspBase) servlet).setFlushCoalescingSize(
+                                    options.getFlushCoalescingSize());
+                        }
+                    }
 
                     if (!firstTime) {
                         ctxt.getRuntimeContext().incrementJspReloadCount();
@@ -186,6 +203,22 @@ public class JspServletWrapper {
         return theServlet;
     }
 
+    /*
+     * A jsp-property-group matching the page overrides the servlet setting.
+     */
+    private boolean isAsyncOutput() {
+        String asyncOutput = options.getJspConfig().findJspProperty(jspUri).getAsyncOutput();
+        if (asyncOutput == null) {
+            return options.isAsyncOutput();
+        }
+        return JspUtil.booleanValue(asyncOutput);
+    }
+
+    private boolean isStrictFlush() {
+        String strictFlush = options.getJspConfig().findJspProperty(jspUri).getStrictFlush();
+        return strictFlush != null && JspUtil.booleanValue(strictFlush);
+    }
+
     public ServletContext getServletContext() {
         return ctxt.getServletContext();
     }
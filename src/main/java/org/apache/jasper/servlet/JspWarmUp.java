@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.servlet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.servlet.ServletContext;
+
+import org.apache.jasper.JasperLogger;
+import org.apache.jasper.Options;
+import org.apache.jasper.util.ExceptionUtils;
+
+/**
+ * Compiles all the pages of a web application when the JSP servlet starts,
+ * on a pool of threads, so that their first requests do not wait for the
+ * compiler. See {@link Options#getWarmUpParallelism()}.
+ *
+ * A page failing to compile is reported, and fails again on its first
+ * request. The pages not yet compiled when the time budget runs out are
+ * compiled on their first request, the ones being compiled are completed
+ * in the background. Without a time budget, the pages are compiled in a
+ * batch, see {@link org.apache.jasper.compiler.JspRuntimeContext#compile}.
+ */
+final class JspWarmUp {
+
+    private final JasperLogger log = JasperLogger.SERVLET_LOGGER;
+
+    private final JspServlet servlet;
+    private final ServletContext context;
+    private final int parallelism;
+    private final int timeout;
+
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final Map<String, Throwable> failures = new ConcurrentSkipListMap<>();
+    private volatile boolean expired;
+
+    JspWarmUp(JspServlet servlet, ServletContext context, Options options) {
+        this.servlet = servlet;
+        this.context = context;
+        this.parallelism = options.getWarmUpParallelism();
+        this.timeout = options.getWarmUpTimeout();
+    }
+
+    /**
+     * Compile the pages, returning when they are all compiled or the time
+     * budget has run out.
+     */
+    void run() {
+        List<String> pages = new ArrayList<>();
+        findPages("/", pages);
+        if (pages.isEmpty()) {
+            return;
+        }
+        Collections.sort(pages);
+
+        long start = System.currentTimeMillis();
+        log.warmUpStarted(pages.size(), context.getContextPath(), parallelism);
+        // The pages are loaded as they would be on a request
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (timeout <= 0) {
+            // Without a time budget, the pages are compiled together, then
+            // loaded on the pool
+            for (Map.Entry<String, Exception> failure
+                    : servlet.precompile(pages, parallelism).entrySet()) {
+                started.incrementAndGet();
+                completed.incrementAndGet();
+                failures.put(failure.getKey(), failure.getValue());
+                log.warmUpFailed(failure.getKey(), failure.getValue());
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        for (String page : pages) {
+            if (!failures.containsKey(page)) {
+                pool.execute(() -> compile(page, pages.size(), loader));
+            }
+        }
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(timeout > 0 ? timeout : Long.MAX_VALUE, TimeUnit.SECONDS)) {
+                expired = true;
+            }
+        } catch (InterruptedException e) {
+            expired = true;
+            Thread.currentThread().interrupt();
+        }
+        log.warmUpCompleted(completed.get() - failures.size(), context.getContextPath(),
+                System.currentTimeMillis() - start, failures.size(), failures.keySet(),
+                pages.size() - started.get());
+    }
+
+    private void compile(String page, int count, ClassLoader loader) {
+        if (expired) {
+            return;
+        }
+        started.incrementAndGet();
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            servlet.precompile(page);
+        } catch (Throwable t) {
+            ExceptionUtils.handleThrowable(t);
+            failures.put(page, t);
+            log.warmUpFailed(page, t);
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+        int done = completed.incrementAndGet();
+        if (done < count && done % Math.max(1, count / 10) == 0) {
+            log.warmUpProgress(done, count, context.getContextPath());
+        }
+    }
+
+    private void findPages(String path, List<String> pages) {
+        Set<String> paths = context.getResourcePaths(path);
+        if (paths == null) {
+            return;
+        }
+        for (String resource : paths) {
+            if (resource.endsWith("/")) {
+                if (!resource.equals("/META-INF/")) {
+                    findPages(resource, pages);
+                }
+            } else if (resource.endsWith(".jsp") || resource.endsWith(".jspx")) {
+                pages.add(resource);
+            }
+        }
+    }
+
+}
@@ -37,6 +37,7 @@ import jakarta.servlet.jsp.JspTagException;
 import jakarta.servlet.jsp.PageContext;
 
 import org.apache.jasper.Constants;
+import org.apache.jasper.runtime.XmlEscaper;
 
 /**
  * Util contains some often used consts, static methods and embedded class
@@ -51,19 +52,6 @@ public class Util {
     public static final String DEFAULT_ENCODING =
         "ISO-8859-1";
 
-    private static final int HIGHEST_SPECIAL = '>';
-
-    private static final char[][] specialCharactersRepresentation =
-            new char[HIGHEST_SPECIAL + 1][];
-
-    static {
-        specialCharactersRepresentation['&'] = "&amp;".toCharArray();
-        specialCharactersRepresentation['<'] = "&lt;".toCharArray();
-        specialCharactersRepresentation['>'] = "&gt;".toCharArray();
-        specialCharactersRepresentation['"'] = "&#034;".toCharArray();
-        specialCharactersRepresentation['\''] = "&#039;".toCharArray();
-    }
-
     /**
      * Converts the given string description of a scope to the corresponding
      * PageContext constant.
@@ -183,47 +171,11 @@ public class Util {
      * taken from org.apache.taglibs.standard.tag.common.core.Util
      */
     public static String escapeXml(String buffer) {
-        String result = escapeXml(buffer.toCharArray(), buffer.length());
-        if (result == null) {
-            return buffer;
-        } else {
-            return result;
-        }
+        return XmlEscaper.escape(buffer);
     }
 
-    @SuppressWarnings("null") // escapedBuffer cannot be null
     public static String escapeXml(char[] arrayBuffer, int length) {
-        int start = 0;
-        StringBuilder escapedBuffer = null;
-
-        for (int i = 0; i < length; i++) {
-            char c = arrayBuffer[i];
-            if (c <= HIGHEST_SPECIAL) {
-                char[] escaped = specialCharactersRepresentation[c];
-                if (escaped != null) {
-                    // create StringBuilder to hold escaped xml string
-                    if (start == 0) {
-                        escapedBuffer = new StringBuilder(length + 5);
-                    }
-                    // add unescaped portion
-                    if (start < i) {
-                        escapedBuffer.append(arrayBuffer,start,i-start);
-                    }
-                    start = i + 1;
-                    // add escaped xml
-                    escapedBuffer.append(escaped);
-                }
-            }
-        }
-        // no xml escaping was necessary
-        if (start == 0) {
-            return null;
-        }
-        // add rest of unescaped portion
-        if (start < length) {
-            escapedBuffer.append(arrayBuffer,start,length-start);
-        }
-        return escapedBuffer.toString();
+        return XmlEscaper.escape(arrayBuffer, 0, length);
     }
 
     /** Utility methods
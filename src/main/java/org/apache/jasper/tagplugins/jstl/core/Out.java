@@ -25,7 +25,7 @@ import jakarta.servlet.jsp.JspWriter;
 
 import org.apache.jasper.compiler.tagplugin.TagPlugin;
 import org.apache.jasper.compiler.tagplugin.TagPluginContext;
-import org.apache.jasper.tagplugins.jstl.Util;
+import org.apache.jasper.runtime.XmlEscaper;
 
 
 public final class Out implements TagPlugin {
@@ -101,12 +101,7 @@ public final class Out implements TagPlugin {
                 read = ((Reader) input).read(buffer);
                 if (read != -1) {
                     if (escapeXml) {
-                        String escaped = Util.escapeXml(buffer, read);
-                        if (escaped == null) {
-                            out.write(buffer, 0, read);
-                        } else {
-                            out.print(escaped);
-                        }
+                        XmlEscaper.escape(buffer, 0, read, out);
                     } else {
                         out.write(buffer, 0, read);
                     }
@@ -117,9 +112,10 @@ public final class Out implements TagPlugin {
             String v = value != null ? value : defaultValue;
             if (v != null) {
                 if(escapeXml){
-                    v = Util.escapeXml(v);
+                    XmlEscaper.escape(v, out);
+                } else {
+                    out.write(v);
                 }
-                out.write(v);
                 return true;
             } else {
                 return false;
@@ -0,0 +1,150 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.async;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.servlet.test.util.TestResourceLoader;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.descriptor.JspConfigDescriptor;
+import jakarta.servlet.descriptor.JspPropertyGroupDescriptor;
+import jakarta.servlet.descriptor.TaglibDescriptor;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+
+/**
+ * Tests pages rendered asynchronously with non-blocking output.
+ */
+@RunWith(DefaultServer.class)
+public class AsyncOutputJspTestCase {
+
+    @BeforeClass
+    public static void setup() throws ServletException {
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        final JspPropertyGroup blocking = new JspPropertyGroup();
+        blocking.addUrlPattern("/blocking.jsp");
+        blocking.setAsyncOutput("false");
+
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(AsyncOutputJspTestCase.class.getClassLoader())
+                .setContextPath("/servletContext")
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName("servletContext.war")
+                .setResourceManager(new TestResourceLoader(AsyncOutputJspTestCase.class))
+                .setJspConfigDescriptor(new JspConfigDescriptor() {
+                    @Override
+                    public Collection<TaglibDescriptor> getTaglibs() {
+                        return Collections.emptyList();
+                    }
+
+                    @Override
+                    public Collection<JspPropertyGroupDescriptor> getJspPropertyGroups() {
+                        return Collections.<JspPropertyGroupDescriptor>singletonList(blocking);
+                    }
+                })
+                .addServlet(JspServletBuilder.setAsyncOutput(
+                        JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp"), true));
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), new HashMap<String, TagLibraryInfo>(), new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    private static String get(String path, int status) throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/" + path);
+            HttpResponse result = client.execute(get);
+            Assert.assertEquals(status, result.getStatusLine().getStatusCode());
+            return EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    @Test
+    public void testLargePage() throws IOException {
+        final String response = get("large.jsp", 200);
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("async: true"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("<p>row ü 0</p>"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("<p>row ü 19999</p>\n<p>end</p>"));
+        Assert.assertTrue(response.indexOf("async: true") < response.indexOf("included: ü"));
+        Assert.assertTrue(response.indexOf("included: ü") < response.indexOf("<p>row ü 0</p>"));
+        for (int i = 0; i < 20000; i += 997) {
+            MatcherAssert.assertThat(response, CoreMatchers.containsString("<p>row ü " + i + "</p>\n<p>row ü " + (i + 1) + "</p>"));
+        }
+    }
+
+    @Test
+    public void testErrorPageForwarded() throws IOException {
+        final String response = get("error.jsp?rows=10", 500);
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("failed: broken"));
+        MatcherAssert.assertThat(response, CoreMatchers.not(CoreMatchers.containsString("<p>row 0</p>")));
+    }
+
+    @Test
+    public void testErrorPageIncludedAfterFlush() throws IOException {
+        final String response = get("error.jsp?rows=5000", 200);
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("<p>row 0</p>"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("<p>row 4999</p>"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("failed: broken"));
+        Assert.assertTrue(response.indexOf("<p>row 4999</p>") < response.indexOf("failed: broken"));
+    }
+
+    @Test
+    public void testUncaughtException() throws IOException {
+        final String response = get("uncaught.jsp?fail=true", 500);
+        MatcherAssert.assertThat(response, CoreMatchers.not(CoreMatchers.containsString("not failed")));
+    }
+
+    @Test
+    public void testPropertyGroupOverride() throws IOException {
+        final String response = get("blocking.jsp", 200);
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("async: false"));
+    }
+}
@@ -0,0 +1,7 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8" pageEncoding="UTF-8" errorPage="/failed.jsp"%>
+<% int rows = Integer.parseInt(request.getParameter("rows"));
+   for (int i = 0; i < rows; i++) { %><p>row <%= i %></p>
+<% }
+   if (rows >= 0) {
+       throw new IllegalStateException("broken");
+   } %>
@@ -0,0 +1,2 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8" pageEncoding="UTF-8" isErrorPage="true"%>
+<p>failed: <%= exception.getMessage() %></p>
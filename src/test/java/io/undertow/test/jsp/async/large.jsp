@@ -0,0 +1,5 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8" pageEncoding="UTF-8"%>
+<p>async: <%= request.isAsyncStarted() %></p>
+<jsp:include page="/nested.jsp"/>
+<% for (int i = 0; i < 20000; i++) { %><p>row ü <%= i %></p>
+<% } %><p>end</p>
@@ -0,0 +1,5 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8" pageEncoding="UTF-8"%>
+<% if (request.getParameter("fail") != null) {
+       throw new IllegalStateException("uncaught");
+   } %>
+<p>not failed</p>
@@ -0,0 +1,138 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.buffer;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.servlet.test.util.TestResourceLoader;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.descriptor.JspConfigDescriptor;
+import jakarta.servlet.descriptor.JspPropertyGroupDescriptor;
+import jakarta.servlet.descriptor.TaglibDescriptor;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+
+/**
+ * Tests flushes requested by pages being deferred.
+ */
+@RunWith(DefaultServer.class)
+public class FlushCoalescingJspTestCase {
+
+    @BeforeClass
+    public static void setup() throws ServletException {
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        final JspPropertyGroup strict = new JspPropertyGroup();
+        strict.addUrlPattern("/strict.jsp");
+        strict.setStrictFlush("true");
+
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(FlushCoalescingJspTestCase.class.getClassLoader())
+                .setContextPath("/servletContext")
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName("servletContext.war")
+                .setResourceManager(new TestResourceLoader(FlushCoalescingJspTestCase.class))
+                .setJspConfigDescriptor(new JspConfigDescriptor() {
+                    @Override
+                    public Collection<TaglibDescriptor> getTaglibs() {
+                        return Collections.emptyList();
+                    }
+
+                    @Override
+                    public Collection<JspPropertyGroupDescriptor> getJspPropertyGroups() {
+                        return Collections.<JspPropertyGroupDescriptor>singletonList(strict);
+                    }
+                })
+                .addServlet(JspServletBuilder.setFlushCoalescing(
+                        JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp"), 4096));
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), new HashMap<String, TagLibraryInfo>(), new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    private static String get(String path) throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/" + path);
+            HttpResponse result = client.execute(get);
+            Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+            return EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    private static int count(String response, String text) {
+        int count = 0;
+        for (int i = response.indexOf(text); i >= 0; i = response.indexOf(text, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void testIncludeFlushesDeferred() throws IOException {
+        final String response = get("coalesced.jsp");
+        Assert.assertEquals(30, count(response, "<p>fragment</p>"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("committed: false"));
+    }
+
+    @Test
+    public void testStrictFlush() throws IOException {
+        final String response = get("strict.jsp");
+        Assert.assertEquals(30, count(response, "<p>fragment</p>"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("committed: true"));
+    }
+
+    @Test
+    public void testFlushAfterThreshold() throws IOException {
+        final String response = get("flushed.jsp");
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("<p>row 499</p>"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("committed: true"));
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.buffer;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ErrorPage;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.servlet.test.util.TestResourceLoader;
+import io.undertow.test.jsp.tagpool.CountedTag;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.DefaultRedirectStrategy;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagAttributeInfo;
+import org.apache.jasper.deploy.TagInfo;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.descriptor.JspConfigDescriptor;
+import jakarta.servlet.descriptor.JspPropertyGroupDescriptor;
+import jakarta.servlet.descriptor.TaglibDescriptor;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests pages flushed after their document head.
+ */
+@RunWith(DefaultServer.class)
+public class FlushEarlyJspTestCase {
+
+    @BeforeClass
+    public static void setup() throws ServletException {
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        final JspPropertyGroup disabled = new JspPropertyGroup();
+        disabled.addUrlPattern("/head-disabled.jsp");
+        disabled.setFlushEarly("false");
+
+        deploy(container, servletPath, "/servletContext", disabled, false);
+        deploy(container, servletPath, "/errorPages", disabled, true);
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    private static void deploy(ServletContainer container, PathHandler servletPath, String contextPath,
+            final JspPropertyGroup disabled, boolean errorPages) throws ServletException {
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(FlushEarlyJspTestCase.class.getClassLoader())
+                .setContextPath(contextPath)
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName(contextPath.substring(1) + ".war")
+                .setResourceManager(new TestResourceLoader(FlushEarlyJspTestCase.class))
+                .setJspConfigDescriptor(new JspConfigDescriptor() {
+                    @Override
+                    public Collection<TaglibDescriptor> getTaglibs() {
+                        return Collections.emptyList();
+                    }
+
+                    @Override
+                    public Collection<JspPropertyGroupDescriptor> getJspPropertyGroups() {
+                        return Collections.<JspPropertyGroupDescriptor>singletonList(disabled);
+                    }
+                })
+                .addServlet(JspServletBuilder.setFlushEarlyTags(JspServletBuilder.setFlushEarly(
+                        JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp"), true), HeadTag.class));
+        if (errorPages) {
+            builder.addErrorPage(new ErrorPage("/head-error.jsp"));
+        }
+
+        Map<String, TagLibraryInfo> tags = new HashMap<>();
+        TagLibraryInfo headTld = new TagLibraryInfo();
+        headTld.setUri("/head.tld");
+        headTld.setPath("/head.tld");
+        headTld.setVersion("2.0");
+        headTld.setTlibversion("1.1");
+        TagInfo safe = new TagInfo();
+        safe.setTagName("safe");
+        safe.setTagClassName(HeadTag.class.getName());
+        safe.setBodyContent("empty");
+        headTld.addTagInfo(safe);
+        TagInfo other = new TagInfo();
+        other.setTagName("other");
+        other.setTagClassName(CountedTag.class.getName());
+        other.setBodyContent("empty");
+        TagAttributeInfo attr = new TagAttributeInfo();
+        attr.setName("value");
+        attr.setRequired("true");
+        attr.setReqTime("true");
+        other.addTagAttributeInfo(attr);
+        headTld.addTagInfo(other);
+        tags.put("/head.tld", headTld);
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), tags, new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+    }
+
+    private static String get(String path) throws IOException {
+        return get("/servletContext", path);
+    }
+
+    private static String get(String contextPath, String path) throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + contextPath + "/" + path);
+            HttpResponse result = client.execute(get);
+            Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+            return EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    @Test
+    public void testFlushedAfterHead() throws IOException {
+        final String response = get("head.jsp");
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("<head><title>head</title></HEAD>\n<body>"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("committed: true"));
+    }
+
+    @Test
+    public void testAllowedTagFlushed() throws IOException {
+        final String response = get("head-tag.jsp");
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("<p>[safe]</p>"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("committed: true"));
+    }
+
+    @Test
+    public void testOtherTagNotFlushed() throws IOException {
+        final String response = get("head-custom.jsp");
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("<p>[safe][b]</p>"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("committed: false"));
+    }
+
+    @Test
+    public void testScriptingNotFlushed() throws IOException {
+        MatcherAssert.assertThat(get("head-expression.jsp"), CoreMatchers.containsString("committed: false"));
+    }
+
+    @Test
+    public void testPropertyGroupOverride() throws IOException {
+        MatcherAssert.assertThat(get("head-disabled.jsp"), CoreMatchers.containsString("committed: false"));
+    }
+
+    @Test
+    public void testErrorPageNotFlushed() throws IOException {
+        MatcherAssert.assertThat(get("head-error.jsp"), CoreMatchers.containsString("committed: false"));
+    }
+
+    @Test
+    public void testDeploymentErrorPagesNotFlushed() throws IOException {
+        MatcherAssert.assertThat(get("/errorPages", "head.jsp"), CoreMatchers.containsString("committed: false"));
+    }
+
+    @Test
+    public void testRedirectNotFlushed() throws IOException {
+        MatcherAssert.assertThat(get("head-redirect.jsp"), CoreMatchers.containsString("committed: false"));
+        TestHttpClient client = new TestHttpClient();
+        try {
+            client.setRedirectStrategy(new DefaultRedirectStrategy() {
+                @Override
+                public boolean isRedirected(HttpRequest request, HttpResponse response, HttpContext context) {
+                    return false;
+                }
+            });
+            HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/head-redirect.jsp?redirect=true");
+            HttpResponse result = client.execute(get);
+            Assert.assertEquals(302, result.getStatusLine().getStatusCode());
+            EntityUtils.consume(result.getEntity());
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.buffer;
+
+import jakarta.servlet.jsp.JspException;
+import jakarta.servlet.jsp.tagext.TagSupport;
+import java.io.IOException;
+
+/**
+ * Classic tag writing a marker, allowed after the head of pages flushed early.
+ */
+public class HeadTag extends TagSupport {
+
+    @Override
+    public int doStartTag() throws JspException {
+        try {
+            pageContext.getOut().print("[safe]");
+        } catch (IOException e) {
+            throw new JspException(e);
+        }
+        return SKIP_BODY;
+    }
+}
@@ -0,0 +1,5 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8"%>
+<% for (int i = 0; i < 500; i++) { %><p>row <%= i %></p>
+<% }
+   out.flush(); %>
+<p>committed: <%= response.isCommitted() %></p>
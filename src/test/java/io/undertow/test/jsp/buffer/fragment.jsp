@@ -0,0 +1,2 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8"%>
+<p>fragment</p>
@@ -0,0 +1,7 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8"%>
+<html>
+<head><title>head</title></HEAD>
+<body>
+<p>committed: ${pageContext.response.committed}</p>
+</body>
+</html>
@@ -0,0 +1,7 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8" errorPage="/fragment.jsp"%>
+<html>
+<head><title>head</title></head>
+<body>
+<p>committed: ${pageContext.response.committed}</p>
+</body>
+</html>
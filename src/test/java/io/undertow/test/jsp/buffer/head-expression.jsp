@@ -0,0 +1,7 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8"%>
+<html>
+<head><title>head</title></head>
+<body>
+<p>committed: <%= response.isCommitted() %></p>
+</body>
+</html>
@@ -0,0 +1,11 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8"%>
+<html>
+<head><title>head</title></head>
+<body>
+<% if (request.getParameter("redirect") != null) {
+       response.sendRedirect("head.jsp");
+       return;
+   } %>
+<p>committed: <%= response.isCommitted() %></p>
+</body>
+</html>
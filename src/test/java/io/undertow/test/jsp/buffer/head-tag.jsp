@@ -0,0 +1,9 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8"%>
+<%@ taglib uri="/head.tld" prefix="head" %>
+<html>
+<head><title>head</title></head>
+<body>
+<p><head:safe/></p>
+<p>committed: ${pageContext.response.committed}</p>
+</body>
+</html>
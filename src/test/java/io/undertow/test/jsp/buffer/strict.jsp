@@ -0,0 +1,3 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8"%>
+<% for (int i = 0; i < 30; i++) { %><jsp:include page="/fragment.jsp" flush="true"/><% } %>
+<p>committed: <%= response.isCommitted() %></p>
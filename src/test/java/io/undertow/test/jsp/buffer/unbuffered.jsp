@@ -0,0 +1,4 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8" buffer="none"%>
+<p>buffer: <%= out.getBufferSize() %></p>
+<% for (int i = 0; i < 2000; i++) { %><p>row <%= i %></p>
+<% } %>
@@ -0,0 +1,198 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.compiler;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.server.handlers.resource.PathResourceManager;
+import io.undertow.servlet.Servlets;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.EmbeddedServletOptions;
+import org.apache.jasper.JasperException;
+import org.apache.jasper.JspCompilationContext;
+import org.apache.jasper.Options;
+import org.apache.jasper.compiler.JspRuntimeContext;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.apache.jasper.servlet.JspServletWrapper;
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests pages compiled in a batch by {@link JspRuntimeContext#compile}.
+ */
+@RunWith(DefaultServer.class)
+public class BatchCompilationJspTestCase {
+
+    /**
+     * Serves the pages compiled by the runtime context the test uses.
+     */
+    public static class BatchServlet extends HttpServlet {
+
+        static volatile ServletConfig config;
+        static volatile Options options;
+        static volatile JspRuntimeContext rctxt;
+
+        @Override
+        public void init(ServletConfig config) throws ServletException {
+            super.init(config);
+            BatchServlet.config = config;
+            options = new EmbeddedServletOptions(config, config.getServletContext());
+            rctxt = new JspRuntimeContext(config.getServletContext(), options);
+        }
+
+        @Override
+        protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+            wrapper(req.getServletPath()).service(req, resp, false);
+        }
+
+        static synchronized JspServletWrapper wrapper(String jspUri) throws ServletException {
+            JspServletWrapper wrapper = rctxt.getWrapper(jspUri);
+            if (wrapper == null) {
+                wrapper = new JspServletWrapper(config, options, jspUri, rctxt);
+                rctxt.addWrapper(jspUri, wrapper);
+            }
+            return wrapper;
+        }
+    }
+
+    @BeforeClass
+    public static void setup() throws ServletException, IOException {
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(BatchCompilationJspTestCase.class.getClassLoader())
+                .setContextPath("/servletContext")
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName("servletContext.war")
+                // Lists the tag files by their path in the web application
+                .setResourceManager(new PathResourceManager(Paths.get(
+                        BatchCompilationJspTestCase.class.getResource("").getPath())))
+                .addServlet(Servlets.servlet("Batch Servlet", BatchServlet.class)
+                        .addMapping("*.jsp")
+                        .setLoadOnStartup(1)
+                        .addInitParam("scratchdir", Files.createTempDirectory("jsp").toString()));
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), new HashMap<String, TagLibraryInfo>(), new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    @Test
+    public void testErrorsDispatchedToTheirPage() throws IOException {
+        Map<String, Exception> failures = BatchServlet.rctxt.compile(
+                BatchServlet.config, List.of("/page.jsp", "/error.jsp"), 2);
+        Assert.assertEquals(Set.of("/error.jsp"), failures.keySet());
+        MatcherAssert.assertThat(failures.get("/error.jsp"), CoreMatchers.instanceOf(JasperException.class));
+        MatcherAssert.assertThat(failures.get("/error.jsp").getMessage(),
+                CoreMatchers.containsString("undefinedVariable"));
+
+        TestHttpClient client = new TestHttpClient();
+        try {
+            MatcherAssert.assertThat(get(client, "/page.jsp?name=batch", 200),
+                    CoreMatchers.containsString("greeting: Hello batch\n"));
+            get(client, "/error.jsp", 500);
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    @Test
+    public void testRequestDuringBatch() throws Exception {
+        TestHttpClient client = new TestHttpClient();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // The steps of JspRuntimeContext.compile for a batch of one page
+            JspCompilationContext ctxt = BatchServlet.wrapper("/included.jsp").getJspEngineContext();
+            Assert.assertTrue(ctxt.translate());
+
+            Future<String> request = executor.submit(() -> get(client, "/included.jsp?name=during", 200));
+            try {
+                request.get(1, TimeUnit.SECONDS);
+                Assert.fail("The request did not wait for the batch");
+            } catch (TimeoutException expected) {
+                // Waiting for the batch, holding the lock of the page
+            }
+
+            // An interrupted compilation fails instead of compiling along the batch
+            Thread.currentThread().interrupt();
+            try {
+                ctxt.compile();
+                Assert.fail("The compilation did not wait for the batch");
+            } catch (JasperException expected) {
+                Assert.assertTrue(Thread.interrupted());
+            }
+
+            // Times out rather than hanging if the batch and the request deadlock
+            executor.submit(() -> {
+                ctxt.completeCompilation();
+                return null;
+            }).get(10, TimeUnit.SECONDS);
+            Assert.assertEquals("included: during\n", request.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    private static String get(TestHttpClient client, String path, int expectedResponseCode) throws IOException {
+        HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext" + path);
+        HttpResponse result = client.execute(get);
+        Assert.assertEquals(expectedResponseCode, result.getStatusLine().getStatusCode());
+        return EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.compiler;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.server.handlers.resource.PathResourceManager;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+
+/**
+ * Tests pages compiled by a deployment and reused from the compilation
+ * cache by another one.
+ */
+@RunWith(DefaultServer.class)
+public class CompilationCacheJspTestCase {
+
+    private static File cacheDir;
+    private static File secondScratchDir;
+
+    @BeforeClass
+    public static void setup() throws ServletException, IOException {
+
+        cacheDir = Files.createTempDirectory("jspcache").toFile();
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        deploy(container, servletPath, "/first", Files.createTempDirectory("jsp").toFile());
+        secondScratchDir = Files.createTempDirectory("jsp").toFile();
+        deploy(container, servletPath, "/second", secondScratchDir);
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    private static void deploy(ServletContainer container, PathHandler servletPath,
+            String contextPath, File scratchDir) throws ServletException {
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(CompilationCacheJspTestCase.class.getClassLoader())
+                .setContextPath(contextPath)
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName(contextPath.substring(1) + ".war")
+                // Lists the tag files by their path in the web application
+                .setResourceManager(new PathResourceManager(Paths.get(
+                        CompilationCacheJspTestCase.class.getResource("").getPath())))
+                .addServlet(JspServletBuilder.setCompilationCache(
+                        JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp")
+                                .addInitParam("scratchdir", scratchDir.getAbsolutePath()),
+                        cacheDir.getAbsolutePath()));
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), new HashMap<String, TagLibraryInfo>(), new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+    }
+
+    @Test
+    public void testCompilationCache() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            assertPage(client, "/first", "first");
+            Assert.assertNotEquals(0, cacheDir.list().length);
+
+            for (int n = 1; n <= 2; n++) {
+                assertPage(client, "/second", "second" + n);
+            }
+            // The page and its tag file were restored from the cache,
+            // instead of being generated and compiled
+            File classes = new File(secondScratchDir, "org/apache/jsp");
+            Assert.assertTrue(new File(classes, "page_jsp.class").isFile());
+            Assert.assertFalse(new File(classes, "page_jsp.java").exists());
+            Assert.assertTrue(new File(classes, "page_jsp$Counter.class").isFile());
+            File[] tags = new File(classes, "tag").listFiles();
+            Assert.assertNotNull(tags);
+            Assert.assertEquals(1, tags.length);
+            MatcherAssert.assertThat(tags[0].getName(), CoreMatchers.endsWith("greet_tag.class"));
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    private static void assertPage(TestHttpClient client, String contextPath, String name) throws IOException {
+        HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + contextPath + "/page.jsp?name=" + name);
+        HttpResponse result = client.execute(get);
+        Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+        final String response = EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("count: 2\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("included: " + name + "\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("greeting: Hello " + name + "\n"));
+    }
+}
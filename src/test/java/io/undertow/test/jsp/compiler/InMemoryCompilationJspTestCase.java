@@ -0,0 +1,132 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.compiler;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.server.handlers.resource.PathResourceManager;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests pages and tag files compiled in memory.
+ */
+@RunWith(DefaultServer.class)
+public class InMemoryCompilationJspTestCase {
+
+    private static File scratchDir;
+
+    @BeforeClass
+    public static void setup() throws ServletException, IOException {
+
+        scratchDir = Files.createTempDirectory("jsp").toFile();
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(InMemoryCompilationJspTestCase.class.getClassLoader())
+                .setContextPath("/servletContext")
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName("servletContext.war")
+                // Lists the tag files by their path in the web application
+                .setResourceManager(new PathResourceManager(Paths.get(
+                        InMemoryCompilationJspTestCase.class.getResource("").getPath())))
+                .addServlet(JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp")
+                        .addInitParam("inMemoryCompilation", "true")
+                        .addInitParam("keepgenerated", "false")
+                        .addInitParam("scratchdir", scratchDir.getAbsolutePath()));
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), new HashMap<String, TagLibraryInfo>(), new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    @Test
+    public void testInMemoryCompilation() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            for (int n = 1; n <= 2; n++) {
+                HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/page.jsp?name=page" + n);
+                HttpResponse result = client.execute(get);
+                Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+                final String response = EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("count: 2\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("included: page" + n + "\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("greeting: Hello page" + n + "\n"));
+            }
+            // Neither the source nor the classes of the page and tag file were written
+            Assert.assertEquals(List.of(), generatedFiles());
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    @Test
+    public void testCompilationError() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/error.jsp");
+            HttpResponse result = client.execute(get);
+            Assert.assertEquals(500, result.getStatusLine().getStatusCode());
+            EntityUtils.consume(result.getEntity());
+            Assert.assertEquals(List.of(), generatedFiles());
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    private static List<Path> generatedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(scratchDir.toPath())) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+}
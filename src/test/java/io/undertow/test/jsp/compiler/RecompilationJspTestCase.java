@@ -0,0 +1,131 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.compiler;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.server.handlers.resource.PathResourceManager;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+
+/**
+ * Tests a page and its tag file compiled again after they changed, while
+ * the types found by the first compilation are remembered.
+ */
+@RunWith(DefaultServer.class)
+public class RecompilationJspTestCase {
+
+    private static Path webappDir;
+
+    @BeforeClass
+    public static void setup() throws ServletException, IOException {
+
+        webappDir = Files.createTempDirectory("webapp");
+        Files.createDirectories(webappDir.resolve("WEB-INF/tags"));
+        write("WEB-INF/tags/greet.tag",
+                "<%@ attribute name=\"name\" required=\"true\" %>greeting: Hello ${name}",
+                0);
+        write("page.jsp",
+                "<%@ taglib prefix=\"t\" tagdir=\"/WEB-INF/tags\" %><t:greet name=\"${param.name}\"/>",
+                0);
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(RecompilationJspTestCase.class.getClassLoader())
+                .setContextPath("/servletContext")
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName("servletContext.war")
+                .setResourceManager(new PathResourceManager(webappDir))
+                .addServlet(JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp")
+                        .addInitParam("modificationTestInterval", "0")
+                        .addInitParam("scratchdir", Files.createTempDirectory("jsp").toString()));
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), new HashMap<String, TagLibraryInfo>(), new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    /**
+     * @param age The number of seconds the file is older, or newer when
+     *            negative, than now
+     */
+    private static void write(String path, String content, int age) throws IOException {
+        Path file = webappDir.resolve(path);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - age * 1000L));
+    }
+
+    @Test
+    public void testChangedTagFileRecompiled() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            Assert.assertEquals("greeting: Hello first", get(client, "first"));
+
+            // The page sets an attribute the tag file did not have, so that
+            // it only compiles against the new class of the tag file
+            write("WEB-INF/tags/greet.tag",
+                    "<%@ attribute name=\"name\" required=\"true\" %><%@ attribute name=\"suffix\" %>"
+                            + "greeting: Hello ${name}${suffix}",
+                    -10);
+            write("page.jsp",
+                    "<%@ taglib prefix=\"t\" tagdir=\"/WEB-INF/tags\" %><t:greet name=\"${param.name}\" suffix=\"!\"/>",
+                    -10);
+
+            Assert.assertEquals("greeting: Hello second!", get(client, "second"));
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    private static String get(TestHttpClient client, String name) throws IOException {
+        HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/page.jsp?name=" + name);
+        HttpResponse result = client.execute(get);
+        final String response = EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+        Assert.assertEquals(response, 200, result.getStatusLine().getStatusCode());
+        return response.trim();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.compiler;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.server.handlers.resource.PathResourceManager;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests pages compiled when the deployment starts.
+ */
+@RunWith(DefaultServer.class)
+public class WarmUpCompilationJspTestCase {
+
+    private static File scratchDir;
+
+    @BeforeClass
+    public static void setup() throws ServletException, IOException {
+
+        scratchDir = Files.createTempDirectory("jsp").toFile();
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(WarmUpCompilationJspTestCase.class.getClassLoader())
+                .setContextPath("/servletContext")
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName("servletContext.war")
+                // Lists the tag files by their path in the web application
+                .setResourceManager(new PathResourceManager(Paths.get(
+                        WarmUpCompilationJspTestCase.class.getResource("").getPath())))
+                .addServlet(JspServletBuilder.setWarmUpCompilation(JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp")
+                        .addInitParam("scratchdir", scratchDir.getAbsolutePath()), 2, -1));
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), new HashMap<String, TagLibraryInfo>(), new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    @Test
+    public void testWarmUpCompilation() throws IOException {
+        // The pages and tag files were compiled before the first request
+        List<String> classes = generatedFiles().stream()
+                .map(path -> path.getFileName().toString())
+                .filter(name -> name.endsWith(".class"))
+                .collect(Collectors.toList());
+        MatcherAssert.assertThat(classes, CoreMatchers.hasItems("page_jsp.class", "included_jsp.class"));
+        Assert.assertTrue(classes.stream().anyMatch(name -> name.endsWith("greet_tag.class")));
+        MatcherAssert.assertThat(classes, CoreMatchers.not(CoreMatchers.hasItem("error_jsp.class")));
+
+        TestHttpClient client = new TestHttpClient();
+        try {
+            HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/page.jsp?name=warm");
+            HttpResponse result = client.execute(get);
+            Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+            final String response = EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+            MatcherAssert.assertThat(response, CoreMatchers.containsString("greeting: Hello warm\n"));
+
+            // A page failing to compile fails on its requests
+            get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/error.jsp");
+            result = client.execute(get);
+            Assert.assertEquals(500, result.getStatusLine().getStatusCode());
+            EntityUtils.consume(result.getEntity());
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    private static List<Path> generatedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(scratchDir.toPath())) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+}
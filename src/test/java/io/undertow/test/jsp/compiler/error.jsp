@@ -0,0 +1 @@
+<% undefinedVariable++; %>
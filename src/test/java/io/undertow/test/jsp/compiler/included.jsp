@@ -0,0 +1 @@
+included: <%= request.getParameter("name") %>
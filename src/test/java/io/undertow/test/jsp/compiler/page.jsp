@@ -0,0 +1,17 @@
+<%@ taglib prefix="t" tagdir="/WEB-INF/tags" %>
+<%!
+    static class Counter {
+        private int count;
+
+        int next() {
+            return ++count;
+        }
+    }
+%>
+<%
+    Counter counter = new Counter();
+    counter.next();
+%>
+count: <%= counter.next() %>
+<%@ include file="included.jsp" %>
+<t:greet name="${param.name}"/>
@@ -0,0 +1,96 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.el;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.servlet.test.util.TestResourceLoader;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * Tests bean properties read by the EL resolver of the pages.
+ */
+@RunWith(DefaultServer.class)
+public class BeanResolverJspTestCase {
+
+    @BeforeClass
+    public static void setup() throws ServletException {
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(BeanResolverJspTestCase.class.getClassLoader())
+                .setContextPath("/servletContext")
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName("servletContext.war")
+                .setResourceManager(new TestResourceLoader(BeanResolverJspTestCase.class))
+                .addServlet(JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp"));
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), new HashMap<String, TagLibraryInfo>(), new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    @Test
+    public void testBeanProperties() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            // Getters are looked up on the first request, and reused by the next ones
+            for (int n = 1; n <= 3; n++) {
+                HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/properties.jsp?name=row" + n);
+                HttpResponse result = client.execute(get);
+                Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+                final String response = EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("name: row" + n + " 3 BOX 0.1 false \n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("label: label of row" + n + "\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("parent: parent of row" + n + " \n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("other: second Row label of row" + n + "\n"));
+            }
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.el;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.servlet.test.util.TestResourceLoader;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.compiler.CompilingELInterpreter;
+import org.apache.jasper.compiler.ELInterpreter;
+import org.apache.jasper.deploy.FunctionInfo;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests expressions compiled to Java code.
+ */
+@RunWith(DefaultServer.class)
+public class CompilingELInterpreterTestCase {
+
+    @BeforeClass
+    public static void setup() throws ServletException {
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(CompilingELInterpreterTestCase.class.getClassLoader())
+                .setContextPath("/servletContext")
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName("servletContext.war")
+                .setResourceManager(new TestResourceLoader(CompilingELInterpreterTestCase.class))
+                .addInitParameter(ELInterpreter.class.getName(), CompilingELInterpreter.class.getName())
+                .addServlet(JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp"));
+
+        Map<String, TagLibraryInfo> tags = new HashMap<>();
+        TagLibraryInfo functions = new TagLibraryInfo();
+        functions.setUri("/functions.tld");
+        functions.setPath("/functions.tld");
+        functions.setVersion("2.0");
+        functions.setTlibversion("1.1");
+        functions.addFunctionInfo(function("upper", "java.lang.String upper(java.lang.String)"));
+        functions.addFunctionInfo(function("twice", "int twice(int)"));
+        functions.addFunctionInfo(function("describe", "java.lang.String describe(java.lang.Object)"));
+        functions.addFunctionInfo(function("self", "io.undertow.test.jsp.el.Row self(io.undertow.test.jsp.el.Row)"));
+        functions.addFunctionInfo(function("fail", "java.lang.String fail(java.lang.String)"));
+        tags.put("/functions.tld", functions);
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), tags, new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    @Test
+    public void testCompiledExpressions() throws IOException {
+        String response = get("compiled.jsp?name=pen&price=2.5&qty=4");
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("total: 10.0\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("qty: 5 -6 2.0 1 -4 6.0\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("compare: true false true false true true\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("name: pen false true false\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("choice: many 4 pen\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("parent:  true true\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("values: 0.1 BOX  1\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("static: 2147483647 SECONDS -9223372036854775807\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("fallback: second replaced 5\n"));
+        // Getters are not called again when the expression is evaluated by the EL implementation
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("once: true 2 2\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("included: many\n"));
+    }
+
+    @Test
+    public void testCompiledExpressionsWithNulls() throws IOException {
+        String response = get("compiled.jsp?price=0.5&qty=2&parent=box");
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("total: 1.0\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("qty: 3 -8 1.0 2 -2 3.0\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("compare: false true false true false false\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("name:  true false true\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("choice: few few none\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("parent: box false false\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("fallback: second replaced 3\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("included: few\n"));
+    }
+
+    @Test
+    public void testCompiledFunctions() throws IOException {
+        String response = get("functions.jsp?name=pen&qty=4");
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("upper: PEN YES\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("twice: 8 11 4\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("describe: Integer:4 Long:5 String:pen null Boolean:true\n"));
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("self: pen PEN\n"));
+        // A function that throws is called once, its exception reported
+        MatcherAssert.assertThat(response, CoreMatchers.containsString("fail: failed pen 1\n"));
+    }
+
+    private static FunctionInfo function(String name, String signature) {
+        FunctionInfo function = new FunctionInfo();
+        function.setName(name);
+        function.setFunctionClass(Functions.class.getName());
+        function.setFunctionSignature(signature);
+        return function;
+    }
+
+    private static String get(String path) throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/" + path);
+            HttpResponse result = client.execute(get);
+            Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+            return EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.undertow.test.jsp.el;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Functions of the tag library used by the tests.
+ */
+public final class Functions {
+
+    private static final AtomicInteger CALLS = new AtomicInteger();
+
+    private Functions() {
+    }
+
+    public static String upper(String s) {
+        return s.toUpperCase();
+    }
+
+    public static int twice(int i) {
+        return i * 2;
+    }
+
+    public static String describe(Object o) {
+        return o == null ? "null" : o.getClass().getSimpleName() + ":" + o;
+    }
+
+    public static String describe(String s) {
+        return "string:" + s;
+    }
+
+    public static Row self(Row row) {
+        return row;
+    }
+
+    public static String fail(String s) {
+        CALLS.incrementAndGet();
+        throw new IllegalStateException("failed " + s);
+    }
+
+    public static int calls() {
+        return CALLS.getAndSet(0);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.el;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.servlet.Servlets;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.servlet.test.util.TestResourceLoader;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * Tests the resolution of identifiers.
+ */
+@RunWith(DefaultServer.class)
+public class IdentifierJspTestCase {
+
+    @BeforeClass
+    public static void setup() throws ServletException {
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        deploy(container, servletPath, "/servletContext", null);
+        deploy(container, servletPath, "/named", new DeploymentInfo()
+                .addListener(Servlets.listener(NamedELResolver.Listener.class)));
+        deploy(container, servletPath, "/properties", new DeploymentInfo()
+                .addListener(Servlets.listener(NamedELResolver.Listener.class))
+                .addInitParameter("propertyResolver", "true"));
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    private static void deploy(ServletContainer container, PathHandler servletPath,
+            String contextPath, DeploymentInfo builder) throws ServletException {
+        if (builder == null) {
+            builder = new DeploymentInfo();
+        }
+        builder.setClassLoader(IdentifierJspTestCase.class.getClassLoader())
+                .setContextPath(contextPath)
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName(contextPath.substring(1) + ".war")
+                .setResourceManager(new TestResourceLoader(IdentifierJspTestCase.class))
+                .addServlet(JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp"));
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), new HashMap<String, TagLibraryInfo>(), new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+    }
+
+    private static String get(String path) throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + path);
+            HttpResponse result = client.execute(get);
+            Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+            return EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    @Test
+    public void testIdentifiers() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            // Misses are remembered per request, and never hide attributes set later
+            for (int n = 1; n <= 2; n++) {
+                HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/identifiers.jsp?name=page" + n);
+                HttpResponse result = client.execute(get);
+                Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+                final String response = EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("attribute: request application\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("missing: []\nmissing: []\nmissing: []\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("late: page" + n + "\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("implicit: page" + n + " GET\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("import: SECONDS 2147483647\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("shadowed: attribute\n"));
+                // Evaluation listeners are told about identifiers found in the attributes
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("resolved: fromRequest \n"));
+            }
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    @Test
+    public void testApplicationResolver() throws IOException {
+        // Resolvers of the application may resolve identifiers whatever their common property type
+        MatcherAssert.assertThat(get("/named/named.jsp"), CoreMatchers.containsString("named: [named] request\n"));
+        // unless they were added as never resolving them
+        MatcherAssert.assertThat(get("/properties/named.jsp"), CoreMatchers.containsString("named: [] request\n"));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.el;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.servlet.test.util.TestResourceLoader;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * Tests the implicit objects of the EL.
+ */
+@RunWith(DefaultServer.class)
+public class ImplicitObjectJspTestCase {
+
+    @BeforeClass
+    public static void setup() throws ServletException {
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(ImplicitObjectJspTestCase.class.getClassLoader())
+                .setContextPath("/servletContext")
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName("servletContext.war")
+                .setResourceManager(new TestResourceLoader(ImplicitObjectJspTestCase.class))
+                .addServlet(JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp"));
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), new HashMap<String, TagLibraryInfo>(), new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    @Test
+    public void testImplicitObjects() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            // The page contexts are pooled, nothing must be left from the previous request
+            for (int n = 1; n <= 3; n++) {
+                HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/implicit.jsp?name=page" + n + "&v=a&v=b");
+                get.addHeader("X-Foo", "foo" + n);
+                get.addHeader("X-Foo", "bar");
+                get.addHeader("Cookie", "id=" + n + "; other=x; id=last");
+                HttpResponse result = client.execute(get);
+                Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+                final String response = EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("param: page" + n + " page" + n + " true false\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("paramValues: a,b 2\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("header: foo" + n + " foo" + n + ",bar\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("cookie: " + n + " x 2\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("scopes: page request application\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("pageScope: [fromPage]\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("sessionScope: [] true\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("initParam: true\n"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("pageContext: GET\n"));
+                // Evaluation listeners are told about implicit objects, then their properties
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("resolved: param =name requestScope =fromRequest \n"));
+            }
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+}
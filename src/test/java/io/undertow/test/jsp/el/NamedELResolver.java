@@ -0,0 +1,76 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.undertow.test.jsp.el;
+
+import jakarta.el.ELContext;
+import jakarta.el.ELResolver;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import org.apache.jasper.runtime.JspApplicationContextImpl;
+
+/**
+ * Resolver of a bean by its name, telling no common property type as the
+ * resolvers of CDI implementations do.
+ */
+public class NamedELResolver extends ELResolver {
+
+    /**
+     * Adds the resolver, as never resolving identifiers when the
+     * <code>propertyResolver</code> context parameter is set.
+     */
+    public static class Listener implements ServletContextListener {
+
+        @Override
+        public void contextInitialized(ServletContextEvent sce) {
+            JspApplicationContextImpl context = JspApplicationContextImpl.getInstance(sce.getServletContext());
+            if (sce.getServletContext().getInitParameter("propertyResolver") != null) {
+                context.addPropertyELResolver(new NamedELResolver());
+            } else {
+                context.addELResolver(new NamedELResolver());
+            }
+        }
+    }
+
+    @Override
+    public Object getValue(ELContext context, Object base, Object property) {
+        if (base == null && "namedBean".equals(property)) {
+            context.setPropertyResolved(base, property);
+            return "named";
+        }
+        return null;
+    }
+
+    @Override
+    public Class<?> getType(ELContext context, Object base, Object property) {
+        return null;
+    }
+
+    @Override
+    public void setValue(ELContext context, Object base, Object property, Object value) {
+    }
+
+    @Override
+    public boolean isReadOnly(ELContext context, Object base, Object property) {
+        return true;
+    }
+
+    @Override
+    public Class<?> getCommonPropertyType(ELContext context, Object base) {
+        return null;
+    }
+}
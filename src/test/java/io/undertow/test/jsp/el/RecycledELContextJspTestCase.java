@@ -0,0 +1,99 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.el;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.servlet.test.util.TestResourceLoader;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * Tests the EL contexts reused by the requests of different pages.
+ */
+@RunWith(DefaultServer.class)
+public class RecycledELContextJspTestCase {
+
+    @BeforeClass
+    public static void setup() throws ServletException {
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(RecycledELContextJspTestCase.class.getClassLoader())
+                .setContextPath("/servletContext")
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName("servletContext.war")
+                .setResourceManager(new TestResourceLoader(RecycledELContextJspTestCase.class))
+                .addServlet(JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp"));
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), new HashMap<String, TagLibraryInfo>(), new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    @Test
+    public void testRecycledELContexts() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            // Nothing of a page must be left in the EL context used by the next one
+            for (int n = 1; n <= 5; n++) {
+                Assert.assertEquals("imports: SECONDS " + n + "\n", get(client, "imports.jsp?n=" + n, 200));
+                Assert.assertEquals("noimports: [] " + n + "\n", get(client, "noimports.jsp?n=" + n, 200));
+                get(client, "notfound.jsp", 500);
+                Assert.assertEquals("noimports: [] " + n + "\n", get(client, "noimports.jsp?n=" + n, 200));
+                // Context objects put by the page are not seen by another request
+                Assert.assertEquals("context: null\n", get(client, "context.jsp?n=" + n, 200));
+            }
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    private String get(TestHttpClient client, String path, int status) throws IOException {
+        HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/" + path);
+        HttpResponse result = client.execute(get);
+        Assert.assertEquals(status, result.getStatusLine().getStatusCode());
+        return EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8).trim() + "\n";
+    }
+}
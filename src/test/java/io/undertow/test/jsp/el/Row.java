@@ -0,0 +1,134 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.undertow.test.jsp.el;
+
+/**
+ * Bean of the compiled expressions test.
+ */
+public class Row {
+
+    /**
+     * Unit of a row, named differently than printed.
+     */
+    public enum Unit {
+        PIECE, BOX;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Public view of the label of a row.
+     */
+    public interface Named {
+        String getName();
+    }
+
+    private static final class Label implements Named {
+
+        private final String name;
+
+        Label(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
+    private String name;
+    private double price;
+    private int qty;
+    private float weight = 0.1f;
+    private Integer discount;
+    private Unit unit = Unit.BOX;
+    private Row parent;
+    private int reads;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public int getQty() {
+        return qty;
+    }
+
+    public void setQty(int qty) {
+        this.qty = qty;
+    }
+
+    public float getWeight() {
+        return weight;
+    }
+
+    public Integer getDiscount() {
+        return discount;
+    }
+
+    public void setDiscount(Integer discount) {
+        this.discount = discount;
+    }
+
+    public Unit getUnit() {
+        return unit;
+    }
+
+    public Row getParent() {
+        return parent;
+    }
+
+    public void setParent(Row parent) {
+        this.parent = parent;
+    }
+
+    public Named getLabel() {
+        return new Label("label of " + name);
+    }
+
+    public boolean isHeavy() {
+        return weight > 1;
+    }
+
+    public int getNext() {
+        return ++reads;
+    }
+
+    public int getReads() {
+        return reads;
+    }
+
+    public String[] getTags() {
+        return new String[] { "first", "second" };
+    }
+}
@@ -0,0 +1,7 @@
+<%@ page language="java" contentType="text/plain;charset=UTF-8" import="java.util.concurrent.TimeUnit"%>
+name: ${param.name}
+twice: ${param.n * 2} ${(x -> x * 2)(param.n)}
+again: ${param.name}
+import: ${TimeUnit.SECONDS} ${Integer.MAX_VALUE}
+<% for (int i = 0; i < 3; i++) { pageContext.setAttribute("i", i); %>loop: ${i + 1}
+<% } %>
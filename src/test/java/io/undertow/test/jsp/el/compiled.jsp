@@ -0,0 +1,25 @@
+<%@ page language="java" contentType="text/plain;charset=UTF-8" import="java.util.concurrent.TimeUnit"%>
+<jsp:useBean id="row" class="io.undertow.test.jsp.el.Row"/>
+<jsp:useBean id="other" class="io.undertow.test.jsp.el.Row"/>
+<%
+    row.setName(request.getParameter("name"));
+    row.setPrice(Double.parseDouble(request.getParameter("price")));
+    row.setQty(Integer.parseInt(request.getParameter("qty")));
+    if (request.getParameter("parent") != null) {
+        io.undertow.test.jsp.el.Row parent = new io.undertow.test.jsp.el.Row();
+        parent.setName(request.getParameter("parent"));
+        row.setParent(parent);
+    }
+    pageContext.setAttribute("other", "replaced");
+%>
+total: ${row.price * row.qty}
+qty: ${row.qty + 1} ${row.qty - 10} ${row.qty / 2} ${row.qty % 3} ${-row.qty} ${row.qty * 1.5}
+compare: ${row.qty > 3} ${row.qty le 3} ${row.price == 2.5} ${row.qty != 4} ${row.name == 'pen'} ${row.name < 'pencil'}
+name: ${row.name} ${empty row.name} ${not empty row.name and row.qty > 1} ${row.qty > 10 || empty row.name}
+choice: ${row.qty > 3 ? 'many' : 'few'} ${row.qty > 3 ? row.qty : 'few'} ${row.name == null ? 'none' : row.name}
+parent: ${row.parent.name} ${empty row.parent} ${row.parent == null}
+values: ${row.weight} ${row.unit} ${row.discount} ${row.discount + 1}
+static: ${Integer.MAX_VALUE} ${TimeUnit.SECONDS} ${Long.MIN_VALUE + 1}
+fallback: ${row.tags[1]} ${other} ${param.qty + 1}
+once: ${row.next == 1 and other != null} ${row.next + row.discount} ${row.reads}
+<jsp:include page="${row.qty > 3 ? 'size.jsp?size=many' : 'size.jsp?size=few'}"/>
@@ -0,0 +1,3 @@
+<%@ page language="java" contentType="text/plain;charset=UTF-8"%>
+<% Object previous = pageContext.getELContext().getContext(String.class);
+   pageContext.getELContext().putContext(String.class, "user" + request.getParameter("n")); %>context: <%= previous %>
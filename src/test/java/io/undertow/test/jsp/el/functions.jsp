@@ -0,0 +1,12 @@
+<%@ page language="java" contentType="text/plain;charset=UTF-8"%>
+<%@ taglib uri="/functions.tld" prefix="f"%>
+<jsp:useBean id="row" class="io.undertow.test.jsp.el.Row"/>
+<%
+    row.setName(request.getParameter("name"));
+    row.setQty(Integer.parseInt(request.getParameter("qty")));
+%>
+upper: ${f:upper(row.name)} ${f:upper('a' == 'a' ? 'yes' : 'no')}
+twice: ${f:twice(row.qty)} ${f:twice(row.qty + 1) + 1} ${f:twice(2.7)}
+describe: ${f:describe(row.qty)} ${f:describe(row.qty + 1)} ${f:describe(row.name)} ${f:describe(null)} ${f:describe(row.qty > 1)}
+self: ${f:self(row).name} ${f:upper(f:self(row).name)}
+<% try { %>${f:fail(row.name)}<% } catch (jakarta.el.ELException e) { %>fail: <%= e.getCause().getMessage() %> <%= io.undertow.test.jsp.el.Functions.calls() %><% } %>
@@ -0,0 +1,16 @@
+<%@ page language="java" contentType="text/plain;charset=UTF-8" import="java.util.concurrent.TimeUnit"%>
+<% request.setAttribute("fromRequest", "request"); application.setAttribute("fromApplication", "application"); %>attribute: ${fromRequest} ${fromApplication}
+<% for (int i = 0; i < 3; i++) { %>missing: [${late}]
+<% } %><% pageContext.setAttribute("late", request.getParameter("name")); %>late: ${late}
+implicit: ${param.name} ${pageContext.request.method}
+import: ${TimeUnit.SECONDS} ${Integer.MAX_VALUE}
+<% pageContext.setAttribute("Integer", "attribute"); %>shadowed: ${Integer}
+
+<% final StringBuilder resolved = new StringBuilder();
+   pageContext.getELContext().addEvaluationListener(new jakarta.el.EvaluationListener() {
+       @Override
+       public void propertyResolved(jakarta.el.ELContext context, Object base, Object property) {
+           resolved.append(property).append(' ');
+       }
+   }); %>listened: ${fromRequest}
+resolved: <%= resolved %>
@@ -0,0 +1,18 @@
+<%@ page language="java" contentType="text/plain;charset=UTF-8" session="false"%>
+<% pageContext.setAttribute("fromPage", "page"); request.setAttribute("fromRequest", "request"); application.setAttribute("fromApplication", "application"); %>param: ${param.name} ${param['name']} ${not empty param.v} ${not empty param.missing}
+paramValues: ${paramValues.v[0]},${paramValues.v[1]} ${paramValues.size()}
+header: ${header['X-Foo']} ${headerValues['X-Foo'][0]},${headerValues['X-Foo'][1]}
+cookie: ${cookie.id.value} ${cookie.other.value} ${cookie.size()}
+scopes: ${pageScope.fromPage} ${requestScope.fromRequest} ${applicationScope.fromApplication}
+pageScope: ${pageScope.keySet().stream().filter(k -> k.startsWith('from')).toList()}
+sessionScope: ${sessionScope.keySet()} ${empty sessionScope.missing}
+initParam: ${empty initParam.missing}
+pageContext: ${pageContext.request.method}
+<% final StringBuilder resolved = new StringBuilder();
+   pageContext.getELContext().addEvaluationListener(new jakarta.el.EvaluationListener() {
+       @Override
+       public void propertyResolved(jakarta.el.ELContext context, Object base, Object property) {
+           resolved.append(base == null ? "" : "=").append(property).append(' ');
+       }
+   }); %>listened: ${param.name} ${requestScope.fromRequest}
+resolved: <%= resolved %>
@@ -0,0 +1,2 @@
+<%@ page language="java" contentType="text/plain;charset=UTF-8" errorOnELNotFound="true"%>
+notfound: ${missing}
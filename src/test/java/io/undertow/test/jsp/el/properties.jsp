@@ -0,0 +1,13 @@
+<%@ page language="java" contentType="text/plain;charset=UTF-8"%>
+<jsp:useBean id="row" class="io.undertow.test.jsp.el.Row"/>
+<%
+    row.setName(request.getParameter("name"));
+    row.setQty(3);
+    io.undertow.test.jsp.el.Row parent = new io.undertow.test.jsp.el.Row();
+    parent.setName("parent of " + request.getParameter("name"));
+    row.setParent(parent);
+%>
+name: ${row.name} ${row.qty} ${row.unit} ${row.weight} ${row.heavy} ${row.discount}
+label: ${row.label.name}
+parent: ${row.parent.name} ${row.parent.parent.name}
+other: ${row.tags[1]} ${row['class'].simpleName} ${row.label['name']}
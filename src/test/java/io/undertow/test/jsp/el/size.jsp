@@ -0,0 +1 @@
+<%@ page contentType="text/plain;charset=UTF-8"%>included: ${param.size}
@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.encoding;
+
+import io.undertow.jsp.HackInstanceManager;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.servlet.test.util.TestResourceLoader;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * Tests template text generated as pre-encoded byte arrays.
+ */
+@RunWith(DefaultServer.class)
+public class PreEncodedTextJspTestCase {
+
+    @BeforeClass
+    public static void setup() throws ServletException {
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(PreEncodedTextJspTestCase.class.getClassLoader())
+                .setContextPath("/servletContext")
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName("servletContext.war")
+                .setResourceManager(new TestResourceLoader(PreEncodedTextJspTestCase.class))
+                .addServlet(JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp")
+                        .addInitParam("genStringAsByteArray", "true"));
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), new HashMap<String, TagLibraryInfo>(), new HackInstanceManager());
+
+        DeploymentManager manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    @Test
+    public void testPreEncodedText() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/text.jsp");
+            HttpResponse result = client.execute(get);
+            Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+            final String response = EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+            MatcherAssert.assertThat(response, CoreMatchers.containsString("static: áéíóú €"));
+            MatcherAssert.assertThat(response, CoreMatchers.containsString("dynamic: ñ42"));
+            MatcherAssert.assertThat(response, CoreMatchers.containsString("included: ü"));
+            MatcherAssert.assertThat(response, CoreMatchers.containsString("<p>row ü 0</p>"));
+            MatcherAssert.assertThat(response, CoreMatchers.containsString("<p>row ü 999</p>"));
+            MatcherAssert.assertThat(response, CoreMatchers.containsString("<p>end</p>"));
+            Assert.assertTrue(response.indexOf("included: ü") < response.indexOf("<p>row ü 0</p>"));
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    @Test
+    public void testOtherCharset() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/latin1.jsp");
+            HttpResponse result = client.execute(get);
+            Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+            final String response = EntityUtils.toString(result.getEntity(), StandardCharsets.ISO_8859_1);
+            MatcherAssert.assertThat(response, CoreMatchers.containsString("latin: é ç"));
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    @Test
+    public void testCharsetChangedBeforeFlush() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            for (String page : new String[] {"relabelled.jsp", "switched.jsp"}) {
+                HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/" + page);
+                HttpResponse result = client.execute(get);
+                Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+                MatcherAssert.assertThat(result.getFirstHeader("Content-Type").getValue(),
+                        CoreMatchers.containsString("UTF-8"));
+                final String response = EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("before: é ç"));
+                MatcherAssert.assertThat(response, CoreMatchers.containsString("after: € €"));
+            }
+            HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/switched.jsp");
+            HttpResponse result = client.execute(get);
+            MatcherAssert.assertThat(EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8),
+                    CoreMatchers.containsString("before: é ç €"));
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    @Test
+    public void testUnpairedSurrogateAtEnd() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/unpaired.jsp");
+            HttpResponse result = client.execute(get);
+            Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+            final String response = EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8);
+            Assert.assertEquals("<p>end</p>?", response);
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+}
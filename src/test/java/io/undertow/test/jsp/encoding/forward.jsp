@@ -0,0 +1,3 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8" pageEncoding="UTF-8"%>
+<p>discarded</p>
+<jsp:forward page="/included.jsp"/>
@@ -0,0 +1,2 @@
+<%@ page language="java" contentType="text/html;charset=ISO-8859-1" pageEncoding="UTF-8"%>
+<p>latin: é <%= "ç" %></p>
@@ -0,0 +1,3 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8" pageEncoding="UTF-8"%>
+<% String smile = "\uD83D\uDE00"; for (int i = 0; i < 5000; i++) { out.write(smile.charAt(0)); out.write(smile.charAt(1)); %>ü<% } %>
+<p>end</p>
@@ -0,0 +1,4 @@
+<%@ page language="java" contentType="text/html;charset=ISO-8859-1" pageEncoding="UTF-8"%>
+<p>before: é <%= "ç" %> <%= "€" %></p>
+<% response.setCharacterEncoding("UTF-8"); %>
+<p>after: € <%= "€" %></p>
@@ -0,0 +1,11 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8" pageEncoding="UTF-8"%>
+<html>
+    <body>
+        <p>static: áéíóú €</p>
+        <p>dynamic: <%= "ñ" + 42 %></p>
+        <jsp:include page="/included.jsp"/>
+        <% for (int i = 0; i < 1000; i++) { %><p>row ü <%= i %></p>
+        <% } %>
+        <p>end</p>
+    </body>
+</html>
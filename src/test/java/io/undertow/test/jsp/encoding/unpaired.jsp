@@ -0,0 +1 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8" pageEncoding="UTF-8"%><p>end</p><% out.write(0xD83D); %>
\ No newline at end of file
@@ -0,0 +1,8 @@
+<%@ page language="java" contentType="text/html;charset=UTF-8" import="java.io.StringReader,org.apache.jasper.tagplugins.jstl.core.Out"%>
+<%
+    String value = request.getParameter("value");
+%>
+<p>string: <% Out.output(out, value, value, null, true); %></p>
+<p>reader: <% Out.output(out, new StringReader(value), null, null, true); %></p>
+<p>raw: <% Out.output(out, value, value, null, false); %></p>
+<p>default: <% Out.output(out, null, null, "<none>", true); %></p>
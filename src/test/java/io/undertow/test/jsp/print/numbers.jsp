@@ -0,0 +1,27 @@
+<%@ page language="java" contentType="text/plain;charset=UTF-8"%>
+<jsp:useBean id="list" class="java.util.ArrayList"/>
+<%
+    int i = -42;
+    long l = Long.MIN_VALUE;
+    double[] doubles = { 0.0, -0.0, 3.0, -1234567.0, 1.0E7, 0.1, Double.NaN, Double.NEGATIVE_INFINITY };
+    float f = 25.0f;
+%>
+int: <%= i %> <%= 0 %> <%= Integer.MAX_VALUE %>
+long: <%= l %> <%= Long.MAX_VALUE %>
+<% for (double d : doubles) { %>double: <%= d %>
+<% } %>float: <%= f %> <%= 0.5f %>
+char: <%= 'x' %>
+empty: <jsp:getProperty name="list" property="empty"/>
+<%
+    out = pageContext.pushBody();
+    out.print(i);
+    out.print(' ');
+    out.print(l);
+    out.print(' ');
+    out.print(-3.0);
+    out.print(' ');
+    out.print(2.5);
+    String body = ((jakarta.servlet.jsp.tagext.BodyContent) out).getString();
+    out = pageContext.popBody();
+%>
+body: <%= body %>
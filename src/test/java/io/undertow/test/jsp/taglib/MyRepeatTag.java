@@ -0,0 +1,52 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.undertow.test.jsp.taglib;
+
+import jakarta.servlet.jsp.JspException;
+import jakarta.servlet.jsp.tagext.BodyTagSupport;
+import java.io.IOException;
+
+/**
+ * Classic body tag repeating its buffered body, written out to the
+ * enclosing writer after each evaluation.
+ */
+public class MyRepeatTag extends BodyTagSupport {
+    private int times;
+    private int count;
+
+    public void setTimes(int times) {
+        this.times = times;
+    }
+
+    @Override
+    public int doStartTag() {
+        count = 0;
+        return times > 0 ? EVAL_BODY_BUFFERED : SKIP_BODY;
+    }
+
+    @Override
+    public int doAfterBody() throws JspException {
+        try {
+            getBodyContent().writeOut(getPreviousOut());
+            getBodyContent().clearBody();
+        } catch (IOException e) {
+            throw new JspException(e);
+        }
+        return ++count < times ? EVAL_BODY_AGAIN : SKIP_BODY;
+    }
+}
@@ -92,6 +92,17 @@ public class TagLibJspTestCase {
         attr.setReqTime("true");
         tagInfo.addTagAttributeInfo(attr);
         bugTld.addTagInfo(tagInfo);
+        TagInfo repeatInfo = new TagInfo();
+        repeatInfo.setTagName("repeat");
+        repeatInfo.setTagClassName(MyRepeatTag.class.getName());
+        repeatInfo.setBodyContent("JSP");
+        TagAttributeInfo times = new TagAttributeInfo();
+        times.setName("times");
+        times.setRequired("true");
+        times.setReqTime("true");
+        times.setType("int");
+        repeatInfo.addTagAttributeInfo(times);
+        bugTld.addTagInfo(repeatInfo);
         tags.put("/bug.tld", bugTld);
 
         JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), tags, new HackInstanceManager());
@@ -139,4 +150,32 @@ public class TagLibJspTestCase {
         }
     }
 
+    @Test
+    public void testNestedBodyContent() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/body.jsp");
+            HttpResponse result = client.execute(get);
+            Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+            final String response = HttpClientUtils.readResponse(result);
+            StringBuilder rows = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                rows.append("row ").append(i).append(';');
+            }
+            StringBuilder inner = new StringBuilder("(");
+            for (int i = 0; i < 4; i++) {
+                inner.append(rows);
+            }
+            inner.append(')');
+            StringBuilder outer = new StringBuilder("[");
+            for (int i = 0; i < 3; i++) {
+                outer.append(inner);
+            }
+            outer.append(']');
+            Assert.assertEquals(outer.toString() + outer, response.trim());
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
 }
@@ -0,0 +1 @@
+<%@ taglib uri="/bug.tld" prefix="bug" %><bug:repeat times="2">[<bug:repeat times="3">(<bug:repeat times="4"><% for (int i = 0; i < 1000; i++) { %>row <%= i %>;<% } %></bug:repeat>)</bug:repeat>]</bug:repeat>
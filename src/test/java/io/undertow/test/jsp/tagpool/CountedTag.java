@@ -0,0 +1,50 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.tagpool;
+
+import jakarta.servlet.jsp.JspException;
+import jakarta.servlet.jsp.tagext.TagSupport;
+import java.io.IOException;
+
+/**
+ * Classic tag writing its value, used to count pooled tag handlers.
+ */
+public class CountedTag extends TagSupport {
+    private String value;
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    @Override
+    public int doStartTag() throws JspException {
+        try {
+            pageContext.getOut().print("[" + value + "]");
+        } catch (IOException e) {
+            throw new JspException(e);
+        }
+        return SKIP_BODY;
+    }
+
+    @Override
+    public void release() {
+        value = null;
+        super.release();
+    }
+}
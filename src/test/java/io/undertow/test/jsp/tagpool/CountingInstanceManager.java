@@ -0,0 +1,49 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.tagpool;
+
+import io.undertow.jsp.HackInstanceManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.naming.NamingException;
+
+/**
+ * Instance manager counting the tag handlers it has been given and the
+ * ones it has destroyed.
+ */
+public class CountingInstanceManager extends HackInstanceManager {
+
+    final AtomicInteger created = new AtomicInteger();
+    final AtomicInteger destroyed = new AtomicInteger();
+
+    @Override
+    public void newInstance(final Object o) throws IllegalAccessException, InvocationTargetException, NamingException {
+        if (o instanceof CountedTag) {
+            created.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void destroyInstance(final Object o) throws IllegalAccessException, InvocationTargetException {
+        if (o instanceof CountedTag) {
+            destroyed.incrementAndGet();
+        }
+    }
+}
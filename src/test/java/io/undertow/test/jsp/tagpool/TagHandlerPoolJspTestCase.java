@@ -0,0 +1,219 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.undertow.test.jsp.tagpool;
+
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.PathHandler;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.test.util.TestClassIntrospector;
+import io.undertow.servlet.test.util.TestResourceLoader;
+import io.undertow.testutils.DefaultServer;
+import io.undertow.testutils.TestHttpClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.jasper.deploy.JspPropertyGroup;
+import org.apache.jasper.deploy.TagAttributeInfo;
+import org.apache.jasper.deploy.TagInfo;
+import org.apache.jasper.deploy.TagLibraryInfo;
+import org.apache.jasper.runtime.StripedTagHandlerPool;
+import org.apache.jasper.runtime.TagHandlerPool;
+import org.apache.jasper.runtime.TagHandlerPoolRegistry;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests the pooling of classic tag handlers.
+ */
+@RunWith(DefaultServer.class)
+public class TagHandlerPoolJspTestCase {
+
+    private static final int MAX_SIZE = 2;
+
+    private static final CountingInstanceManager instanceManager = new CountingInstanceManager();
+    private static DeploymentManager manager;
+
+    @BeforeClass
+    public static void setup() throws ServletException {
+
+        final PathHandler servletPath = new PathHandler();
+        final ServletContainer container = ServletContainer.Factory.newInstance();
+
+        DeploymentInfo builder = new DeploymentInfo()
+                .setClassLoader(TagHandlerPoolJspTestCase.class.getClassLoader())
+                .setContextPath("/servletContext")
+                .setClassIntrospecter(TestClassIntrospector.INSTANCE)
+                .setDeploymentName("servletContext.war")
+                .setResourceManager(new TestResourceLoader(TagHandlerPoolJspTestCase.class))
+                .addServlet(JspServletBuilder.createServlet("Default Jsp Servlet", "*.jsp")
+                        .addInitParam(TagHandlerPool.OPTION_TAGPOOL, StripedTagHandlerPool.class.getName())
+                        .addInitParam(TagHandlerPool.OPTION_MAXSIZE, String.valueOf(MAX_SIZE)));
+
+        Map<String, TagLibraryInfo> tags = new HashMap<>();
+        TagLibraryInfo poolTld = new TagLibraryInfo();
+        poolTld.setUri("/pool.tld");
+        poolTld.setPath("/pool.tld");
+        poolTld.setVersion("2.0");
+        poolTld.setTlibversion("1.1");
+        TagInfo tagInfo = new TagInfo();
+        tagInfo.setTagName("counted");
+        tagInfo.setTagClassName(CountedTag.class.getName());
+        tagInfo.setBodyContent("empty");
+        TagAttributeInfo attr = new TagAttributeInfo();
+        attr.setName("value");
+        attr.setRequired("true");
+        attr.setReqTime("true");
+        tagInfo.addTagAttributeInfo(attr);
+        poolTld.addTagInfo(tagInfo);
+        tags.put("/pool.tld", poolTld);
+
+        JspServletBuilder.setupDeployment(builder, new HashMap<String, JspPropertyGroup>(), tags, instanceManager);
+
+        manager = container.addDeployment(builder);
+        manager.deploy();
+        servletPath.addPrefixPath(builder.getContextPath(), manager.start());
+
+        DefaultServer.setRootHandler(servletPath);
+    }
+
+    @AfterClass
+    public static void testHandlersDestroyed() throws ServletException {
+        manager.stop();
+        manager.undeploy();
+        Assert.assertTrue(instanceManager.created.get() > 0);
+        Assert.assertEquals(instanceManager.created.get(), instanceManager.destroyed.get());
+    }
+
+    private static String get(TestHttpClient client, String value) throws IOException {
+        return get(client, "pool.jsp", value);
+    }
+
+    private static String get(TestHttpClient client, String page, String value) throws IOException {
+        HttpGet get = new HttpGet(DefaultServer.getDefaultServerURL() + "/servletContext/" + page + "?v=" + value);
+        HttpResponse result = client.execute(get);
+        Assert.assertEquals(200, result.getStatusLine().getStatusCode());
+        return EntityUtils.toString(result.getEntity(), StandardCharsets.UTF_8).trim();
+    }
+
+    @Test
+    public void testHandlersReused() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            for (int i = 0; i < 50; i++) {
+                Assert.assertEquals("[a][b][" + i + "]", get(client, String.valueOf(i)));
+            }
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+        // 150 tag invocations
+        Assert.assertTrue(instanceManager.created.get() < 50);
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                results.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        TestHttpClient client = new TestHttpClient();
+                        try {
+                            for (int i = 0; i < 20; i++) {
+                                String value = thread + "-" + i;
+                                Assert.assertEquals("[a][b][" + value + "]", get(client, value));
+                            }
+                        } finally {
+                            client.getConnectionManager().shutdown();
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // However many threads used them, each pool keeps up to its capacity
+        TagHandlerPoolRegistry registry =
+                TagHandlerPoolRegistry.getInstance(manager.getDeployment().getServletContext());
+        Assert.assertTrue(instanceManager.created.get() - instanceManager.destroyed.get()
+                <= registry.getSharedPoolCount() * MAX_SIZE);
+    }
+
+    @Test
+    public void testIdleHandlersTrimmed() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals("[a][b][" + i + "]", get(client, String.valueOf(i)));
+            }
+            Assert.assertTrue(instanceManager.destroyed.get() < instanceManager.created.get());
+            TagHandlerPoolRegistry registry =
+                    TagHandlerPoolRegistry.getInstance(manager.getDeployment().getServletContext());
+            // Marked as used, then halved down to a single slot, then emptied
+            for (int i = 0; i < 8; i++) {
+                registry.trim();
+            }
+            Assert.assertEquals(instanceManager.created.get(), instanceManager.destroyed.get());
+            // Handlers are pooled again afterwards
+            Assert.assertEquals("[a][b][x]", get(client, "x"));
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    @Test
+    public void testPoolsSharedBetweenPages() throws IOException {
+        TestHttpClient client = new TestHttpClient();
+        try {
+            Assert.assertEquals("[a][b][x]", get(client, "x"));
+            TagHandlerPoolRegistry registry =
+                    TagHandlerPoolRegistry.getInstance(manager.getDeployment().getServletContext());
+            final int pools = registry.getSharedPoolCount();
+            Assert.assertTrue(pools > 0);
+            // Another prefix for the same tag, with the same attributes
+            Assert.assertEquals("[y]", get(client, "shared.jsp", "y"));
+            Assert.assertEquals(pools, registry.getSharedPoolCount());
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+}
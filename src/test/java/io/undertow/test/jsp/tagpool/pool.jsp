@@ -0,0 +1 @@
+<%@ taglib uri="/pool.tld" prefix="pool" %><pool:counted value="a"/><pool:counted value="b"/><pool:counted value="<%= request.getParameter(\"v\") %>"/>
@@ -0,0 +1 @@
+<%@ taglib uri="/pool.tld" prefix="other" %><other:counted value="<%= request.getParameter(\"v\") %>"/>
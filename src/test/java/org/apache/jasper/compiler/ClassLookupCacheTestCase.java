@@ -0,0 +1,153 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.compiler;
+
+import org.apache.jasper.Options;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jakarta.servlet.ServletContext;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the types and packages remembered for the compilations of pages.
+ */
+public class ClassLookupCacheTestCase {
+
+    /**
+     * Counts the lookups of each resource.
+     */
+    private static final class CountingClassLoader extends ClassLoader {
+
+        private final Map<String, AtomicInteger> lookups = new ConcurrentHashMap<>();
+
+        CountingClassLoader() {
+            super(ClassLookupCacheTestCase.class.getClassLoader());
+        }
+
+        @Override
+        public URL getResource(String name) {
+            lookups.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet();
+            return super.getResource(name);
+        }
+
+        int lookups(String name) {
+            AtomicInteger count = lookups.get(name);
+            return count != null ? count.get() : 0;
+        }
+    }
+
+    @Test
+    public void testFoundTypesAreCached() {
+        CountingClassLoader appLoader = new CountingClassLoader();
+        CountingClassLoader jspLoader = new CountingClassLoader();
+        ClassLookupCache cache = new ClassLookupCache(appLoader);
+
+        ClassFileReader type = cache.findType(jspLoader, "java.lang.String");
+        Assert.assertNotNull(type);
+        Assert.assertSame(type, cache.findType(jspLoader, "java.lang.String"));
+        Assert.assertEquals(1, appLoader.lookups("java/lang/String.class"));
+        Assert.assertEquals(0, jspLoader.lookups("java/lang/String.class"));
+    }
+
+    @Test
+    public void testMissingTypesAreCached() {
+        CountingClassLoader appLoader = new CountingClassLoader();
+        ClassLookupCache cache = new ClassLookupCache(appLoader);
+
+        for (int n = 0; n < 2; n++) {
+            Assert.assertNull(cache.findType(appLoader, "com.example.Missing"));
+        }
+        Assert.assertEquals(1, appLoader.lookups("com/example/Missing.class"));
+    }
+
+    @Test
+    public void testPackagesAreCached() {
+        CountingClassLoader appLoader = new CountingClassLoader();
+        ClassLookupCache cache = new ClassLookupCache(appLoader);
+
+        for (int n = 0; n < 2; n++) {
+            Assert.assertTrue(cache.isPackage(appLoader, "java.lang"));
+            Assert.assertFalse(cache.isPackage(appLoader, "java.lang.String"));
+        }
+        Assert.assertEquals(1, appLoader.lookups("java/lang"));
+        Assert.assertEquals(1, appLoader.lookups("java/lang/String"));
+    }
+
+    @Test
+    public void testJspPackageIsNotCached() {
+        CountingClassLoader appLoader = new CountingClassLoader();
+        CountingClassLoader jspLoader = new CountingClassLoader();
+        ClassLookupCache cache = new ClassLookupCache(appLoader);
+
+        for (int n = 0; n < 2; n++) {
+            Assert.assertNull(cache.findType(jspLoader, "org.apache.jsp.page_jsp"));
+            cache.isPackage(jspLoader, "org.apache.jsp.tag");
+            // Only the JSP package itself, not the ones sharing its prefix
+            Assert.assertNull(cache.findType(jspLoader, "org.apache.jspx.Missing"));
+        }
+        Assert.assertEquals(2, jspLoader.lookups("org/apache/jsp/page_jsp.class"));
+        Assert.assertEquals(2, jspLoader.lookups("org/apache/jsp/tag"));
+        Assert.assertEquals(0, appLoader.lookups("org/apache/jsp/page_jsp.class"));
+        Assert.assertEquals(0, appLoader.lookups("org/apache/jsp/tag"));
+        Assert.assertEquals(1, appLoader.lookups("org/apache/jspx/Missing.class"));
+        Assert.assertEquals(0, jspLoader.lookups("org/apache/jspx/Missing.class"));
+    }
+
+    @Test
+    public void testCacheReplacedWithClassLoader() {
+        JspRuntimeContext rctxt = new JspRuntimeContext(
+                defaults(ServletContext.class), defaults(Options.class));
+        ClassLoader first = new CountingClassLoader();
+        ClassLoader second = new CountingClassLoader();
+
+        ClassLookupCache cache = rctxt.getClassLookupCache(first);
+        Assert.assertSame(first, cache.getClassLoader());
+        Assert.assertSame(cache, rctxt.getClassLookupCache(first));
+
+        ClassLookupCache replaced = rctxt.getClassLookupCache(second);
+        Assert.assertNotSame(cache, replaced);
+        Assert.assertSame(second, replaced.getClassLoader());
+        Assert.assertSame(replaced, rctxt.getClassLookupCache(second));
+    }
+
+    /**
+     * @return an implementation answering <code>null</code>, <code>false</code>
+     *         or zero to everything
+     */
+    private static <T> T defaults(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    Class<?> returnType = method.getReturnType();
+                    if (returnType == boolean.class) {
+                        return Boolean.FALSE;
+                    } else if (returnType == int.class) {
+                        return Integer.valueOf(0);
+                    } else if (returnType == long.class) {
+                        return Long.valueOf(0);
+                    }
+                    return null;
+                }));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.runtime;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the arrays handed over between character buffers.
+ */
+public class CharBufferTestCase {
+
+    private static String text(char c, int length) {
+        char[] chars = new char[length];
+        java.util.Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    @Test
+    public void testHandedOverArraysAreReused() {
+        List<char[]> freeList = new ArrayList<>();
+        CharBuffer inner = new CharBuffer(16, 0, freeList);
+        CharBuffer outer = new CharBuffer(16, 0, freeList);
+
+        inner.buffer(text('a', 17), 0, 17);
+        outer.buffer(inner);
+        inner.clear();
+        // The inner buffer gave its filled array away
+        Assert.assertTrue(freeList.isEmpty());
+        Assert.assertEquals(text('a', 17), outer.toString());
+
+        outer.clear();
+        Assert.assertEquals(1, freeList.size());
+        inner.buffer(text('b', 17), 0, 17);
+        Assert.assertTrue(freeList.isEmpty());
+        Assert.assertEquals(text('b', 17), inner.toString());
+    }
+
+    @Test
+    public void testContentKeptByGivingBuffer() {
+        List<char[]> freeList = new ArrayList<>();
+        CharBuffer inner = new CharBuffer(16, 0, freeList);
+        CharBuffer first = new CharBuffer(16, 0, freeList);
+        CharBuffer second = new CharBuffer(16, 0, freeList);
+
+        inner.buffer(text('a', 17), 0, 17);
+        first.buffer(inner);
+        second.buffer(inner);
+        Assert.assertEquals(text('a', 17), inner.toString());
+
+        // Still held by the others
+        second.clear();
+        Assert.assertTrue(freeList.isEmpty());
+        second.buffer(text('c', 100), 0, 100);
+        Assert.assertEquals(text('a', 17), first.toString());
+        Assert.assertEquals(text('a', 17), inner.toString());
+
+        inner.clear();
+        Assert.assertTrue(freeList.isEmpty());
+        first.clear();
+        Assert.assertEquals(1, freeList.size());
+    }
+
+    @Test
+    public void testReceiverClearedFirst() {
+        List<char[]> freeList = new ArrayList<>();
+        CharBuffer inner = new CharBuffer(16, 0, freeList);
+        CharBuffer outer = new CharBuffer(16, 0, freeList);
+        CharBuffer other = new CharBuffer(16, 0, freeList);
+
+        inner.buffer(text('a', 17), 0, 17);
+        outer.buffer(inner);
+        outer.clear();
+        // The inner buffer still holds the array
+        Assert.assertTrue(freeList.isEmpty());
+        other.buffer(text('c', 33), 0, 33);
+        inner.buffer(text('b', 20), 0, 20);
+        Assert.assertEquals(text('a', 17) + text('b', 20), inner.toString());
+
+        inner.clear();
+        Assert.assertFalse(freeList.isEmpty());
+    }
+}
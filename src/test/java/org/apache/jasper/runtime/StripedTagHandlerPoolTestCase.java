@@ -0,0 +1,117 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jasper.runtime;
+
+import io.undertow.jsp.HackInstanceManager;
+import org.apache.tomcat.InstanceManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.jsp.tagext.TagSupport;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the handlers kept by {@link StripedTagHandlerPool}.
+ */
+public class StripedTagHandlerPoolTestCase {
+
+    private static final int MAX_SIZE = 2;
+
+    private static final AtomicInteger created = new AtomicInteger();
+    private static final AtomicInteger destroyed = new AtomicInteger();
+
+    public static class PooledTag extends TagSupport {
+
+        public PooledTag() {
+            created.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void testCapacityOfThePool() throws Exception {
+        InstanceManager instanceManager = new HackInstanceManager() {
+            @Override
+            public void destroyInstance(Object o) {
+                destroyed.incrementAndGet();
+            }
+        };
+        ServletContext context = (ServletContext) Proxy.newProxyInstance(
+                ServletContext.class.getClassLoader(), new Class<?>[] {ServletContext.class},
+                (proxy, method, args) -> method.getName().equals("getAttribute")
+                        && InstanceManager.class.getName().equals(args[0]) ? instanceManager : null);
+        ServletConfig config = (ServletConfig) Proxy.newProxyInstance(
+                ServletConfig.class.getClassLoader(), new Class<?>[] {ServletConfig.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getServletContext":
+                            return context;
+                        case "getInitParameter":
+                            return TagHandlerPool.OPTION_MAXSIZE.equals(args[0]) ? String.valueOf(MAX_SIZE) : null;
+                        default:
+                            return null;
+                    }
+                });
+        StripedTagHandlerPool pool = new StripedTagHandlerPool();
+        pool.init(config);
+
+        // Threads spread over the stripes, each holding two handlers at once
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 32; t++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        TagSupport first = (TagSupport) pool.get(PooledTag.class);
+                        TagSupport second = (TagSupport) pool.get(PooledTag.class);
+                        pool.reuse(second);
+                        pool.reuse(first);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue(created.get() - destroyed.get() <= MAX_SIZE);
+
+        // Handlers are pooled again once trimmed
+        for (int i = 0; i < 4; i++) {
+            pool.trim();
+        }
+        Assert.assertEquals(created.get(), destroyed.get());
+        pool.reuse(pool.get(PooledTag.class));
+        int count = created.get();
+        pool.reuse(pool.get(PooledTag.class));
+        Assert.assertEquals(count, created.get());
+
+        pool.release();
+        Assert.assertEquals(created.get(), destroyed.get());
+    }
+}